@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.valdroz.vscript.Configuration;
+import org.valdroz.vscript.DefaultVariantContainer;
+import org.valdroz.vscript.EquationEval;
+import org.valdroz.vscript.Variant;
+import org.valdroz.vscript.json.DataSetIndex;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation of comparison heavy evaluation and of indexing JSON with repeating strings. Run with `-prof gc` and
+ * compare `gc.alloc.rate.norm` against an earlier release, and with `stringInterning` on and off.
+ * Requires vscript 3.14.0 or later.
+ *
+ * @author Valerijus Drozdovas
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class AllocationBenchmark {
+
+    private static final String COMPARISON =
+            "qty > 3 && price < 100 && discount == 5 && size(name) > 2 && qty != 0 && (qty & 1) == 1";
+
+    @Param({"false", "true"})
+    public boolean stringInterning;
+
+    private EquationEval eval;
+    private DefaultVariantContainer container;
+    private String text;
+    private boolean restoreInterning;
+
+    @Setup
+    public void setUp() {
+        restoreInterning = Configuration.setStringInterning(stringInterning);
+        eval = new EquationEval(COMPARISON);
+        container = EvalBenchmark.newContainer();
+        text = Scripts.json(100).toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Configuration.setStringInterning(restoreInterning);
+    }
+
+    @Benchmark
+    public Variant comparison() {
+        return eval.eval(container);
+    }
+
+    @Benchmark
+    public DataSetIndex indexRepeatedStrings() {
+        return DataSetIndex.index(new StringReader(text));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.valdroz.vscript.DefaultVariantContainer;
+import org.valdroz.vscript.EquationEval;
+import org.valdroz.vscript.Variant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch evaluation versus a loop over single evaluations, per batch of records. Requires vscript 3.14.0 or later.
+ *
+ * @author Valerijus Drozdovas
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BatchEvalBenchmark {
+
+    @Param({"short", "long"})
+    public String script;
+
+    @Param({"1000"})
+    public int records;
+
+    private EquationEval eval;
+    private List<DefaultVariantContainer> containers;
+    private Variant[] results;
+
+    @Setup
+    public void setUp() {
+        eval = new EquationEval("short".equals(script) ? Scripts.SHORT : Scripts.longScript(50));
+        containers = new ArrayList<>(records);
+        for (int i = 0; i < records; ++i) {
+            DefaultVariantContainer container = EvalBenchmark.newContainer();
+            container.setVariant("qty", Variant.fromInt(i % 13));
+            containers.add(container);
+        }
+        results = new Variant[records];
+    }
+
+    @Benchmark
+    public Variant[] loop() {
+        for (int i = 0; i < containers.size(); ++i) {
+            results[i] = eval.eval(containers.get(i));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public Variant[] batch() {
+        return eval.evalBatch(containers, results);
+    }
+}
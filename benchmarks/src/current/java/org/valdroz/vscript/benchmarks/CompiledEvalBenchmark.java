@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.valdroz.vscript.CompiledExpression;
+import org.valdroz.vscript.DefaultVariantContainer;
+import org.valdroz.vscript.Variant;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of compiled expressions by compilation mode. Requires vscript 3.14.0 or later.
+ *
+ * @author Valerijus Drozdovas
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CompiledEvalBenchmark {
+
+    @Param({"arithmetic", "string", "comparison"})
+    public String expression;
+
+    @Param({"NONE", "ADAPTIVE", "BYTECODE", "REGISTER_MACHINE"})
+    public String mode;
+
+    private CompiledExpression expr;
+    private DefaultVariantContainer container;
+
+    @Setup
+    public void setUp() {
+        CompiledExpression.Mode[] modes = "NONE".equals(mode) ?
+                new CompiledExpression.Mode[0] :
+                new CompiledExpression.Mode[]{CompiledExpression.Mode.valueOf(mode)};
+        expr = CompiledExpression.compile(source(expression), null, modes);
+        container = EvalBenchmark.newContainer();
+    }
+
+    @Benchmark
+    public Variant eval() {
+        return expr.eval(container);
+    }
+
+    static String source(String expression) {
+        switch (expression) {
+            case "arithmetic":
+                return "(price * qty - discount) / 3 + price * 2 - qty * qty + price";
+            case "string":
+                return "name + \"-\" + name + \"-\" + name";
+            case "comparison":
+                return "price > 10 && qty <= 7 && discount != 3 && name == \"benchmark widget\" && qty * 2 >= price";
+            default:
+                throw new IllegalArgumentException(expression);
+        }
+    }
+}
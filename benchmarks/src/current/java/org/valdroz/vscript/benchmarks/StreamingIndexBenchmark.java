@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.benchmarks;
+
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.*;
+import org.valdroz.vscript.json.DataSetIndex;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexing time of JSON text through Gson tree versus streaming directly into {@link DataSetIndex}. Peak heap retained
+ * while indexing is measured by {@link StreamingIndexFootprint}.
+ *
+ * @author Valerijus Drozdovas
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class StreamingIndexBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int orders;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = Scripts.json(orders).toString();
+    }
+
+    @Benchmark
+    public DataSetIndex tree() {
+        return DataSetIndex.index(JsonParser.parseString(text).getAsJsonObject());
+    }
+
+    @Benchmark
+    public DataSetIndex streaming() {
+        return DataSetIndex.index(new StringReader(text));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.benchmarks;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.valdroz.vscript.json.DataSetIndex;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Peak heap retained while indexing JSON text through Gson tree versus streaming directly into {@link DataSetIndex}.
+ * Peak is reached when indexing completes: tree variant still holds the whole document tree next to the index,
+ * streaming variant holds the index only. Heap is measured after full GC, so allocated garbage is not counted.
+ * <p>
+ * Not a JMH benchmark, since JMH has no per-invocation gauge; run with
+ * `java -cp target/benchmarks.jar org.valdroz.vscript.benchmarks.StreamingIndexFootprint [orders...]`.
+ *
+ * @author Valerijus Drozdovas
+ */
+public final class StreamingIndexFootprint {
+
+    private static final int RUNS = 7;
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    /**
+     * Keeps measured objects reachable until heap is measured.
+     */
+    private static volatile Object[] sink;
+
+    private StreamingIndexFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = (args.length > 0) ?
+                Arrays.stream(args).mapToInt(Integer::parseInt).toArray() :
+                new int[]{100, 1000, 10000};
+        System.out.printf("%8s %16s %16s%n", "orders", "tree bytes", "streaming bytes");
+        for (int orders : sizes) {
+            String text = Scripts.json(orders).toString();
+            System.out.printf("%8d %16d %16d%n", orders, median(() -> tree(text)), median(() -> streaming(text)));
+        }
+    }
+
+    private static long tree(String text) {
+        sink = null;
+        long before = usedHeapAfterGc();
+        JsonObject document = JsonParser.parseString(text).getAsJsonObject();
+        sink = new Object[]{document, DataSetIndex.index(document)};
+        return usedHeapAfterGc() - before;
+    }
+
+    private static long streaming(String text) {
+        sink = null;
+        long before = usedHeapAfterGc();
+        sink = new Object[]{DataSetIndex.index(new StringReader(text))};
+        return usedHeapAfterGc() - before;
+    }
+
+    private static long median(LongSupplier measurement) {
+        long[] values = new long[RUNS];
+        for (int i = 0; i < RUNS; ++i) {
+            values[i] = measurement.getAsLong();
+        }
+        Arrays.sort(values);
+        return values[RUNS / 2];
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.valdroz.vscript.DefaultRunBlock;
+import org.valdroz.vscript.DefaultVariantContainer;
+import org.valdroz.vscript.EquationEval;
+import org.valdroz.vscript.Variant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interpreter throughput of pre-parsed expressions.
+ *
+ * @author Valerijus Drozdovas
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EvalBenchmark {
+
+    @Param({"arithmetic", "string", "array", "function"})
+    public String expression;
+
+    private EquationEval eval;
+    private DefaultVariantContainer container;
+
+    @Setup
+    public void setUp() {
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        runBlock.registerFunction("net(p, q)", lvc -> lvc.getVariant("p").multiply(lvc.getVariant("q")));
+        runBlock.registerFunction("tax(p)", lvc -> lvc.getVariant("p").multiply(Variant.fromDouble(0.21)));
+
+        eval = new EquationEval(source(expression)).withMasterBlock(runBlock);
+        container = newContainer();
+    }
+
+    @Benchmark
+    public Variant eval() {
+        return eval.eval(container);
+    }
+
+    static String source(String expression) {
+        switch (expression) {
+            case "arithmetic":
+                return Scripts.ARITHMETIC;
+            case "string":
+                return Scripts.STRING;
+            case "array":
+                return Scripts.ARRAY;
+            case "function":
+                return Scripts.FUNCTION;
+            default:
+                throw new IllegalArgumentException(expression);
+        }
+    }
+
+    static DefaultVariantContainer newContainer() {
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("price", Variant.fromDouble(12.75));
+        container.setVariant("qty", Variant.fromInt(7));
+        container.setVariant("discount", Variant.fromInt(5));
+        container.setVariant("name", Variant.fromString("benchmark widget"));
+        List<Variant> items = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            items.add(Variant.fromInt(i * 3 % 11));
+        }
+        container.setVariant("items", Variant.fromArray(items));
+        return container;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.valdroz.vscript.EquationEval;
+import org.valdroz.vscript.Node;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser throughput for short expressions and long multi-statement scripts.
+ *
+ * @author Valerijus Drozdovas
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"short", "long", "huge"})
+    public String script;
+
+    private String source;
+
+    @Setup
+    public void setUp() {
+        switch (script) {
+            case "short":
+                source = Scripts.SHORT;
+                break;
+            case "long":
+                source = Scripts.longScript(200);
+                break;
+            default:
+                source = Scripts.longScript(10_000);
+        }
+    }
+
+    @Benchmark
+    public Node parse() {
+        return EquationEval.parse(source);
+    }
+}
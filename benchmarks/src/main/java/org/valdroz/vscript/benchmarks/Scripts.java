@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.Random;
+
+/**
+ * Deterministic benchmark inputs.
+ *
+ * @author Valerijus Drozdovas
+ */
+final class Scripts {
+
+    static final String SHORT = "price * qty + if(discount > 0, price * discount / 100, 0)";
+
+    static final String ARITHMETIC = "(price * qty - discount) / 3 + sqrt(price) * 2 - pow(qty, 2) + abs(neg(price))";
+
+    static final String STRING = "first(name, 3) + \"-\" + last(name, 2) + \"-\" + skip(name, 1) + size(name)";
+
+    static final String ARRAY = "max(items) + min(items) + avg(items) + size(items) + items[3] + items[7]";
+
+    static final String FUNCTION = "net(price, qty) + net(qty, price) + tax(price)";
+
+    private Scripts() {
+    }
+
+    /**
+     * @return Script of given number of statements, each referencing variables assigned by previous ones.
+     */
+    static String longScript(int statements) {
+        StringBuilder sb = new StringBuilder("v0 = price * qty");
+        for (int i = 1; i < statements; ++i) {
+            sb.append("; v").append(i).append(" = if(v").append(i - 1).append(" > ").append(i)
+                    .append(", v").append(i - 1).append(" - ").append(i).append(" * 0.5, v")
+                    .append(i - 1).append(" + qty)");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Generates JSON document with `size` orders, each having nested line items and tags.
+     * Same `size` always yields the same document.
+     */
+    static JsonObject json(int size) {
+        Random random = new Random(size);
+        JsonObject root = new JsonObject();
+        root.addProperty("id", "customer-" + size);
+        root.addProperty("vip", true);
+        JsonArray orders = new JsonArray();
+        for (int i = 0; i < size; ++i) {
+            JsonObject order = new JsonObject();
+            order.addProperty("id", i);
+            order.addProperty("total", random.nextInt(100_000) / 100.0);
+            order.addProperty("status", (i % 3 == 0) ? "shipped" : "open");
+            JsonArray tags = new JsonArray();
+            tags.add("t" + (i % 5));
+            tags.add("t" + (i % 7));
+            order.add("tags", tags);
+            JsonArray lines = new JsonArray();
+            for (int j = 0; j < 2; ++j) {
+                JsonObject line = new JsonObject();
+                line.addProperty("sku", "sku-" + random.nextInt(1000));
+                line.addProperty("qty", 1 + random.nextInt(5));
+                lines.add(line);
+            }
+            order.add("lines", lines);
+            orders.add(order);
+        }
+        root.add("orders", orders);
+        return root;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.valdroz.vscript.Variant;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Variant arithmetic and comparison.
+ *
+ * @author Valerijus Drozdovas
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class VariantBenchmark {
+
+    private Variant integer;
+    private Variant decimal;
+    private Variant numericString;
+    private Variant string;
+
+    @Setup
+    public void setUp() {
+        integer = Variant.fromInt(1234);
+        decimal = Variant.fromDouble(56.789);
+        numericString = Variant.fromString("42.5");
+        string = Variant.fromString("hello");
+    }
+
+    @Benchmark
+    public Variant addIntegers() {
+        return integer.add(integer);
+    }
+
+    @Benchmark
+    public Variant multiplyDecimals() {
+        return decimal.multiply(integer);
+    }
+
+    @Benchmark
+    public Variant divideDecimals() {
+        return decimal.divide(integer);
+    }
+
+    @Benchmark
+    public int compareNumbers() {
+        return decimal.compareTo(integer);
+    }
+
+    @Benchmark
+    public Variant addNumericString() {
+        return integer.add(numericString);
+    }
+
+    @Benchmark
+    public Variant concatStrings() {
+        return string.add(string);
+    }
+
+    @Benchmark
+    public boolean equalsStrings() {
+        return string.equals(numericString);
+    }
+}
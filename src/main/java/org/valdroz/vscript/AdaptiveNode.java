@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import java.util.ListIterator;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Arithmetic or comparison node rewriting its operation after observing operand types, used by
+ * {@link CompiledExpression.Mode#ADAPTIVE} (see {@link OperandSpecialization}).
+ * <p>
+ * Adaptive nodes replace generic ones before compiled expression is shared. Current specialization is an immutable
+ * object published through a volatile field and replaced by compare-and-set, so concurrent evaluations see either
+ * old or new specialization and each guard miss is counted once.
+ *
+ * @author Valerijus Drozdovas
+ */
+final class AdaptiveNode extends BaseNode {
+
+    private static final AtomicReferenceFieldUpdater<AdaptiveNode, OperandSpecialization> SPECIALIZATION =
+            AtomicReferenceFieldUpdater.newUpdater(AdaptiveNode.class, OperandSpecialization.class, "specialization");
+
+    private final int operation;
+    private volatile OperandSpecialization specialization = OperandSpecialization.UNINITIALIZED;
+
+    private AdaptiveNode(BaseNode node) {
+        super(node.getId());
+        this.operation = node.getNodeOperation();
+        withNodeOperation(operation).withLeftNode(node.getLeftNode()).withRightNode(node.getRightNode());
+    }
+
+    /**
+     * Replaces arithmetic and comparison nodes in all statements of the given composite node by adaptive ones.
+     */
+    static CompositeNode enable(CompositeNode root) {
+        ListIterator<Node> statements = root.getNodes().listIterator();
+        while (statements.hasNext()) {
+            Node statement = statements.next();
+            if (statement instanceof BaseNode) {
+                BaseNode node = adapt((BaseNode) statement);
+                statements.set(node);
+                node.forEachNode(n -> n.replaceChildren(AdaptiveNode::adapt));
+            }
+        }
+        return root;
+    }
+
+    private static BaseNode adapt(BaseNode node) {
+        if (node.getClass() == BaseNode.class && OperandSpecialization.canSpecialize(node.getNodeOperation()) &&
+                node.getLeftNode() != null && node.getRightNode() != null) {
+            return new AdaptiveNode(node);
+        }
+        return node;
+    }
+
+    @Override
+    public Variant execute(VariantContainer variantContainer) {
+        Variant left = getLeftNode().execute(variantContainer);
+        Variant right = getRightNode().execute(variantContainer);
+        OperandSpecialization current = specialization;
+        if (!current.accepts(left, right)) {
+            current = respecialize(current, left, right);
+        }
+        return current.apply(operation, left, right);
+    }
+
+    private OperandSpecialization respecialize(OperandSpecialization current, Variant left, Variant right) {
+        while (true) {
+            OperandSpecialization next = current.next(operation, left, right);
+            if (SPECIALIZATION.compareAndSet(this, current, next)) {
+                return next;
+            }
+            current = specialization;
+            if (current.accepts(left, right)) {
+                return current;
+            }
+        }
+    }
+
+    OperandSpecialization getSpecialization() {
+        return specialization;
+    }
+}
@@ -24,10 +24,14 @@ import org.joda.time.format.DateTimeFormatter;
 import org.joda.time.format.ISODateTimeFormat;
 
 import java.math.BigDecimal;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Base interpretable node.
@@ -36,6 +40,7 @@ import java.util.function.Supplier;
  */
 class BaseNode implements Node, Constants {
     private final String id;
+    private final int nodeId;
     private int operation = 0;
     private String name = "";
 
@@ -46,10 +51,28 @@ class BaseNode implements Node, Constants {
 
     private RunBlock parentRunBlock = null;
 
+    private VariableSlots slots = null;
+    private int slot = -1;
+
     static Supplier<Long> currentTime = () -> DateTime.now().getMillis();
 
     BaseNode(String id) {
         this.id = id;
+        this.nodeId = parseNodeId(id);
+    }
+
+    /**
+     * Parser assigns ids as `n` followed by sequence number. Shared named constants (e.g. `true`) have no number.
+     */
+    private static int parseNodeId(String id) {
+        if (id != null && id.length() > 1 && id.charAt(0) == 'n') {
+            try {
+                return Integer.parseInt(id.substring(1));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
     }
 
     public String getName() {
@@ -60,6 +83,13 @@ class BaseNode implements Node, Constants {
         return id;
     }
 
+    /**
+     * @return Numeric node id, unique within parsed equation, or -1 for shared constants.
+     */
+    int getNodeId() {
+        return nodeId;
+    }
+
     protected Iterable<BaseNode> getParams() {
         return params;
     }
@@ -83,6 +113,10 @@ class BaseNode implements Node, Constants {
         this.valueSubstitution = node;
     }
 
+    BaseNode getValueSubstitution() {
+        return valueSubstitution;
+    }
+
     public BaseNode getLeftNode() {
         return leftNode;
     }
@@ -111,13 +145,13 @@ class BaseNode implements Node, Constants {
             case NT_LOCAL_VARIABLE:
                 if (getParameterNode() != null) {
                     int index = getParameterNode().execute(variantContainer).asNumeric().intValue();
-                    Variant _v = Variant.getArrayItem(variantContainer.getVariant(getName()), index);
+                    Variant _v = Variant.getArrayItem(VariableSlots.read(variantContainer, slots, slot, getName()), index);
                     if ((_v == null || _v.isNull()) && (valueSubstitution != null)) {
                         _v = valueSubstitution.execute(variantContainer);
                     }
                     return Variant.sanitize(_v);
                 } else {
-                    Variant _v = variantContainer.getVariant(getName());
+                    Variant _v = VariableSlots.read(variantContainer, slots, slot, getName());
                     if ((_v == null || _v.isNull()) && (valueSubstitution != null)) {
                         _v = valueSubstitution.execute(variantContainer);
                     }
@@ -272,28 +306,17 @@ class BaseNode implements Node, Constants {
                 result = Variant.fromInt(now().getDayOfYear());
                 break;
 
-            case NT_MF_DAYS_IN_MONTH: {
-                DateTime dt = now();
-                Variant month = getParameterOrNullNode().execute(variantContainer);
-                dt = dt.plusMonths(month.asNumeric().intValue());
-                result = Variant.fromInt(dt.dayOfMonth().withMaximumValue().getDayOfMonth());
-            }
-            break;
+            case NT_MF_DAYS_IN_MONTH:
+                result = daysInMonth(getParameterOrNullNode().execute(variantContainer));
+                break;
 
-            case NT_MF_ISO: {
-                Variant isoDate = getParameterOrNullNode().execute(variantContainer);
-                if (!isoDate.isString()) {
-                    throw new EvaluationException("ISO-8601 formatted string expected. Got: " + isoDate);
-                }
-                result = Variant.fromLong(ISODateTimeFormat.dateOptionalTimeParser().parseDateTime(isoDate.asString()).getMillis());
-            }
-            break;
+            case NT_MF_ISO:
+                result = isoMillis(getParameterOrNullNode().execute(variantContainer));
+                break;
 
-            case NT_MF_DAY_OF_WEEK: {
-                Variant timestamp = getParameterOrNullNode().execute(variantContainer);
-                result = Variant.fromInt(parseDayOfWeekTimestamp(timestamp).getDayOfWeek());
-            }
-            break;
+            case NT_MF_DAY_OF_WEEK:
+                result = dayOfWeek(getParameterOrNullNode().execute(variantContainer));
+                break;
 
             case NT_MF_NOW:
                 result = Variant.fromLong(currentTime.get());
@@ -315,16 +338,7 @@ class BaseNode implements Node, Constants {
                 if (params == null || params.size() != 1) {
                     throw new EvaluationException("Function `days_since_weekday` takes one parameter, the day of the week in numeric form");
                 }
-                int providedDay = params.get(0).execute(variantContainer).asNumeric().intValue();
-
-                if (providedDay >= 1 && providedDay <= 7) {
-                    int today = DateTime.now().getDayOfWeek();
-                    int providedDayLastWeek = 7 - Math.abs(today - providedDay);
-                    result = (providedDay > today) ? Variant.fromInt(providedDayLastWeek) : Variant.fromInt(today - providedDay);
-
-                } else {
-                    throw new EvaluationException("Provided day of week was invalid, needs to be between 1 and 7.");
-                }
+                result = daysSinceWeekday(params.get(0).execute(variantContainer));
                 break;
 
             case NT_MF_SIZE:
@@ -347,14 +361,9 @@ class BaseNode implements Node, Constants {
                 result = Variant.fromBoolean(getParameterOrNullNode().execute(variantContainer).isNull());
                 break;
 
-            case NT_MF_TO_ARRAY: {
-                List<Variant> arrItems = Lists.newArrayList();
-                if (params != null) {
-                    params.forEach(itemNode -> arrItems.add(itemNode.execute(variantContainer)));
-                }
-                result = Variant.fromArray(arrItems);
-            }
-            break;
+            case NT_MF_TO_ARRAY:
+                result = Variant.fromArray(evaluateParams(variantContainer));
+                break;
 
             case NT_MF_IF: {
                 if (params == null || params.size() < 3) {
@@ -372,17 +381,8 @@ class BaseNode implements Node, Constants {
                                     "E.g. %1$s(\"Hello\", 2) will result in \"He\"",
                             EquationParser.functionNameFromCode(operation)));
                 }
-                String _str = getParameterOrNullNode(0)
-                        .execute(variantContainer).asString();
-                int _p1 = getParameterOrNullNode(1)
-                        .execute(variantContainer).asNumeric().intValue();
-                if (_p1 < 0) {
-                    result = Variant.emptyStringVariant();
-                } else {
-                    result = (_p1 >= _str.length()) ?
-                            Variant.fromString(_str) :
-                            Variant.fromString(_str.substring(0, _p1));
-                }
+                result = first(getParameterOrNullNode(0).execute(variantContainer),
+                        getParameterOrNullNode(1).execute(variantContainer));
             }
             break;
 
@@ -392,18 +392,8 @@ class BaseNode implements Node, Constants {
                                     "E.g. %1$s(\"Hello\", 2) will result in \"lo\"",
                             EquationParser.functionNameFromCode(operation)));
                 }
-                String _str = getParameterOrNullNode(0)
-                        .execute(variantContainer).asString();
-                int _p1 = getParameterOrNullNode(1)
-                        .execute(variantContainer).asNumeric().intValue();
-                int _l = _str.length();
-                if (_p1 > _l) {
-                    result = Variant.fromString(_str);
-                } else if (_p1 < 0) {
-                    result = Variant.emptyStringVariant();
-                } else {
-                    result = Variant.fromString(_str.substring(_l - _p1, _l));
-                }
+                result = last(getParameterOrNullNode(0).execute(variantContainer),
+                        getParameterOrNullNode(1).execute(variantContainer));
             }
             break;
 
@@ -413,32 +403,17 @@ class BaseNode implements Node, Constants {
                                     "E.g. %1$s(\"Hello\", 2) will result in \"llo\"",
                             EquationParser.functionNameFromCode(operation)));
                 }
-                String _str = getParameterOrNullNode(0)
-                        .execute(variantContainer).asString();
-                int _p1 = getParameterOrNullNode(1)
-                        .execute(variantContainer).asNumeric().intValue();
-                int _l = _str.length();
-                if (_p1 > _l) {
-                    result = Variant.emptyStringVariant();
-                } else if (_p1 < 0) {
-                    result = Variant.fromString(_str);
-                } else {
-                    result = Variant.fromString(_str.substring(_p1));
-                }
+                result = skip(getParameterOrNullNode(0).execute(variantContainer),
+                        getParameterOrNullNode(1).execute(variantContainer));
             }
             break;
 
             case NT_MF_MAX: {
                 int _paramCount = getParameterCount();
                 if (_paramCount > 0) {
-                    Variant _v = params.get(0).execute(variantContainer);
-                    result = (_v.isArray()) ? max(_v.asArray()) : toNumeric(_v);
+                    result = maxOf(params.get(0).execute(variantContainer));
                     for (int i = 1; i < _paramCount; ++i) {
-                        _v = params.get(i).execute(variantContainer);
-                        _v = (_v.isArray()) ? max(_v.asArray()) : toNumeric(_v);
-                        if (_v.compareTo(result) > 0) {
-                            result = _v;
-                        }
+                        result = max(result, params.get(i).execute(variantContainer));
                     }
                 }
             }
@@ -447,14 +422,9 @@ class BaseNode implements Node, Constants {
             case NT_MF_MIN: {
                 int _paramCount = getParameterCount();
                 if (_paramCount > 0) {
-                    Variant _v = params.get(0).execute(variantContainer);
-                    result = (_v.isArray()) ? min(_v.asArray()) : toNumeric(_v);
+                    result = minOf(params.get(0).execute(variantContainer));
                     for (int i = 1; i < _paramCount; ++i) {
-                        _v = params.get(i).execute(variantContainer);
-                        _v = (_v.isArray()) ? min(_v.asArray()) : toNumeric(_v);
-                        if (!_v.isNull() && _v.compareTo(result) < 0) {
-                            result = _v;
-                        }
+                        result = min(result, params.get(i).execute(variantContainer));
                     }
                 }
             }
@@ -462,41 +432,13 @@ class BaseNode implements Node, Constants {
 
             case NT_MF_AVERAGE:
                 if (params != null) {
-                    BigDecimal sum = BigDecimal.ZERO;
-                    int _c = 0;
-                    for (BaseNode param : params) {
-                        Variant _v = param.execute(variantContainer);
-                        if (_v.isNumeric()) {
-                            _c += 1;
-                            sum = sum.add(_v.asNumeric());
-                        }
-                    }
-                    if (_c > 0) {
-                        result = Variant.fromBigDecimal(sum).divide(Variant.fromInt(_c));
-                    }
+                    result = average(evaluateParams(variantContainer));
                 }
                 break;
 
             case NT_MF_MEDIAN:
                 if (params != null) {
-                    List<BigDecimal> _values = Lists.newArrayList();
-                    for (BaseNode param : params) {
-                        Variant _v = param.execute(variantContainer);
-                        if (_v.isNumeric()) {
-                            _values.add(_v.asNumeric());
-                        }
-                    }
-                    _values.sort(BigDecimal::compareTo);
-                    if (!_values.isEmpty()) {
-                        if (Math.floorMod(_values.size(), 2) == 1) {
-                            result = Variant.fromBigDecimal(_values.get(_values.size() / 2));
-                        } else {
-                            result = Variant.fromBigDecimal(
-                                            _values.get(_values.size() / 2)
-                                                    .add(_values.get(_values.size() / 2 - 1)))
-                                    .divide(Variant.fromInt(2));
-                        }
-                    }
+                    result = median(evaluateParams(variantContainer));
                 }
                 break;
 
@@ -513,66 +455,34 @@ class BaseNode implements Node, Constants {
                     return Variant.nullVariant();
                 }
 
-                DateTime ts;
-                try {
-                    if (tsToBeFormatted.isNumeric()) {
-                        ts = new DateTime(tsToBeFormatted.asNumeric().longValue());
-                    } else {
-                        ts = new DateTime(tsToBeFormatted.asString());
-                    }
-                } catch(IllegalArgumentException iae) {
-                    throw new EvaluationException(
-                            "Invalid timestamp. Function format_ts(ts, fmt, tz) takes timestamp parameter " +
-                                    "in String ISO format or numeric milliseconds from 1/1/1970. Provided ts: " +
-                            tsToBeFormatted.asString());
-                }
-
-                String fmt = getParameterOrNullNode(1).execute(variantContainer).asString();
-
-                DateTimeFormatter dtf;
-
-                try {
-                    dtf = DateTimeFormat.forPattern(fmt);
-                } catch(IllegalArgumentException iae) {
-                    throw new EvaluationException("Invalid format specification.  Function format_ts(ts, fmt, tz)" +
-                            " takes fmt as valid timestamp format pattern.  Provided format was: " + fmt);
-                }
-
-                if (params.size() == 3) {
-                    String zoneId = getParameterOrNullNode(2).execute(variantContainer).asString();
-
-                    try {
-                        DateTimeZone dtz = DateTimeZone.forID(zoneId);
-                        ts = ts.withZone(dtz);
-                    } catch (IllegalArgumentException iae) {
-                        throw new EvaluationException("Invalid time zone ID. Function format_ts(ts, fmt, tz)" +
-                                " takes tz as TimeZone ID. Provided time zone ID was: " + zoneId);
-                    }
-                }
-
-                result = Variant.fromString(ts.toString(dtf));
-
+                DateTime ts = parseTimestamp(tsToBeFormatted);
+                result = formatTimestamp(ts, getParameterOrNullNode(1).execute(variantContainer),
+                        (params.size() == 3) ? getParameterOrNullNode(2).execute(variantContainer) : null);
                 break;
 
             case NT_FUNCTION: {
-                if (parentRunBlock == null) {
-                    throw new UndefinedFunction(getName());
-                }
-                AbstractFunction function = parentRunBlock.resolveFunction(getName());
-                if (function == null) {
-                    throw new UndefinedFunction(getName());
-                }
-                LocalVariantContainer lvc = new LocalVariantContainer(variantContainer);
+                AbstractFunction function = resolveFunction();
                 List<String> parameterNames = function.getParameterNames();
-                for (int pidx = 0;
-                     pidx < Math.min(params.size(), parameterNames.size());
-                     ++pidx) {
-                    String fpn = parameterNames.get(pidx);
-                    if (!fpn.isEmpty()) {
-                        lvc.setVariant(fpn, params.get(pidx).execute(variantContainer));
+                if (function instanceof MemoizedFunction) {
+                    Variant[] args = new Variant[Math.min(params.size(), parameterNames.size())];
+                    for (int pidx = 0; pidx < args.length; ++pidx) {
+                        if (!parameterNames.get(pidx).isEmpty()) {
+                            args[pidx] = params.get(pidx).execute(variantContainer);
+                        }
                     }
+                    result = ((MemoizedFunction) function).call(args, variantContainer);
+                } else {
+                    LocalVariantContainer lvc = new LocalVariantContainer(variantContainer);
+                    for (int pidx = 0;
+                         pidx < Math.min(params.size(), parameterNames.size());
+                         ++pidx) {
+                        String fpn = parameterNames.get(pidx);
+                        if (!fpn.isEmpty()) {
+                            lvc.setVariant(fpn, params.get(pidx).execute(variantContainer));
+                        }
+                    }
+                    result = function.execute(lvc);
                 }
-                result = function.execute(lvc);
                 if ((result == null || result.isNull()) && (valueSubstitution != null)) {
                     result = valueSubstitution.execute(variantContainer);
                 }
@@ -623,22 +533,22 @@ class BaseNode implements Node, Constants {
     /**
      * Returns parameter node for build-in functions like "sin", "cos" etc., or array index.
      */
-    private BaseNode getParameterNode() {
+    BaseNode getParameterNode() {
         if (getParameterCount() > 0) {
             return params.get(0);
         }
         return null;
     }
 
-    private BaseNode getParameterOrNullNode() {
+    BaseNode getParameterOrNullNode() {
         return Optional.ofNullable(getParameterNode()).orElse(C_NULL);
     }
 
-    private BaseNode getParameterOrNullNode(int index) {
+    BaseNode getParameterOrNullNode(int index) {
         return (getParameterCount() > index) ? params.get(index) : C_NULL;
     }
 
-    private int getParameterCount() {
+    int getParameterCount() {
         return (params != null) ? params.size() : 0;
     }
 
@@ -650,55 +560,109 @@ class BaseNode implements Node, Constants {
             // Array variable node
             if (getParameterNode() != null) {
                 int index = getParameterNode().execute(variantContainer).asNumeric().intValue();
-                variantContainer.setVariant(getName(), index, newValue);
+                VariableSlots.write(variantContainer, slots, slot, getName(), index, newValue);
             } else {
-                variantContainer.setVariant(getName(), newValue);
+                VariableSlots.write(variantContainer, slots, slot, getName(), newValue);
             }
-            return variantContainer.getVariant(getName());
+            return VariableSlots.read(variantContainer, slots, slot, getName());
         } else {
             throw new EvaluationException("Invalid assignment");
         }
     }
 
 
-    @Override
-    public void setParentRunBlock(RunBlock runBlock) {
-        parentRunBlock = runBlock;
-        if (leftNode != null) leftNode.setParentRunBlock(runBlock);
-        if (rightNode != null) rightNode.setParentRunBlock(runBlock);
+    /**
+     * Resolves custom function this node calls.
+     *
+     * @throws UndefinedFunction if parent run block does not define function.
+     */
+    AbstractFunction resolveFunction() {
+        AbstractFunction function = (parentRunBlock != null) ? parentRunBlock.resolveFunction(getName()) : null;
+        if (function == null) {
+            throw new UndefinedFunction(getName());
+        }
+        return function;
+    }
 
+    private List<Variant> evaluateParams(VariantContainer variantContainer) {
+        List<Variant> values = Lists.newArrayList();
         if (params != null) {
-            params.forEach(nd -> nd.setParentRunBlock(runBlock));
+            params.forEach(param -> values.add(param.execute(variantContainer)));
         }
+        return values;
     }
 
     @Override
-    public void collectStats(NodeStats stats) {
-        switch (this.operation) {
-            case NT_VARIABLE:
-                stats.referencedVariable(getName());
-                break;
-            case NT_FUNCTION:
-                stats.referencedExtFunction(getName());
-                break;
-        }
+    public void setParentRunBlock(RunBlock runBlock) {
+        forEachNode(node -> node.parentRunBlock = runBlock);
+    }
 
-        if (valueSubstitution != null) {
-            valueSubstitution.collectStats(stats);
-        }
+    /**
+     * Binds variable nodes of this subtree to slots of the given layout.
+     */
+    void bindSlots(VariableSlots slots) {
+        forEachNode(node -> {
+            if (node.operation == NT_VARIABLE) {
+                node.slots = slots;
+                node.slot = slots.indexOf(node.getName());
+            }
+        });
+    }
 
-        if (leftNode != null) {
-            leftNode.collectStats(stats);
+    /**
+     * Applies action to this node and all nodes below it, parent before children, children in order of evaluation.
+     * Tree is walked with explicit stack, so deeply nested expressions cannot overflow thread stack. Constant nodes
+     * are skipped, since they can be shared between trees.
+     */
+    void forEachNode(Consumer<BaseNode> action) {
+        Deque<BaseNode> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            BaseNode node = pending.pop();
+            if (node instanceof ConstantNode) {
+                continue;
+            }
+            action.accept(node);
+            for (int i = node.getParameterCount() - 1; i >= 0; --i) {
+                pending.push(node.params.get(i));
+            }
+            if (node.rightNode != null) pending.push(node.rightNode);
+            if (node.leftNode != null) pending.push(node.leftNode);
+            if (node.valueSubstitution != null) pending.push(node.valueSubstitution);
         }
+    }
 
-        if (rightNode != null) {
-            rightNode.collectStats(stats);
-        }
+    /**
+     * Replaces direct child nodes by the result of `replacement` (e.g. by specialized nodes). Not thread-safe, must be
+     * done before tree is shared.
+     */
+    void replaceChildren(UnaryOperator<BaseNode> replacement) {
+        if (valueSubstitution != null) valueSubstitution = replacement.apply(valueSubstitution);
+        if (leftNode != null) leftNode = replacement.apply(leftNode);
+        if (rightNode != null) rightNode = replacement.apply(rightNode);
+        if (params != null) params.replaceAll(replacement);
+    }
 
-        if (params != null) {
-            params.forEach(baseNode -> baseNode.collectStats(stats));
-        }
+    VariableSlots getSlots() {
+        return slots;
+    }
 
+    int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public void collectStats(NodeStats stats) {
+        forEachNode(node -> {
+            switch (node.operation) {
+                case NT_VARIABLE:
+                    stats.referencedVariable(node.getName());
+                    break;
+                case NT_FUNCTION:
+                    stats.referencedExtFunction(node.getName());
+                    break;
+            }
+        });
     }
 
     /**
@@ -712,6 +676,13 @@ class BaseNode implements Node, Constants {
         params = new ArrayList<>();
     }
 
+    /**
+     * Replaces parameter node at given index. Used by tree rewriting passes.
+     */
+    void setParameterNode(int index, BaseNode paramNode) {
+        params.set(index, paramNode);
+    }
+
     @Override
     public String toString() {
         return this.id;
@@ -733,6 +704,110 @@ class BaseNode implements Node, Constants {
         throw new RuntimeException("ISO string date or millis is expected as input."); 
     }
 
+    static Variant daysInMonth(Variant month) {
+        DateTime dt = now().plusMonths(month.asNumeric().intValue());
+        return Variant.fromInt(dt.dayOfMonth().withMaximumValue().getDayOfMonth());
+    }
+
+    static Variant isoMillis(Variant isoDate) {
+        if (!isoDate.isString()) {
+            throw new EvaluationException("ISO-8601 formatted string expected. Got: " + isoDate);
+        }
+        return Variant.fromLong(ISODateTimeFormat.dateOptionalTimeParser().parseDateTime(isoDate.asString()).getMillis());
+    }
+
+    static Variant dayOfWeek(Variant timestamp) {
+        return Variant.fromInt(parseDayOfWeekTimestamp(timestamp).getDayOfWeek());
+    }
+
+    static Variant daysSinceWeekday(Variant day) {
+        int providedDay = day.asNumeric().intValue();
+
+        if (providedDay >= 1 && providedDay <= 7) {
+            int today = DateTime.now().getDayOfWeek();
+            int providedDayLastWeek = 7 - Math.abs(today - providedDay);
+            return (providedDay > today) ? Variant.fromInt(providedDayLastWeek) : Variant.fromInt(today - providedDay);
+        }
+        throw new EvaluationException("Provided day of week was invalid, needs to be between 1 and 7.");
+    }
+
+    static DateTime parseTimestamp(Variant timestamp) {
+        try {
+            if (timestamp.isNumeric()) {
+                return new DateTime(timestamp.asNumeric().longValue());
+            }
+            return new DateTime(timestamp.asString());
+        } catch (IllegalArgumentException iae) {
+            throw new EvaluationException(
+                    "Invalid timestamp. Function format_ts(ts, fmt, tz) takes timestamp parameter " +
+                            "in String ISO format or numeric milliseconds from 1/1/1970. Provided ts: " +
+                            timestamp.asString());
+        }
+    }
+
+    /**
+     * @param zone time zone ID, or `null` to keep time zone of timestamp.
+     */
+    static Variant formatTimestamp(DateTime ts, Variant format, Variant zone) {
+        String fmt = format.asString();
+
+        DateTimeFormatter dtf;
+
+        try {
+            dtf = DateTimeFormat.forPattern(fmt);
+        } catch (IllegalArgumentException iae) {
+            throw new EvaluationException("Invalid format specification.  Function format_ts(ts, fmt, tz)" +
+                    " takes fmt as valid timestamp format pattern.  Provided format was: " + fmt);
+        }
+
+        if (zone != null) {
+            String zoneId = zone.asString();
+
+            try {
+                DateTimeZone dtz = DateTimeZone.forID(zoneId);
+                ts = ts.withZone(dtz);
+            } catch (IllegalArgumentException iae) {
+                throw new EvaluationException("Invalid time zone ID. Function format_ts(ts, fmt, tz)" +
+                        " takes tz as TimeZone ID. Provided time zone ID was: " + zoneId);
+            }
+        }
+
+        return Variant.fromString(ts.toString(dtf));
+    }
+
+    static Variant first(Variant str, Variant count) {
+        String _str = str.asString();
+        int _p1 = count.asNumeric().intValue();
+        if (_p1 < 0) {
+            return Variant.emptyStringVariant();
+        }
+        return (_p1 >= _str.length()) ? Variant.fromString(_str) : Variant.fromString(_str.substring(0, _p1));
+    }
+
+    static Variant last(Variant str, Variant count) {
+        String _str = str.asString();
+        int _p1 = count.asNumeric().intValue();
+        int _l = _str.length();
+        if (_p1 > _l) {
+            return Variant.fromString(_str);
+        } else if (_p1 < 0) {
+            return Variant.emptyStringVariant();
+        }
+        return Variant.fromString(_str.substring(_l - _p1, _l));
+    }
+
+    static Variant skip(Variant str, Variant count) {
+        String _str = str.asString();
+        int _p1 = count.asNumeric().intValue();
+        int _l = _str.length();
+        if (_p1 > _l) {
+            return Variant.emptyStringVariant();
+        } else if (_p1 < 0) {
+            return Variant.fromString(_str);
+        }
+        return Variant.fromString(_str.substring(_p1));
+    }
+
     private static DateTime parseDayOfWeekTimestamp(Variant timestamp) {
         if (timestamp.isString()) {
             try {
@@ -787,6 +862,62 @@ class BaseNode implements Node, Constants {
         return min;
     }
 
+    /**
+     * Returns value `max()` function compares: the largest item of array, or numeric value.
+     */
+    static Variant maxOf(Variant v) {
+        return (v.isArray()) ? max(v.asArray()) : toNumeric(v);
+    }
+
+    /**
+     * Returns value `min()` function compares: the smallest item of array, or numeric value.
+     */
+    static Variant minOf(Variant v) {
+        return (v.isArray()) ? min(v.asArray()) : toNumeric(v);
+    }
+
+    static Variant max(Variant current, Variant v) {
+        Variant _v = maxOf(v);
+        return (_v.compareTo(current) > 0) ? _v : current;
+    }
+
+    static Variant min(Variant current, Variant v) {
+        Variant _v = minOf(v);
+        return (!_v.isNull() && _v.compareTo(current) < 0) ? _v : current;
+    }
+
+    static Variant average(List<Variant> values) {
+        BigDecimal sum = BigDecimal.ZERO;
+        int _c = 0;
+        for (Variant _v : values) {
+            if (_v.isNumeric()) {
+                _c += 1;
+                sum = sum.add(_v.asNumeric());
+            }
+        }
+        return (_c > 0) ? Variant.fromBigDecimal(sum).divide(Variant.fromInt(_c)) : Variant.nullVariant();
+    }
+
+    static Variant median(List<Variant> values) {
+        List<BigDecimal> _values = Lists.newArrayList();
+        for (Variant _v : values) {
+            if (_v.isNumeric()) {
+                _values.add(_v.asNumeric());
+            }
+        }
+        _values.sort(BigDecimal::compareTo);
+        if (_values.isEmpty()) {
+            return Variant.nullVariant();
+        }
+        if (Math.floorMod(_values.size(), 2) == 1) {
+            return Variant.fromBigDecimal(_values.get(_values.size() / 2));
+        }
+        return Variant.fromBigDecimal(
+                        _values.get(_values.size() / 2)
+                                .add(_values.get(_values.size() / 2 - 1)))
+                .divide(Variant.fromInt(2));
+    }
+
     static Variant toNumeric(Variant v) {
         return v.isNumeric() ? v :
                 v.isNull() ? v : Variant.fromBigDecimal(v.asNumeric());
@@ -0,0 +1,580 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compiles parsed node tree into a generated JVM class implementing {@link Node}.
+ * <p>
+ * Generated code calls the very same {@link Variant} methods, in the same order, as {@link BaseNode#execute}
+ * does, thus results are identical to interpretation. Constructs not supported by the compiler (custom functions,
+ * date and aggregate functions etc.) are delegated to the interpreter node of the subtree.
+ *
+ * @author Valerijus Drozdovas
+ */
+final class BytecodeCompiler implements Constants, Opcodes {
+    private static final Logger LOG = Logger.getLogger("vscript");
+
+    private static final AtomicLong classCounter = new AtomicLong();
+
+    private static final String NODE = "org/valdroz/vscript/Node";
+    private static final String VARIANT = "org/valdroz/vscript/Variant";
+    private static final String CONTAINER = "org/valdroz/vscript/VariantContainer";
+    private static final String RUN_BLOCK = "org/valdroz/vscript/RunBlock";
+    private static final String STATS = "org/valdroz/vscript/NodeStats";
+    private static final String SLOTS = "org/valdroz/vscript/VariableSlots";
+    private static final String SLOT_CONTAINER = "org/valdroz/vscript/SlotVariantContainer";
+
+    private static final String D_VARIANT = "L" + VARIANT + ";";
+    private static final String D_NODE = "L" + NODE + ";";
+    private static final String D_SLOTS = "L" + SLOTS + ";";
+
+    private final List<Variant> constants = new ArrayList<>();
+    private final Map<Variant, Integer> constantIndex = new IdentityHashMap<>();
+    private final List<Node> delegates = new ArrayList<>();
+    private String className;
+    private MethodVisitor mv;
+    private int nextLocal = 2;
+
+    private BytecodeCompiler() {
+    }
+
+    /**
+     * Compiles node tree. Parent run block must be set on the tree before compilation, since delegated subtrees are
+     * executed by the interpreter.
+     *
+     * @param root  parsed statements.
+     * @param slots variable slot layout the tree is bound to, or `null`.
+     * @return Generated node, or `root` itself if the tree cannot be compiled or is nested too deeply to be
+     * generated recursively.
+     */
+    static Node compile(CompositeNode root, VariableSlots slots) {
+        try {
+            return new BytecodeCompiler().generate(root, slots);
+        } catch (RuntimeException | LinkageError | StackOverflowError ex) {
+            LOG.log(Level.FINE, "Falling back to interpretation", ex);
+            return root;
+        }
+    }
+
+    private Node generate(CompositeNode root, VariableSlots slots) {
+        className = "org/valdroz/vscript/GeneratedNode$" + classCounter.incrementAndGet();
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, "java/lang/Object", new String[]{NODE});
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, "source", D_NODE, null, null).visitEnd();
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, "constants", "[" + D_VARIANT, null, null).visitEnd();
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, "delegates", "[" + D_NODE, null, null).visitEnd();
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, "slots", D_SLOTS, null, null).visitEnd();
+
+        generateConstructor(cw, className);
+        generateDelegatingMethod(cw, className, "setParentRunBlock", "(L" + RUN_BLOCK + ";)V");
+        generateDelegatingMethod(cw, className, "collectStats", "(L" + STATS + ";)V");
+
+        mv = cw.visitMethod(ACC_PUBLIC, "execute", "(L" + CONTAINER + ";)" + D_VARIANT, null, null);
+        mv.visitCode();
+        List<Node> statements = root.getNodes();
+        if (statements.isEmpty()) {
+            mv.visitMethodInsn(INVOKESTATIC, VARIANT, "nullVariant", "()" + D_VARIANT, false);
+        }
+        for (int i = 0; i < statements.size(); ++i) {
+            Node statement = statements.get(i);
+            if (statement instanceof BaseNode) {
+                generate((BaseNode) statement);
+            } else {
+                generateDelegate(statement);
+            }
+            if (i < statements.size() - 1) {
+                mv.visitInsn(POP);
+            }
+        }
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+
+        byte[] bytes = cw.toByteArray();
+        Class<?> generated = new GeneratedClassLoader(Node.class.getClassLoader())
+                .define(className.replace('/', '.'), bytes);
+        try {
+            return (Node) generated.getConstructor(Node.class, Variant[].class, Node[].class, VariableSlots.class)
+                    .newInstance(root, constants.toArray(new Variant[0]), delegates.toArray(new Node[0]), slots);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void generateConstructor(ClassWriter cw, String className) {
+        MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>",
+                "(" + D_NODE + "[" + D_VARIANT + "[" + D_NODE + D_SLOTS + ")V", null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 1);
+        init.visitFieldInsn(PUTFIELD, className, "source", D_NODE);
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 2);
+        init.visitFieldInsn(PUTFIELD, className, "constants", "[" + D_VARIANT);
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 3);
+        init.visitFieldInsn(PUTFIELD, className, "delegates", "[" + D_NODE);
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 4);
+        init.visitFieldInsn(PUTFIELD, className, "slots", D_SLOTS);
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+    }
+
+    private static void generateDelegatingMethod(ClassWriter cw, String className, String name, String descriptor) {
+        MethodVisitor m = cw.visitMethod(ACC_PUBLIC, name, descriptor, null, null);
+        m.visitCode();
+        m.visitVarInsn(ALOAD, 0);
+        m.visitFieldInsn(GETFIELD, className, "source", D_NODE);
+        m.visitVarInsn(ALOAD, 1);
+        m.visitMethodInsn(INVOKEINTERFACE, NODE, name, descriptor, true);
+        m.visitInsn(RETURN);
+        m.visitMaxs(0, 0);
+        m.visitEnd();
+    }
+
+    /**
+     * Generates code leaving node result (Variant) on the operand stack.
+     */
+    private void generate(BaseNode node) {
+        if (node instanceof ConstantNode) {
+            generateConstant(((ConstantNode) node).getConstantValue());
+            return;
+        }
+        switch (node.getNodeOperation()) {
+            case NT_VARIABLE:
+            case NT_LOCAL_VARIABLE:
+                generateVariable(node);
+                break;
+            case '*':
+                generateBinary(node, "multiply");
+                break;
+            case '+':
+                generateBinary(node, "add");
+                break;
+            case '-':
+                generateBinary(node, "minus");
+                break;
+            case '/':
+                generateBinary(node, "divide");
+                break;
+            case '=':
+                generateAssignment(node);
+                break;
+            case '!':
+                generateNot(node);
+                break;
+            case '&':
+                generateBitwise(node, LAND);
+                break;
+            case '|':
+                generateBitwise(node, LOR);
+                break;
+            case '^':
+                generateBitwise(node, LXOR);
+                break;
+            case '>':
+                generateComparison(node, IFLE);
+                break;
+            case '<':
+                generateComparison(node, IFGE);
+                break;
+            case NT_LOP_MORE_EQUALS:
+                generateComparison(node, IFLT);
+                break;
+            case NT_LOP_LESS_EQUALS:
+                generateComparison(node, IFGT);
+                break;
+            case NT_LOP_EQUALS:
+                generateEquals(node, false);
+                break;
+            case NT_LOP_NOT_EQUALS:
+                generateEquals(node, true);
+                break;
+            case NT_LOP_AND:
+                generateLogical(node, true);
+                break;
+            case NT_LOP_OR:
+                generateLogical(node, false);
+                break;
+            case NT_MF_IF:
+                generateIf(node);
+                break;
+            case NT_MF_POWER:
+                generate(node.getParameterOrNullNode(0));
+                generate(node.getParameterOrNullNode(1));
+                invokeVariant("pow", "(" + D_VARIANT + ")" + D_VARIANT);
+                break;
+            case NT_MF_SIN:
+            case NT_MF_COS:
+            case NT_MF_ASIN:
+            case NT_MF_ACOS:
+            case NT_MF_TAN:
+            case NT_MF_ATAN:
+            case NT_MF_EXP:
+            case NT_MF_LN:
+            case NT_MF_LOG:
+            case NT_MF_SQRT:
+            case NT_MF_ABS:
+                generate(node.getParameterOrNullNode());
+                mv.visitLdcInsn(node.getNodeOperation());
+                invokeVariant("mfunc", "(I)" + D_VARIANT);
+                break;
+            case NT_MF_NEG:
+                generate(node.getParameterOrNullNode());
+                invokeVariant("negate", "()" + D_VARIANT);
+                break;
+            case NT_MF_SIZE:
+                generate(node.getParameterOrNullNode());
+                invokeVariant("size", "()I");
+                mv.visitMethodInsn(INVOKESTATIC, VARIANT, "fromInt", "(I)" + D_VARIANT, false);
+                break;
+            case NT_MF_IS_STRING:
+                generateTypeCheck(node, "isString");
+                break;
+            case NT_MF_IS_NUMBER:
+                generateTypeCheck(node, "isNumeric");
+                break;
+            case NT_MF_IS_ARRAY:
+                generateTypeCheck(node, "isArray");
+                break;
+            case NT_MF_IS_NULL:
+                generateTypeCheck(node, "isNull");
+                break;
+            default:
+                generateDelegate(node);
+                break;
+        }
+    }
+
+    private void generateConstant(Variant value) {
+        Integer index = constantIndex.get(value);
+        if (index == null) {
+            index = constants.size();
+            constants.add(value);
+            constantIndex.put(value, index);
+        }
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, className, "constants", "[" + D_VARIANT);
+        mv.visitLdcInsn(index);
+        mv.visitInsn(AALOAD);
+    }
+
+    private void generateDelegate(Node node) {
+        int index = delegates.size();
+        delegates.add(node);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, className, "delegates", "[" + D_NODE);
+        mv.visitLdcInsn(index);
+        mv.visitInsn(AALOAD);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEINTERFACE, NODE, "execute", "(L" + CONTAINER + ";)" + D_VARIANT, true);
+    }
+
+    private void generateVariable(BaseNode node) {
+        BaseNode indexNode = node.getParameterNode();
+        if (indexNode != null) {
+            int index = newLocal();
+            generateIntValue(indexNode);
+            mv.visitVarInsn(ISTORE, index);
+            loadVariable(node);
+            mv.visitVarInsn(ILOAD, index);
+            mv.visitMethodInsn(INVOKESTATIC, VARIANT, "getArrayItem", "(" + D_VARIANT + "I)" + D_VARIANT, false);
+        } else {
+            loadVariable(node);
+        }
+        BaseNode substitution = node.getValueSubstitution();
+        if (substitution != null) {
+            int value = newLocal();
+            Label substitute = new Label();
+            Label end = new Label();
+            mv.visitVarInsn(ASTORE, value);
+            mv.visitVarInsn(ALOAD, value);
+            mv.visitJumpInsn(IFNULL, substitute);
+            mv.visitVarInsn(ALOAD, value);
+            invokeVariant("isNull", "()Z");
+            mv.visitJumpInsn(IFNE, substitute);
+            mv.visitVarInsn(ALOAD, value);
+            mv.visitJumpInsn(GOTO, end);
+            mv.visitLabel(substitute);
+            generate(substitution);
+            mv.visitLabel(end);
+        }
+        mv.visitMethodInsn(INVOKESTATIC, VARIANT, "sanitize", "(" + D_VARIANT + ")" + D_VARIANT, false);
+    }
+
+    /**
+     * Reads variable the way {@link VariableSlots#read} does, inlined since generated class is defined by a class
+     * loader of its own and thus cannot call package-private methods.
+     */
+    private void loadVariable(BaseNode node) {
+        Label byName = new Label();
+        Label end = new Label();
+        if (node.getSlots() != null && node.getSlot() >= 0) {
+            loadSlotContainer(byName);
+            mv.visitLdcInsn(node.getSlot());
+            mv.visitMethodInsn(INVOKEVIRTUAL, SLOT_CONTAINER, "getVariant", "(I)" + D_VARIANT, false);
+            mv.visitJumpInsn(GOTO, end);
+        }
+        mv.visitLabel(byName);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitLdcInsn(node.getName());
+        mv.visitMethodInsn(INVOKEINTERFACE, CONTAINER, "getVariant", "(Ljava/lang/String;)" + D_VARIANT, true);
+        mv.visitLabel(end);
+    }
+
+    /**
+     * Writes variable, optionally array item at index in local `index`, the way {@link VariableSlots#write} does.
+     *
+     * @param index local holding array index, or -1 to write variable itself.
+     * @param value local holding value.
+     */
+    private void storeVariable(BaseNode node, int index, int value) {
+        String descriptor = ((index >= 0) ? "I" : "") + D_VARIANT + ")V";
+        Label byName = new Label();
+        Label end = new Label();
+        if (node.getSlots() != null && node.getSlot() >= 0) {
+            loadSlotContainer(byName);
+            mv.visitLdcInsn(node.getSlot());
+            if (index >= 0) {
+                mv.visitVarInsn(ILOAD, index);
+            }
+            mv.visitVarInsn(ALOAD, value);
+            mv.visitMethodInsn(INVOKEVIRTUAL, SLOT_CONTAINER, "setVariant", "(I" + descriptor, false);
+            mv.visitJumpInsn(GOTO, end);
+        }
+        mv.visitLabel(byName);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitLdcInsn(node.getName());
+        if (index >= 0) {
+            mv.visitVarInsn(ILOAD, index);
+        }
+        mv.visitVarInsn(ALOAD, value);
+        mv.visitMethodInsn(INVOKEINTERFACE, CONTAINER, "setVariant", "(Ljava/lang/String;" + descriptor, true);
+        mv.visitLabel(end);
+    }
+
+    /**
+     * Pushes container as {@link SlotVariantContainer} if it uses slot layout of the expression, otherwise jumps to
+     * `byName` with nothing pushed.
+     */
+    private void loadSlotContainer(Label byName) {
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(INSTANCEOF, SLOT_CONTAINER);
+        mv.visitJumpInsn(IFEQ, byName);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(CHECKCAST, SLOT_CONTAINER);
+        mv.visitMethodInsn(INVOKEVIRTUAL, SLOT_CONTAINER, "getSlots", "()" + D_SLOTS, false);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, className, "slots", D_SLOTS);
+        mv.visitJumpInsn(IF_ACMPNE, byName);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(CHECKCAST, SLOT_CONTAINER);
+    }
+
+    private void generateAssignment(BaseNode node) {
+        BaseNode target = node.getLeftNode();
+        if (target instanceof ConstantNode ||
+                (target.getNodeOperation() != NT_VARIABLE && target.getNodeOperation() != NT_LOCAL_VARIABLE)) {
+            generateDelegate(node);
+            return;
+        }
+        int value = newLocal();
+        generate(node.getRightNode());
+        mv.visitVarInsn(ASTORE, value);
+        BaseNode indexNode = target.getParameterNode();
+        if (indexNode != null) {
+            int index = newLocal();
+            generateIntValue(indexNode);
+            mv.visitVarInsn(ISTORE, index);
+            storeVariable(target, index, value);
+        } else {
+            storeVariable(target, -1, value);
+        }
+        loadVariable(target);
+    }
+
+    private void generateBinary(BaseNode node, String method) {
+        generate(node.getLeftNode());
+        generate(node.getRightNode());
+        invokeVariant(method, "(" + D_VARIANT + ")" + D_VARIANT);
+    }
+
+    private void generateNot(BaseNode node) {
+        int value = newLocal();
+        Label isNull = new Label();
+        Label end = new Label();
+        generate(node.getLeftNode());
+        mv.visitVarInsn(ASTORE, value);
+        mv.visitVarInsn(ALOAD, value);
+        invokeVariant("isNull", "()Z");
+        mv.visitJumpInsn(IFNE, isNull);
+        mv.visitVarInsn(ALOAD, value);
+        generateBooleanValue();
+        mv.visitInsn(ICONST_1);
+        mv.visitInsn(IXOR);
+        mv.visitMethodInsn(INVOKESTATIC, VARIANT, "fromBoolean", "(Z)" + D_VARIANT, false);
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(isNull);
+        mv.visitMethodInsn(INVOKESTATIC, VARIANT, "nullVariant", "()" + D_VARIANT, false);
+        mv.visitLabel(end);
+    }
+
+    private void generateBitwise(BaseNode node, int opcode) {
+        int left = newLocal();
+        int right = newLocal();
+        generate(node.getLeftNode());
+        mv.visitVarInsn(ASTORE, left);
+        generate(node.getRightNode());
+        mv.visitVarInsn(ASTORE, right);
+        mv.visitVarInsn(ALOAD, left);
+        invokeVariant("asNumeric", "()Ljava/math/BigDecimal;");
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/math/BigDecimal", "longValue", "()J", false);
+        mv.visitVarInsn(ALOAD, right);
+        invokeVariant("asNumeric", "()Ljava/math/BigDecimal;");
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/math/BigDecimal", "longValue", "()J", false);
+        mv.visitInsn(opcode);
+        mv.visitMethodInsn(INVOKESTATIC, VARIANT, "fromLong", "(J)" + D_VARIANT, false);
+    }
+
+    /**
+     * @param falseJump opcode jumping when comparison result does not satisfy the operator.
+     */
+    private void generateComparison(BaseNode node, int falseJump) {
+        generate(node.getLeftNode());
+        generate(node.getRightNode());
+        invokeVariant("compareTo", "(Ljava/lang/Object;)I");
+        generateBooleanFromJump(falseJump);
+    }
+
+    private void generateEquals(BaseNode node, boolean negate) {
+        generate(node.getLeftNode());
+        generate(node.getRightNode());
+        invokeVariant("equals", "(Ljava/lang/Object;)Z");
+        if (negate) {
+            mv.visitInsn(ICONST_1);
+            mv.visitInsn(IXOR);
+        }
+        mv.visitMethodInsn(INVOKESTATIC, VARIANT, "fromBoolean", "(Z)" + D_VARIANT, false);
+    }
+
+    private void generateLogical(BaseNode node, boolean isAnd) {
+        Label shortCircuit = new Label();
+        Label end = new Label();
+        generate(node.getLeftNode());
+        generateBooleanValue();
+        mv.visitJumpInsn(isAnd ? IFEQ : IFNE, shortCircuit);
+        generate(node.getRightNode());
+        generateBooleanValue();
+        mv.visitMethodInsn(INVOKESTATIC, VARIANT, "fromBoolean", "(Z)" + D_VARIANT, false);
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(shortCircuit);
+        mv.visitInsn(isAnd ? ICONST_0 : ICONST_1);
+        mv.visitMethodInsn(INVOKESTATIC, VARIANT, "fromBoolean", "(Z)" + D_VARIANT, false);
+        mv.visitLabel(end);
+    }
+
+    private void generateIf(BaseNode node) {
+        if (node.getParameterCount() < 3) {
+            generateDelegate(node);
+            return;
+        }
+        Label otherwise = new Label();
+        Label end = new Label();
+        generate(node.getParameterOrNullNode(0));
+        generateBooleanValue();
+        mv.visitJumpInsn(IFEQ, otherwise);
+        generate(node.getParameterOrNullNode(1));
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(otherwise);
+        generate(node.getParameterOrNullNode(2));
+        mv.visitLabel(end);
+    }
+
+    private void generateTypeCheck(BaseNode node, String method) {
+        generate(node.getParameterOrNullNode());
+        invokeVariant(method, "()Z");
+        mv.visitMethodInsn(INVOKESTATIC, VARIANT, "fromBoolean", "(Z)" + D_VARIANT, false);
+    }
+
+    private void generateIntValue(BaseNode node) {
+        generate(node);
+        invokeVariant("asNumeric", "()Ljava/math/BigDecimal;");
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/math/BigDecimal", "intValue", "()I", false);
+    }
+
+    /**
+     * Converts Variant on the stack to primitive boolean as {@code variant.asBoolean()} does.
+     */
+    private void generateBooleanValue() {
+        invokeVariant("asBoolean", "()Ljava/lang/Boolean;");
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z", false);
+    }
+
+    private void generateBooleanFromJump(int falseJump) {
+        Label isFalse = new Label();
+        Label end = new Label();
+        mv.visitJumpInsn(falseJump, isFalse);
+        mv.visitInsn(ICONST_1);
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(isFalse);
+        mv.visitInsn(ICONST_0);
+        mv.visitLabel(end);
+        mv.visitMethodInsn(INVOKESTATIC, VARIANT, "fromBoolean", "(Z)" + D_VARIANT, false);
+    }
+
+    private void invokeVariant(String method, String descriptor) {
+        mv.visitMethodInsn(INVOKEVIRTUAL, VARIANT, method, descriptor, false);
+    }
+
+    private int newLocal() {
+        return nextLocal++;
+    }
+
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
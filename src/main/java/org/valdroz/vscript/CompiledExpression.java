@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Immutable, thread-safe compiled equation.
+ * <p>
+ * Unlike {@link EquationEval}, function resolution is bound once at compile time and evaluation never
+ * modifies the parsed node tree. A single instance can be shared and evaluated concurrently by any number of threads,
+ * as long as each thread uses its own {@link VariantContainer}.
+ *
+ * <pre>
+ *     CompiledExpression expr = CompiledExpression.compile("price * qty", runBlock);
+ *     Variant total = expr.eval(container);
+ * </pre>
+ *
+ * @author Valerijus Drozdovas
+ */
+public final class CompiledExpression {
+
+    public enum Mode {
+        /**
+         * Fold constant subtrees and prune `if`/`switch` branches with constant selector before evaluation.
+         * Constants are folded with {@link Configuration} settings in effect at compile time. Always applied before
+         * {@link #BYTECODE}.
+         */
+        OPTIMIZE,
+        /**
+         * Replace arithmetic and comparison nodes by adaptive ones specializing on operand types observed during
+         * evaluation (e.g. decimal and decimal, string and string), falling back to generic operation when types
+         * change. Applied after {@link #OPTIMIZE}. With {@link #BYTECODE} or {@link #REGISTER_MACHINE}, affects
+         * interpreted constructs only. Specializations are immutable and published atomically, thus evaluation
+         * remains thread-safe.
+         */
+        ADAPTIVE,
+        /**
+         * Compile parsed tree into generated JVM class. Constructs not supported by bytecode compiler are
+         * interpreted. Falls back to interpretation altogether if class cannot be generated. Requires ASM
+         * (`org.ow2.asm:asm`), an optional dependency, on class path; without it expressions are interpreted.
+         */
+        BYTECODE,
+        /**
+         * Compile parsed tree into flat instruction stream evaluated by register based virtual machine. Evaluation
+         * does not recurse, thus deeply nested expressions (e.g. long operator chains) cannot overflow thread stack.
+         * Intended for such expressions: typical ones are evaluated somewhat faster by the interpreter.
+         * Ignored if {@link #BYTECODE} is requested too.
+         */
+        REGISTER_MACHINE
+    }
+
+    private static final Logger LOG = Logger.getLogger("vscript");
+
+    private static volatile boolean bytecodeUnavailable;
+
+    private final String source;
+    private final Node node;
+    private final NodeStats stats;
+    private final VariableSlots slots;
+    private final MetricsListener metricsListener;
+
+    private CompiledExpression(CompiledExpression expression, MetricsListener metricsListener) {
+        this.source = expression.source;
+        this.node = expression.node;
+        this.stats = expression.stats;
+        this.slots = expression.slots;
+        this.metricsListener = metricsListener;
+    }
+
+    private CompiledExpression(String source, CompositeNode root, RunBlock masterRunBlock, Mode... modes) {
+        this.source = source;
+        this.stats = new NodeStats();
+        root.collectStats(stats);
+
+        Set<Mode> modeSet = EnumSet.noneOf(Mode.class);
+        modeSet.addAll(Arrays.asList(modes));
+
+        if (modeSet.contains(Mode.OPTIMIZE)) {
+            ExpressionOptimizer.optimize(root);
+        }
+        if (modeSet.contains(Mode.ADAPTIVE)) {
+            AdaptiveNode.enable(root);
+        }
+        this.slots = VariableSlots.of(new TreeSet<>(stats.referencedVariables()));
+        root.bindSlots(slots);
+        root.setParentRunBlock(masterRunBlock);
+
+        Node executable = root;
+        if (modeSet.contains(Mode.BYTECODE)) {
+            executable = compileBytecode(root, slots);
+        } else if (modeSet.contains(Mode.REGISTER_MACHINE)) {
+            executable = RegisterCompiler.compile(root, slots);
+        }
+        this.node = executable;
+        this.metricsListener = null;
+    }
+
+    /**
+     * Bytecode compiler is referenced from here only, so neither it nor ASM is loaded unless {@link Mode#BYTECODE} is
+     * requested.
+     */
+    private static Node compileBytecode(CompositeNode root, VariableSlots slots) {
+        if (!bytecodeUnavailable) {
+            try {
+                return BytecodeCompiler.compile(root, slots);
+            } catch (NoClassDefFoundError ex) {
+                bytecodeUnavailable = true;
+                LOG.log(Level.WARNING, "ASM is not on class path, BYTECODE mode falls back to interpretation", ex);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Compiles equation with default master run block (no custom functions).
+     *
+     * @param equation is a text with interpretable equation. E.g. "10 * 2"
+     * @return Compiled expression.
+     */
+    public static CompiledExpression compile(String equation) {
+        return compile(equation, null);
+    }
+
+    /**
+     * Compiles equation and binds custom function resolution to provided master run block.
+     *
+     * @param equation    is a text with interpretable equation. E.g. "10 * 2"
+     * @param masterBlock master run block used to resolve custom functions. If `null`, default run block is used.
+     * @param modes       compilation modes.
+     * @return Compiled expression.
+     */
+    public static CompiledExpression compile(String equation, RunBlock masterBlock, Mode... modes) {
+        EquationParser parser = new EquationParser(equation, null);
+        RunBlock runBlock = (masterBlock != null) ? masterBlock : new DefaultRunBlock();
+        return new CompiledExpression(equation, parser.parseStatements(), runBlock, modes);
+    }
+
+    /**
+     * @return Equation source text this expression was compiled from.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return Variables and functions referenced by this expression.
+     */
+    public NodeStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return Slot layout of variables referenced by this expression.
+     */
+    public VariableSlots getSlots() {
+        return slots;
+    }
+
+    /**
+     * Creates container resolving variables referenced by this expression by slot index rather than by name.
+     * Container is not thread-safe and can be reused across evaluations (see {@link SlotVariantContainer#clear()}).
+     *
+     * @return New empty container.
+     */
+    public SlotVariantContainer newContainer() {
+        return slots.newContainer();
+    }
+
+    /**
+     * Creates expression sharing compiled code of this one, reporting each evaluation to metrics listener.
+     * This expression is not affected, so instances obtained from {@link ExpressionCache} can be instrumented safely.
+     *
+     * @param listener metrics listener, or `null` to disable reporting.
+     * @return Instrumented expression.
+     */
+    public CompiledExpression withMetricsListener(MetricsListener listener) {
+        return new CompiledExpression(this, listener);
+    }
+
+    Node getNode() {
+        return node;
+    }
+
+    /**
+     * Evaluates expression. Safe to call concurrently.
+     *
+     * @param variantContainer variable container. Must not be shared between concurrent evaluations if expression
+     *                         assigns variables.
+     * @return Resulting value.
+     */
+    public Variant eval(VariantContainer variantContainer) {
+        MetricsListener listener = metricsListener;
+        if (listener == null) {
+            return node.execute(variantContainer);
+        }
+        long start = System.nanoTime();
+        try {
+            Variant result = node.execute(variantContainer);
+            listener.onEvaluation(source, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            listener.onError(source, System.nanoTime() - start, e);
+            throw e;
+        }
+    }
+
+    public Variant eval() {
+        return eval(new DefaultVariantContainer());
+    }
+
+}
@@ -25,22 +25,26 @@ import java.util.List;
  */
 class CompositeNode implements Node {
 
-    private RunBlock parentRunBlock;
     private final List<Node> nodes = Lists.newLinkedList();
 
     @Override
     public Variant execute(VariantContainer variantContainer) {
         Variant result = Variant.nullVariant();
         for (Node n : nodes) {
-            n.setParentRunBlock(parentRunBlock);
             result = n.execute(variantContainer);
         }
         return result;
     }
 
+    /**
+     * Propagates parent run block to all statements. Execution itself does not modify nodes, thus once parent
+     * run block is set the same tree can be executed concurrently.
+     *
+     * @param runBlock parent run block.
+     */
     @Override
     public void setParentRunBlock(RunBlock runBlock) {
-        this.parentRunBlock = runBlock;
+        nodes.forEach(node -> node.setParentRunBlock(runBlock));
     }
 
     @Override
@@ -48,6 +52,18 @@ class CompositeNode implements Node {
         nodes.forEach(node -> node.collectStats(stats));
     }
 
+    void bindSlots(VariableSlots slots) {
+        nodes.forEach(node -> {
+            if (node instanceof BaseNode) {
+                ((BaseNode) node).bindSlots(slots);
+            }
+        });
+    }
+
+    List<Node> getNodes() {
+        return nodes;
+    }
+
     void addNode(Node node) {
         if (node != null) {
             this.nodes.add(node);
@@ -22,10 +22,29 @@ import java.math.RoundingMode;
  * Created on 3/23/20
  */
 public final class Configuration {
+
+    /**
+     * Numeric representation used for numbers produced by expressions.
+     */
+    public enum NumericMode {
+        /**
+         * All numbers are exact `BigDecimal` values. Default.
+         */
+        DECIMAL,
+        /**
+         * Integers are backed by primitive `long` and fractions by primitive `double`. Values are promoted to
+         * `BigDecimal` on `long` overflow or when combined with a `BigDecimal` backed value. Integer literals
+         * outside `long` range are `BigDecimal` backed. Division of primitive values does not apply decimal scale.
+         */
+        FAST
+    }
+
     private static int decimalScale = 3;
     private static RoundingMode roundingMode = RoundingMode.HALF_EVEN;
     private static boolean caseSensitive = true;
     private static String emptyEvalExpression = "null";
+    private static NumericMode numericMode = NumericMode.DECIMAL;
+    private static boolean stringInterning = false;
 
     private Configuration() {}
 
@@ -55,6 +74,26 @@ public final class Configuration {
         return prev;
     }
 
+    public static NumericMode setNumericMode(NumericMode numericMode) {
+        NumericMode prev = Configuration.numericMode;
+        Configuration.numericMode = (numericMode != null) ? numericMode : NumericMode.DECIMAL;
+        return prev;
+    }
+
+    /**
+     * Turns on sharing of string variants created from equation literals and JSON input values
+     * (see {@link Variant#fromInternedString(String)}). Reduces memory held by indexes and containers with repeating
+     * text values.
+     *
+     * @param stringInterning `true` to share string variants.
+     * @return Previous setting.
+     */
+    public static boolean setStringInterning(boolean stringInterning) {
+        boolean prev = Configuration.stringInterning;
+        Configuration.stringInterning = stringInterning;
+        return prev;
+    }
+
     public static int getDecimalScale() {
         return decimalScale;
     }
@@ -70,4 +109,12 @@ public final class Configuration {
     public static String getExpressionForEmptyEval() {
         return emptyEvalExpression;
     }
+
+    public static NumericMode getNumericMode() {
+        return numericMode;
+    }
+
+    public static boolean isStringInterning() {
+        return stringInterning;
+    }
 }
@@ -37,6 +37,16 @@ public class ConstantNode extends BaseNode {
         return constant;
     }
 
+    @Override
+    public void setParentRunBlock(RunBlock runBlock) {
+        // Constants do not resolve functions. Shared constant nodes (e.g. `true`, `PI`) must stay untouched.
+    }
+
+    @Override
+    void bindSlots(VariableSlots slots) {
+        // Constants do not reference variables.
+    }
+
     Variant getConstantValue() {
         return constant;
     }
@@ -19,6 +19,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -30,6 +31,7 @@ public class DefaultRunBlock implements RunBlock {
     private final List<RunBlock> runtimeBlocks = Lists.newArrayList();
     private RunBlock parent;
     private final Map<String, AbstractFunction> functions = Maps.newHashMap();
+    private MetricsListener metricsListener;
 
     public DefaultRunBlock() {
     }
@@ -40,6 +42,17 @@ public class DefaultRunBlock implements RunBlock {
         return this;
     }
 
+    /**
+     * Reports calls of functions registered with this run block to metrics listener.
+     *
+     * @param listener metrics listener, or `null` to disable reporting.
+     * @return This instance.
+     */
+    public DefaultRunBlock withMetricsListener(MetricsListener listener) {
+        this.metricsListener = listener;
+        return this;
+    }
+
     @Override
     public Variant execute(VariantContainer variantContainer) {
         Variant lastResult = Variant.nullVariant();
@@ -58,10 +71,14 @@ public class DefaultRunBlock implements RunBlock {
 
     @Override
     public AbstractFunction resolveFunction(String name) {
-        if (parent != null && !functions.containsKey(name)) {
+        AbstractFunction function = functions.get(name);
+        if (function == null && parent != null && !functions.containsKey(name)) {
             return parent.resolveFunction(name);
         }
-        return functions.get(name);
+        if (function != null && metricsListener != null) {
+            metricsListener.onFunctionCall(name);
+        }
+        return function;
     }
 
     /**
@@ -88,4 +105,41 @@ public class DefaultRunBlock implements RunBlock {
         });
     }
 
+    /**
+     * Register pure function with this runtime block. Results are cached by evaluated arguments.
+     *
+     * @param func             function instance. Result must depend on its parameters only.
+     * @param maximumSize      maximum number of cached results.
+     * @param expireAfterWrite duration after which cached result expires. Zero or negative for no expiry.
+     * @param unit             time unit of `expireAfterWrite`.
+     * @return Registered caching function, e.g. for {@link MemoizedFunction#getStats()}.
+     */
+    public MemoizedFunction registerPureFunction(AbstractFunction func, long maximumSize, long expireAfterWrite,
+                                                 TimeUnit unit) {
+        MemoizedFunction memoized = new MemoizedFunction(func, maximumSize, expireAfterWrite, unit);
+        registerFunction(memoized);
+        return memoized;
+    }
+
+    /**
+     * Register pure function with this runtime block. Results are cached by evaluated arguments.
+     *
+     * @param signature        function signature as name(p1,p2,...,pN), e.g. max(input1, input2).
+     * @param maximumSize      maximum number of cached results.
+     * @param expireAfterWrite duration after which cached result expires. Zero or negative for no expiry.
+     * @param unit             time unit of `expireAfterWrite`.
+     * @param body             function body. Result must depend on its parameters only.
+     * @return Registered caching function, e.g. for {@link MemoizedFunction#getStats()}.
+     */
+    public MemoizedFunction registerPureFunction(String signature, long maximumSize, long expireAfterWrite,
+                                                 TimeUnit unit, Function<VariantContainer, Variant> body) {
+        return registerPureFunction(new AbstractFunction(signature) {
+
+            @Override
+            public Variant execute(VariantContainer variantContainer) {
+                return body.apply(variantContainer);
+            }
+        }, maximumSize, expireAfterWrite, unit);
+    }
+
 }
@@ -58,6 +58,13 @@ public class DefaultVariantContainer implements VariantContainer {
         return Variant.getArrayItem(variantMap.get(name), index);
     }
 
+    /**
+     * @return Variable value as stored, or `null` if not present.
+     */
+    Variant getOwnVariant(String name) {
+        return variantMap.get(name);
+    }
+
     @Override
     public boolean contains(String varName) {
         return variantMap.containsKey(varName);
@@ -15,6 +15,9 @@
  */
 package org.valdroz.vscript;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -24,9 +27,13 @@ import java.util.function.Supplier;
  */
 public final class EquationEval {
 
+    private final String equation;
     private final CompositeNode node;
+    private final Tracer tracer;
+    private final EvaluationProfile profile;
     private RunBlock masterRunBlock;
     private NodeStats stats;
+    private MetricsListener metricsListener;
 
     /**
      * @param equation is a text with interpretable equation. E.g. "10 * 2"
@@ -40,23 +47,33 @@ public final class EquationEval {
      * @param traceListener an instance if evaluation trance listener
      */
     public EquationEval(String equation, TraceListener traceListener) {
-        EquationParser parser = new EquationParser(equation, traceListener);
+        this((traceListener != null) ? new Tracer(traceListener) : null, equation);
         if (traceListener != null) {
             traceListener.trace("DSL: " + equation);
         }
-        this.node = new CompositeNode();
-        String leftover;
-        int pos = 0;
-        do {
-            node.addNode(parser.parse(pos));
-            pos = parser.currentPosition() + 1;
-            leftover = parser.unprocessedSource();
-        } while (leftover.length() > 1 && leftover.startsWith(";"));
-
-        if (!leftover.isEmpty()) {
-            String errorMsg = "Expression error: Unexpected text \"" + leftover + "\"";
-            throw new EvaluationException(errorMsg, parser.currentLineNumber(), parser.currentPosition());
-        }
+    }
+
+    private EquationEval(Tracer tracer, String equation) {
+        this(tracer, null, equation);
+    }
+
+    private EquationEval(Tracer tracer, EvaluationProfile profile, String equation) {
+        this.equation = equation;
+        this.tracer = tracer;
+        this.profile = profile;
+        this.node = new EquationParser(tracer, profile, equation).parseStatements();
+    }
+
+    /**
+     * Creates equation recording structured trace events into buffer. Unlike {@link TraceListener} tracing, events
+     * are formatted only when read from buffer, and node failures are not suppressed.
+     *
+     * @param equation    is a text with interpretable equation. E.g. "10 * 2"
+     * @param traceBuffer buffer receiving trace events of sampled evaluations (see {@link #withTraceSampling(int)}).
+     * @return Traced equation evaluator.
+     */
+    public static EquationEval traced(String equation, TraceBuffer traceBuffer) {
+        return new EquationEval(new Tracer(traceBuffer), equation);
     }
 
     public static Node parse(String equation) {
@@ -84,18 +101,126 @@ public final class EquationEval {
         return this;
     }
 
-    public Variant eval(VariantContainer variantContainer) {
-        if (masterRunBlock == null) {
-            masterRunBlock = new DefaultRunBlock();
+    /**
+     * Reports each evaluation of this equation to metrics listener.
+     *
+     * @param listener metrics listener, or `null` to disable reporting.
+     * @return This instance.
+     */
+    public EquationEval withMetricsListener(MetricsListener listener) {
+        this.metricsListener = listener;
+        return this;
+    }
+
+    /**
+     * Creates equation accumulating per-node invocation counts and times into profile.
+     *
+     * @param equation is a text with interpretable equation. E.g. "10 * 2"
+     * @param profile  profile receiving node timings.
+     * @return Profiled equation evaluator.
+     */
+    public static EquationEval profiled(String equation, EvaluationProfile profile) {
+        return new EquationEval(null, profile, equation);
+    }
+
+    /**
+     * Traces only every n-th evaluation, starting with the first one. Evaluations not sampled skip recording
+     * altogether. Default is to trace every evaluation.
+     *
+     * @param oneInN sampling rate, e.g. 1000 to trace 1 in 1000 evaluations.
+     * @return This instance.
+     * @throws IllegalStateException if equation was not created with trace listener or buffer.
+     */
+    public EquationEval withTraceSampling(int oneInN) {
+        if (tracer == null) {
+            throw new IllegalStateException("Equation is not traced");
         }
-        node.setParentRunBlock(masterRunBlock);
-        return node.execute(variantContainer);
+        tracer.setSampleEvery(oneInN);
+        return this;
+    }
+
+    public Variant eval(VariantContainer variantContainer) {
+        bindMasterBlock();
+        return execute(variantContainer);
     }
 
     public Variant eval() {
         return eval(new DefaultVariantContainer());
     }
 
+    /**
+     * Evaluates equation against each container. Master run block is bound once for the whole batch.
+     *
+     * @param containers variable containers, one per evaluation.
+     * @return Results in order of containers.
+     */
+    public Variant[] evalBatch(List<? extends VariantContainer> containers) {
+        return evalBatch(containers, new Variant[containers.size()]);
+    }
+
+    /**
+     * Evaluates equation against each container, storing results into provided array. Master run block is bound
+     * once for the whole batch.
+     *
+     * @param containers variable containers, one per evaluation.
+     * @param results    array to store results to. Must be at least the size of `containers`.
+     * @return `results` array.
+     */
+    public Variant[] evalBatch(List<? extends VariantContainer> containers, Variant[] results) {
+        if (results.length < containers.size()) {
+            throw new IllegalArgumentException("Results array is smaller than number of containers");
+        }
+        bindMasterBlock();
+        int i = 0;
+        for (VariantContainer container : containers) {
+            results[i++] = execute(container);
+        }
+        return results;
+    }
+
+    /**
+     * Evaluates equation against each container, passing results to the sink in order of containers.
+     * Master run block is bound once for the whole batch.
+     *
+     * @param containers variable containers, one per evaluation.
+     * @param sink       result consumer.
+     */
+    public void evalBatch(Iterator<? extends VariantContainer> containers, Consumer<Variant> sink) {
+        bindMasterBlock();
+        while (containers.hasNext()) {
+            sink.accept(execute(containers.next()));
+        }
+    }
+
+    private Variant execute(VariantContainer variantContainer) {
+        if (tracer != null) {
+            tracer.beginEvaluation();
+        }
+        if (profile != null) {
+            profile.beginEvaluation();
+        }
+        MetricsListener listener = metricsListener;
+        if (listener == null) {
+            return node.execute(variantContainer);
+        }
+        long start = System.nanoTime();
+        try {
+            Variant result = node.execute(variantContainer);
+            listener.onEvaluation(equation, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            listener.onError(equation, System.nanoTime() - start, e);
+            throw e;
+        }
+    }
+
+    private void bindMasterBlock() {
+        if (masterRunBlock == null) {
+            masterRunBlock = new DefaultRunBlock();
+        }
+        node.setParentRunBlock(masterRunBlock);
+    }
+
     public static Supplier<Long> setCurrentTimeSupplier(Supplier<Long> currentTimeSupplier) {
         Supplier<Long> prev = BaseNode.currentTime;
         BaseNode.currentTime = currentTimeSupplier;
@@ -28,13 +28,14 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @author Valerijus Drozdovas
  */
 class EquationParser implements Constants {
-    private String source;
+    private final char[] source;
     private int currentLine;
     private int position;
     private int stopAt;
     private final AtomicInteger idgen = new AtomicInteger(1);
 
     private final Tracer tracer;
+    private final EvaluationProfile profile;
 
     private static final BiMap<String, Integer> functionCodes = ImmutableBiMap.<String, Integer>builder()
             .put("sin", NT_MF_SIN)
@@ -88,17 +89,36 @@ class EquationParser implements Constants {
      * @param source - Equation expression
      */
     EquationParser(String source, TraceListener traceListener) {
-        if (traceListener != null) {
-            this.tracer = new Tracer(traceListener);
-        } else {
-            this.tracer = null;
-        }
-        this.source = Optional.ofNullable(source).orElse(Variant.EMPTY_STRING).trim();
-        if (this.source.isEmpty()) {
-            this.source = Configuration.getExpressionForEmptyEval();
+        this((traceListener != null) ? new Tracer(traceListener) : null, source);
+    }
+
+    /**
+     * Construct equation parser creating tracing nodes if tracer is provided
+     *
+     * @param tracer - Tracer, may be null
+     * @param source - Equation expression
+     */
+    EquationParser(Tracer tracer, String source) {
+        this(tracer, null, source);
+    }
+
+    /**
+     * Construct equation parser creating tracing or profiling nodes
+     *
+     * @param tracer  - Tracer, may be null
+     * @param profile - Evaluation profile, may be null. Ignored if tracer is provided.
+     * @param source  - Equation expression
+     */
+    EquationParser(Tracer tracer, EvaluationProfile profile, String source) {
+        this.tracer = tracer;
+        this.profile = profile;
+        String text = Optional.ofNullable(source).orElse(Variant.EMPTY_STRING).trim();
+        if (text.isEmpty()) {
+            text = Configuration.getExpressionForEmptyEval();
         }
+        this.source = text.toCharArray();
         currentLine = 1;
-        stopAt = this.source.length();
+        stopAt = this.source.length;
         position = 0;
     }
 
@@ -109,7 +129,7 @@ class EquationParser implements Constants {
      * @return The BaseNode object.
      */
     BaseNode parse(int from) {
-        return parse(from, source.length());
+        return parse(from, source.length);
     }
 
     /**
@@ -120,20 +140,52 @@ class EquationParser implements Constants {
      * @return The BaseNode object.
      */
     BaseNode parse(int from, int to) {
-        stopAt = Math.min(to, source.length());
+        stopAt = Math.min(to, source.length);
         position = from;
         skipSpaces();
         BaseNode node = parseAssignmentNode();
         if (node == null) {
             throw new EvaluationException(CE_SYNTAX, currentLineNumber(), currentPosition());
         }
-        stopAt = source.length();
+        stopAt = source.length;
         return node;
     }
 
-    String unprocessedSource() {
-        if (position + 1 < stopAt) {
-            return source.substring(position, stopAt);
+    /**
+     * Parses all `;` separated statements of the source. Parsing time is proportional to the source length,
+     * unprocessed text is copied only to report an error.
+     *
+     * @return Composite node holding parsed statements in order.
+     */
+    CompositeNode parseStatements() {
+        CompositeNode node = new CompositeNode();
+        int pos = 0;
+        do {
+            node.addNode(parse(pos));
+            pos = currentPosition() + 1;
+        } while (hasMoreStatements());
+
+        if (hasUnprocessedSource()) {
+            String errorMsg = "Expression error: Unexpected text \"" + unprocessedSource() + "\"";
+            throw new EvaluationException(errorMsg, currentLineNumber(), currentPosition());
+        }
+        return node;
+    }
+
+    /**
+     * @return `true` if parsing stopped at `;` followed by another statement.
+     */
+    private boolean hasMoreStatements() {
+        return hasUnprocessedSource() && source[position] == ';';
+    }
+
+    private boolean hasUnprocessedSource() {
+        return position + 1 < stopAt;
+    }
+
+    private String unprocessedSource() {
+        if (hasUnprocessedSource()) {
+            return new String(source, position, stopAt - position);
         }
         return "";
     }
@@ -152,9 +204,13 @@ class EquationParser implements Constants {
     }
 
     private BaseNode newNode() {
-        return (tracer != null) ?
-                new TracingBaseNode(newNodeId(), tracer) :
-                new BaseNode(newNodeId());
+        if (tracer != null) {
+            return new TracingBaseNode(newNodeId(), tracer);
+        }
+        if (profile != null) {
+            return new ProfilingBaseNode(newNodeId(), profile, currentLineNumber(), currentPosition());
+        }
+        return new BaseNode(newNodeId());
     }
 
     private BaseNode newConstantNode() {
@@ -448,7 +504,7 @@ class EquationParser implements Constants {
             if (isDigit()) {
                 digit = readWord();
                 try {
-                    node = newConstantNode(Variant.fromBigDecimal('-' + digit));
+                    node = newConstantNode(Variant.fromNumericLiteral('-' + digit));
                 } catch (Exception ex) {
                     throw new EvaluationException(ex.getMessage(), currentLineNumber(), currentPosition());
                 }
@@ -459,13 +515,13 @@ class EquationParser implements Constants {
         } else if (isDigit()) {
             String digit = readWord();
             try {
-                node = newConstantNode(Variant.fromBigDecimal(digit));
+                node = newConstantNode(Variant.fromNumericLiteral(digit));
             } catch (Exception ex) {
                 throw new EvaluationException(ex.getMessage(), currentLineNumber(), currentPosition());
             }
         } else if (isText()) {
             String text = readTextSequence();
-            node = newConstantNode(Variant.fromString(text));
+            node = newConstantNode(Variant.fromInternedString(text));
         } else if (isLiteralChar()) {
             String word = readWord();
             if (word.isEmpty()) return null;
@@ -604,7 +660,7 @@ class EquationParser implements Constants {
     private char charAtCheckExpSeparator(int position) {
         char retchar = '\0';
         if (position < stopAt) {
-            retchar = source.charAt(position);
+            retchar = source[position];
             if (retchar == ';') retchar = '\0';
             else if (retchar == ',') retchar = '\0';
         } else if (position == stopAt) {
@@ -631,7 +687,7 @@ class EquationParser implements Constants {
     private char charAt(int position) {
         char retchar = '\0';
         if (position < stopAt) {
-            retchar = source.charAt(position);
+            retchar = source[position];
         } else if (position == stopAt)
             retchar = 32;
 
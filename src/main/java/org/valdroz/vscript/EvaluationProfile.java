@@ -0,0 +1,255 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.collect.Lists;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.valdroz.vscript.Constants.*;
+
+/**
+ * Per-node evaluation profile of an equation created with {@link EquationEval#profiled(String, EvaluationProfile)}.
+ * Accumulates invocation count, inclusive time (node and its operands) and exclusive time (node itself) for each
+ * parsed node, keyed to node source position. Profile is not thread-safe: use one profile per equation.
+ *
+ * <pre>
+ *     EvaluationProfile profile = new EvaluationProfile(100);   // time 1 in 100 evaluations
+ *     EquationEval eval = EquationEval.profiled(ruleText, profile);
+ *     ...
+ *     Files.write(path, profile.toCollapsedStacks().getBytes());  // flamegraph.pl input
+ * </pre>
+ *
+ * @author Valerijus Drozdovas
+ */
+public final class EvaluationProfile {
+
+    private final int sampleEvery;
+    private final List<NodeProfile> nodes = Lists.newArrayList();
+
+    private NodeProfile[] stack = new NodeProfile[32];
+    private long[] operandNanos = new long[32];
+    private int depth = 0;
+
+    private long evaluationCount = 0;
+    private boolean active = true;
+
+    /**
+     * Profiles every evaluation.
+     */
+    public EvaluationProfile() {
+        this(1);
+    }
+
+    /**
+     * @param sampleEvery profile only every n-th evaluation, starting with the first one.
+     */
+    public EvaluationProfile(int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("Sampling rate must be positive: " + sampleEvery);
+        }
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * @return Profiles of nodes, in parse order.
+     */
+    public List<NodeProfile> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * @return Number of evaluations profiled.
+     */
+    public long getProfiledEvaluations() {
+        return (evaluationCount + sampleEvery - 1) / sampleEvery;
+    }
+
+    /**
+     * Renders exclusive node times in collapsed stack format, one line per executed node: frames from statement
+     * root to the node separated by `;`, followed by space and exclusive nanoseconds. Frames are labeled with
+     * operation and source position, e.g. `=@1:4;median()@1:13`.
+     *
+     * @return Report accepted by flame graph tools (e.g. flamegraph.pl, speedscope).
+     */
+    public String toCollapsedStacks() {
+        StringBuilder report = new StringBuilder();
+        for (NodeProfile node : nodes) {
+            if (node.invocations == 0) {
+                continue;
+            }
+            appendStack(report, node);
+            report.append(' ').append(node.exclusiveNanos).append('\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * Clears accumulated times and counts.
+     */
+    public void reset() {
+        for (NodeProfile node : nodes) {
+            node.invocations = 0;
+            node.inclusiveNanos = 0;
+            node.exclusiveNanos = 0;
+        }
+        evaluationCount = 0;
+        active = true;
+    }
+
+    private static void appendStack(StringBuilder report, NodeProfile node) {
+        if (node.parent != null) {
+            appendStack(report, node.parent);
+            report.append(';');
+        }
+        report.append(node.getLabel()).append('@').append(node.line).append(':').append(node.position);
+    }
+
+    NodeProfile register(BaseNode node, int line, int position) {
+        NodeProfile profile = new NodeProfile(node, line, position);
+        nodes.add(profile);
+        return profile;
+    }
+
+    void beginEvaluation() {
+        active = (evaluationCount++ % sampleEvery) == 0;
+        depth = 0;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    void enter(NodeProfile node) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+            operandNanos = Arrays.copyOf(operandNanos, depth * 2);
+        }
+        if (node.parent == null && depth > 0) {
+            node.parent = stack[depth - 1];
+        }
+        stack[depth] = node;
+        operandNanos[depth] = 0;
+        ++depth;
+    }
+
+    void exit(NodeProfile node, long elapsedNanos) {
+        --depth;
+        node.invocations++;
+        node.inclusiveNanos += elapsedNanos;
+        node.exclusiveNanos += Math.max(0, elapsedNanos - operandNanos[depth]);
+        if (depth > 0) {
+            operandNanos[depth - 1] += elapsedNanos;
+        }
+    }
+
+    /**
+     * Accumulated profile of single parsed node.
+     */
+    public static final class NodeProfile {
+        private final BaseNode node;
+        private final int line;
+        private final int position;
+        private NodeProfile parent;
+
+        private long invocations;
+        private long inclusiveNanos;
+        private long exclusiveNanos;
+
+        private NodeProfile(BaseNode node, int line, int position) {
+            this.node = node;
+            this.line = line;
+            this.position = position;
+        }
+
+        public int getNodeId() {
+            return node.getNodeId();
+        }
+
+        /**
+         * @return Operation label: function name with `()`, variable name or operator symbol.
+         */
+        public String getLabel() {
+            int op = node.getNodeOperation();
+            String builtIn = EquationParser.functionNameFromCode(op);
+            if (!builtIn.isEmpty()) {
+                return builtIn + "()";
+            }
+            switch (op) {
+                case NT_FUNCTION:
+                    return node.getName() + "()";
+                case NT_VARIABLE:
+                case NT_LOCAL_VARIABLE:
+                    return node.getName();
+                case NT_LOP_AND:
+                    return "&&";
+                case NT_LOP_OR:
+                    return "||";
+                case NT_LOP_EQUALS:
+                    return "==";
+                case NT_LOP_NOT_EQUALS:
+                    return "!=";
+                case NT_LOP_MORE_EQUALS:
+                    return ">=";
+                case NT_LOP_LESS_EQUALS:
+                    return "<=";
+                default:
+                    return (op > 0 && op < 128) ? String.valueOf((char) op) : TracingBaseNode.toOpString(op);
+            }
+        }
+
+        /**
+         * @return Source line of node, starting with 1.
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return Source offset where parser created node: operator position, or end of function or variable name.
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * @return Enclosing node profile, or `null` for statement root or node never evaluated.
+         */
+        public NodeProfile getParent() {
+            return parent;
+        }
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /**
+         * @return Time spent in node including its operands, in nanoseconds.
+         */
+        public long getInclusiveNanos() {
+            return inclusiveNanos;
+        }
+
+        /**
+         * @return Time spent in node excluding its profiled operands, in nanoseconds.
+         */
+        public long getExclusiveNanos() {
+            return exclusiveNanos;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, thread-safe cache of {@link CompiledExpression} instances.
+ * <p>
+ * Entries are keyed by equation source, master run block (by identity), compilation modes and
+ * {@link Configuration} settings in effect at the time of the call, so changing configuration never returns an
+ * expression compiled under different settings. When the cache is full, least recently used entries are evicted.
+ * Equations failing to compile are not cached.
+ *
+ * <pre>
+ *     ExpressionCache cache = new ExpressionCache(10_000);
+ *     Variant result = cache.get(ruleText, runBlock).eval(container);
+ * </pre>
+ *
+ * @author Valerijus Drozdovas
+ */
+public final class ExpressionCache {
+
+    private final Cache<Key, CompiledExpression> cache;
+
+    /**
+     * @param maximumSize maximum number of cached expressions.
+     */
+    public ExpressionCache(long maximumSize) {
+        this(maximumSize, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param maximumSize       maximum number of cached expressions.
+     * @param expireAfterAccess duration after last access when entry expires. Zero or negative for no expiry.
+     * @param unit              time unit of `expireAfterAccess`.
+     */
+    public ExpressionCache(long maximumSize, long expireAfterAccess, TimeUnit unit) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (expireAfterAccess > 0) {
+            builder.expireAfterAccess(expireAfterAccess, unit);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * Returns cached or newly compiled expression using default master run block.
+     *
+     * @param equation equation source text.
+     * @return Compiled expression.
+     */
+    public CompiledExpression get(String equation) {
+        return get(equation, null);
+    }
+
+    /**
+     * Returns cached or newly compiled expression.
+     *
+     * @param equation    equation source text.
+     * @param masterBlock master run block used to resolve custom functions. If `null`, default run block is used.
+     * @param modes       compilation modes.
+     * @return Compiled expression.
+     * @throws EvaluationException if equation cannot be compiled.
+     */
+    public CompiledExpression get(String equation, RunBlock masterBlock, CompiledExpression.Mode... modes) {
+        Key key = new Key(equation, masterBlock, modes);
+        try {
+            return cache.get(key, () -> CompiledExpression.compile(equation, masterBlock, modes));
+        } catch (UncheckedExecutionException | ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new EvaluationException("Failed to compile: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Number of cached expressions (approximate).
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return Hit, miss, load and eviction counters.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    private static final class Key {
+        private final String equation;
+        private final RunBlock masterBlock;
+        private final Set<CompiledExpression.Mode> modes;
+        private final int decimalScale;
+        private final RoundingMode roundingMode;
+        private final boolean caseSensitive;
+        private final String emptyEvalExpression;
+        private final Configuration.NumericMode numericMode;
+        private final int hash;
+
+        Key(String equation, RunBlock masterBlock, CompiledExpression.Mode... modes) {
+            this.equation = equation;
+            this.masterBlock = masterBlock;
+            this.modes = EnumSet.noneOf(CompiledExpression.Mode.class);
+            this.modes.addAll(Arrays.asList(modes));
+            this.decimalScale = Configuration.getDecimalScale();
+            this.roundingMode = Configuration.getRoundingMode();
+            this.caseSensitive = Configuration.isCaseSensitive();
+            this.emptyEvalExpression = Configuration.getExpressionForEmptyEval();
+            this.numericMode = Configuration.getNumericMode();
+            this.hash = Objects.hash(equation, System.identityHashCode(masterBlock), this.modes, decimalScale,
+                    roundingMode, caseSensitive, emptyEvalExpression, numericMode);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return hash == that.hash &&
+                    masterBlock == that.masterBlock &&
+                    decimalScale == that.decimalScale &&
+                    caseSensitive == that.caseSensitive &&
+                    roundingMode == that.roundingMode &&
+                    numericMode == that.numericMode &&
+                    Objects.equals(equation, that.equation) &&
+                    Objects.equals(emptyEvalExpression, that.emptyEvalExpression) &&
+                    modes.equals(that.modes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
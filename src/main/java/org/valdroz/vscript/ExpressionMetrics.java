@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free {@link MetricsListener} collecting evaluation and error counts, custom function call counts and
+ * evaluation latency histogram. Attach one instance per expression for per-expression figures, or share one
+ * instance for aggregates.
+ * <p>
+ * Latencies are recorded into log-linear buckets: exact below 8ns, then 8 buckets per power of two, so reported
+ * percentiles are within 12.5% of recorded values.
+ *
+ * <pre>
+ *     ExpressionMetrics metrics = new ExpressionMetrics();
+ *     CompiledExpression expr = CompiledExpression.compile("price * qty").withMetricsListener(metrics);
+ *     ...
+ *     long p99 = metrics.getLatencyPercentileNanos(99.0);
+ * </pre>
+ *
+ * @author Valerijus Drozdovas
+ */
+public final class ExpressionMetrics implements MetricsListener {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+    private final ConcurrentMap<String, LongAdder> functionCalls = Maps.newConcurrentMap();
+
+    @Override
+    public void onEvaluation(String source, long durationNanos) {
+        evaluations.increment();
+        recordLatency(durationNanos);
+    }
+
+    @Override
+    public void onError(String source, long durationNanos, RuntimeException error) {
+        evaluations.increment();
+        errors.increment();
+        recordLatency(durationNanos);
+    }
+
+    @Override
+    public void onFunctionCall(String name) {
+        functionCalls.computeIfAbsent(name, n -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return Number of evaluations, including failed ones.
+     */
+    public long getEvaluationCount() {
+        return evaluations.sum();
+    }
+
+    /**
+     * @return Number of failed evaluations.
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * @return Sum of evaluation durations in nanoseconds.
+     */
+    public long getTotalLatencyNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * @return Longest evaluation duration in nanoseconds.
+     */
+    public long getMaxLatencyNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @param percentile percentile in range [0, 100], e.g. 99.9.
+     * @return Evaluation duration in nanoseconds not exceeded by given percentage of evaluations, or 0 if nothing
+     * was recorded.
+     */
+    public long getLatencyPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in range [0, 100]: " + percentile);
+        }
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts[i] = latencies.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMaxLatencyNanos());
+            }
+        }
+        return getMaxLatencyNanos();
+    }
+
+    /**
+     * @param name function name.
+     * @return Number of calls of custom function.
+     */
+    public long getFunctionCallCount(String name) {
+        LongAdder calls = functionCalls.get(name);
+        return (calls != null) ? calls.sum() : 0;
+    }
+
+    /**
+     * @return Snapshot of custom function call counts by function name.
+     */
+    public Map<String, Long> getFunctionCallCounts() {
+        ImmutableMap.Builder<String, Long> builder = ImmutableMap.builder();
+        functionCalls.forEach((name, calls) -> builder.put(name, calls.sum()));
+        return builder.build();
+    }
+
+    private void recordLatency(long durationNanos) {
+        long nanos = Math.max(0, durationNanos);
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        latencies.incrementAndGet(bucketIndex(nanos));
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
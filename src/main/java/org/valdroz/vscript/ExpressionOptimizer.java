@@ -0,0 +1,224 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import java.util.ListIterator;
+
+/**
+ * Rewrites parsed node tree before evaluation:
+ * <ul>
+ *     <li>subtrees made of constants and pure operations are folded into single constant;</li>
+ *     <li>`if` and `switch` with constant selector are replaced by selected branch;</li>
+ *     <li>`false && x` and `true || x` are replaced by their constant result.</li>
+ * </ul>
+ * Folding is done with {@link Configuration} settings in effect at the time of optimization. Time dependent built-ins
+ * (e.g. `now()`, `day()`), variables, assignments, custom functions and array producing operations are never folded.
+ * Operations failing at fold time (e.g. division by zero) are left in place to fail at evaluation time.
+ *
+ * @author Valerijus Drozdovas
+ */
+final class ExpressionOptimizer implements Constants {
+
+    private ExpressionOptimizer() {
+    }
+
+    /**
+     * Optimizes all statements of the given composite node in place.
+     */
+    static CompositeNode optimize(CompositeNode root) {
+        ListIterator<Node> statements = root.getNodes().listIterator();
+        while (statements.hasNext()) {
+            Node statement = statements.next();
+            if (statement instanceof BaseNode) {
+                statements.set(optimize((BaseNode) statement));
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Optimizes given subtree.
+     *
+     * @return Node to be used in place of given node. Can be the same node.
+     */
+    static BaseNode optimize(BaseNode node) {
+        if (node instanceof ConstantNode) {
+            return node;
+        }
+        if (node.getValueSubstitution() != null) {
+            node.setValueSubstitution(optimize(node.getValueSubstitution()));
+        }
+        if (node.getLeftNode() != null) {
+            node.withLeftNode(optimize(node.getLeftNode()));
+        }
+        if (node.getRightNode() != null) {
+            node.withRightNode(optimize(node.getRightNode()));
+        }
+        for (int i = 0; i < node.getParameterCount(); ++i) {
+            node.setParameterNode(i, optimize(node.getParameterOrNullNode(i)));
+        }
+
+        switch (node.getNodeOperation()) {
+            case NT_LOP_AND:
+                if (isConstant(node.getLeftNode()) && !constantOf(node.getLeftNode()).asBoolean()) {
+                    return new ConstantNode(node.getId(), Variant.fromBoolean(false));
+                }
+                break;
+            case NT_LOP_OR:
+                if (isConstant(node.getLeftNode()) && constantOf(node.getLeftNode()).asBoolean()) {
+                    return new ConstantNode(node.getId(), Variant.fromBoolean(true));
+                }
+                break;
+            case NT_MF_IF:
+                return pruneIf(node);
+            case NT_MF_SWITCH:
+                return pruneSwitch(node);
+        }
+
+        if (isPure(node.getNodeOperation()) && hasConstantOperands(node)) {
+            return fold(node);
+        }
+        return node;
+    }
+
+    private static BaseNode pruneIf(BaseNode node) {
+        if (node.getParameterCount() < 3 || !isConstant(node.getParameterOrNullNode(0))) {
+            return node;
+        }
+        return constantOf(node.getParameterOrNullNode(0)).asBoolean() ?
+                node.getParameterOrNullNode(1) :
+                node.getParameterOrNullNode(2);
+    }
+
+    /**
+     * Mirrors `switch` evaluation: first case equal to selector wins, unless it yields `null`, in which case default
+     * (if any) is used. Pruning stops at first non constant case value.
+     */
+    private static BaseNode pruneSwitch(BaseNode node) {
+        int count = node.getParameterCount();
+        if (count < 3 || !isConstant(node.getParameterOrNullNode(0))) {
+            return node;
+        }
+        boolean hasDefault = count % 2 == 0;
+        BaseNode defaultNode = hasDefault ? node.getParameterOrNullNode(count - 1) : C_NULL;
+
+        Variant selector = constantOf(node.getParameterOrNullNode(0));
+        for (int i = 1; i < count - 1; i += 2) {
+            BaseNode caseNode = node.getParameterOrNullNode(i);
+            if (!isConstant(caseNode)) {
+                return node;
+            }
+            if (constantOf(caseNode).equals(selector)) {
+                BaseNode valueNode = node.getParameterOrNullNode(i + 1);
+                if (!hasDefault) {
+                    return valueNode;
+                }
+                if (isConstant(valueNode)) {
+                    return constantOf(valueNode).isNull() ? defaultNode : valueNode;
+                }
+                return node;
+            }
+        }
+        return defaultNode;
+    }
+
+    private static BaseNode fold(BaseNode node) {
+        try {
+            Variant value = node.execute(new DefaultVariantContainer());
+            if (value == null || value.isArray()) {
+                return node;
+            }
+            return new ConstantNode(node.getId(), value);
+        } catch (RuntimeException e) {
+            return node;
+        }
+    }
+
+    private static boolean hasConstantOperands(BaseNode node) {
+        if (node.getLeftNode() != null && !isConstant(node.getLeftNode())) {
+            return false;
+        }
+        if (node.getRightNode() != null && !isConstant(node.getRightNode())) {
+            return false;
+        }
+        for (int i = 0; i < node.getParameterCount(); ++i) {
+            if (!isConstant(node.getParameterOrNullNode(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isConstant(BaseNode node) {
+        return node instanceof ConstantNode;
+    }
+
+    private static Variant constantOf(BaseNode node) {
+        return ((ConstantNode) node).getConstantValue();
+    }
+
+    private static boolean isPure(int operation) {
+        switch (operation) {
+            case '*':
+            case '+':
+            case '-':
+            case '/':
+            case '!':
+            case '&':
+            case '|':
+            case '^':
+            case '>':
+            case '<':
+            case NT_LOP_AND:
+            case NT_LOP_OR:
+            case NT_LOP_EQUALS:
+            case NT_LOP_NOT_EQUALS:
+            case NT_LOP_MORE_EQUALS:
+            case NT_LOP_LESS_EQUALS:
+            case NT_MF_SIN:
+            case NT_MF_COS:
+            case NT_MF_ASIN:
+            case NT_MF_ACOS:
+            case NT_MF_TAN:
+            case NT_MF_ATAN:
+            case NT_MF_EXP:
+            case NT_MF_LN:
+            case NT_MF_LOG:
+            case NT_MF_SQRT:
+            case NT_MF_ABS:
+            case NT_MF_NEG:
+            case NT_MF_POWER:
+            case NT_MF_FLOOR_MOD:
+            case NT_MF_SIZE:
+            case NT_MF_IS_STRING:
+            case NT_MF_IS_NUMBER:
+            case NT_MF_IS_ARRAY:
+            case NT_MF_IS_NULL:
+            case NT_MF_FIRST:
+            case NT_MF_LAST:
+            case NT_MF_SKIP:
+            case NT_MF_MAX:
+            case NT_MF_MIN:
+            case NT_MF_AVERAGE:
+            case NT_MF_MEDIAN:
+            case NT_MF_ROUND:
+            case NT_MF_ISO:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -29,8 +29,9 @@ public class LocalVariantContainer extends DefaultVariantContainer {
 
     @Override
     public Variant getVariant(String name) {
-        if (super.contains(name)) {
-            return super.getVariant(name);
+        Variant value = getOwnVariant(name);
+        if (value != null || super.contains(name)) {
+            return Variant.sanitize(value);
         }
         return Variant.sanitize(delegate.getVariant(name));
     }
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custom function caching results of a pure (deterministic) delegate by its evaluated arguments.
+ * <p>
+ * Delegate result must depend on its declared parameters only: variables of the calling container are not part of
+ * the cache key. Arguments are compared strictly by type, value and scale, e.g. `1`, `1.00` and `"1"` are all
+ * different keys. Array results are copied into and out of the cache, so callers modifying returned array do not
+ * affect cached value. Cache is bounded and thread-safe; concurrent misses of the same key may call delegate more
+ * than once.
+ *
+ * <pre>
+ *     MemoizedFunction rate = runBlock.registerPureFunction("fx_rate(from, to)", 10_000, 5, TimeUnit.MINUTES,
+ *             lvc -> rates.lookup(lvc.getVariant("from").asString(), lvc.getVariant("to").asString()));
+ *     ...
+ *     double hitRate = rate.getStats().hitRate();
+ * </pre>
+ *
+ * @author Valerijus Drozdovas
+ */
+public final class MemoizedFunction extends AbstractFunction {
+
+    private static final Object NULL_KEY = new Object();
+
+    private final AbstractFunction delegate;
+    private final String[] parameterNames;
+    private final Cache<Key, Variant> cache;
+
+    /**
+     * @param delegate         pure function to cache results of.
+     * @param maximumSize      maximum number of cached results.
+     * @param expireAfterWrite duration after which cached result expires. Zero or negative for no expiry.
+     * @param unit             time unit of `expireAfterWrite`.
+     */
+    public MemoizedFunction(AbstractFunction delegate, long maximumSize, long expireAfterWrite, TimeUnit unit) {
+        super(delegate.getName());
+        this.delegate = delegate;
+        this.parameterNames = delegate.getParameterNames().toArray(new String[0]);
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (expireAfterWrite > 0) {
+            builder.expireAfterWrite(expireAfterWrite, unit);
+        }
+        this.cache = builder.build();
+    }
+
+    @Override
+    public List<String> getParameterNames() {
+        return delegate.getParameterNames();
+    }
+
+    /**
+     * Calls delegate directly with container parameters, caching the result.
+     */
+    @Override
+    public Variant execute(VariantContainer variantContainer) {
+        Variant[] args = new Variant[parameterNames.length];
+        for (int i = 0; i < args.length; ++i) {
+            if (!parameterNames[i].isEmpty()) {
+                args[i] = variantContainer.getVariant(parameterNames[i]);
+            }
+        }
+        Key key = new Key(args);
+        Variant result = cache.getIfPresent(key);
+        if (result == null) {
+            result = Variant.sanitize(delegate.execute(variantContainer));
+            cache.put(key, Variant.snapshot(result));
+            return result;
+        }
+        return Variant.snapshot(result);
+    }
+
+    /**
+     * Returns cached result for evaluated arguments, or calls delegate in new local container on cache miss.
+     *
+     * @param args   evaluated arguments by parameter position, `null` for parameters without name.
+     * @param parent container of the calling expression.
+     */
+    Variant call(Variant[] args, VariantContainer parent) {
+        Key key = new Key(args);
+        Variant result = cache.getIfPresent(key);
+        if (result == null) {
+            LocalVariantContainer lvc = new LocalVariantContainer(parent);
+            for (int i = 0; i < args.length; ++i) {
+                if (args[i] != null) {
+                    lvc.setVariant(parameterNames[i], args[i]);
+                }
+            }
+            result = Variant.sanitize(delegate.execute(lvc));
+            cache.put(key, Variant.snapshot(result));
+            return result;
+        }
+        return Variant.snapshot(result);
+    }
+
+    /**
+     * @return Hit, miss and eviction counters of this function.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return Number of cached results (approximate).
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static Object keyOf(Variant value) {
+        if (value == null || value.isNull()) {
+            return NULL_KEY;
+        }
+        if (value.isArray()) {
+            List<Object> elements = new ArrayList<>(value.asArray().size());
+            for (Variant element : value.asArray()) {
+                elements.add(keyOf(element));
+            }
+            return elements;
+        }
+        if (value.isNumeric()) {
+            return value.asNumeric();
+        }
+        if (value.isBoolean()) {
+            return value.asBoolean();
+        }
+        return value.asString();
+    }
+
+    private static final class Key {
+        private final Object[] values;
+        private final int hash;
+
+        Key(Variant[] args) {
+            this.values = new Object[args.length];
+            for (int i = 0; i < args.length; ++i) {
+                values[i] = keyOf(args[i]);
+            }
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return hash == that.hash && Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
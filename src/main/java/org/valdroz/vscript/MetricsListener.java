@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+/**
+ * Evaluation metrics listener. Unlike {@link TraceListener}, it is called once per evaluation rather than per node and
+ * receives no formatted text, so it is cheap enough to stay enabled in production. Implementations are called from
+ * evaluating threads and must be thread-safe and fast; see {@link ExpressionMetrics} for lock-free implementation.
+ *
+ * @author Valerijus Drozdovas
+ */
+public interface MetricsListener {
+
+    /**
+     * Called after successful evaluation.
+     *
+     * @param source        equation source text.
+     * @param durationNanos evaluation duration in nanoseconds.
+     */
+    default void onEvaluation(String source, long durationNanos) {
+    }
+
+    /**
+     * Called when evaluation throws. Exception is rethrown to the caller after this call.
+     *
+     * @param source        equation source text.
+     * @param durationNanos duration in nanoseconds until failure.
+     * @param error         thrown exception.
+     */
+    default void onError(String source, long durationNanos, RuntimeException error) {
+    }
+
+    /**
+     * Called when {@link DefaultRunBlock} resolves its registered custom function for invocation.
+     *
+     * @param name function name.
+     */
+    default void onFunctionCall(String name) {
+    }
+}
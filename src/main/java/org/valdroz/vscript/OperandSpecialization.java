@@ -0,0 +1,249 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import java.math.BigDecimal;
+
+/**
+ * Operations of {@link AdaptiveNode} specialized on operand representations, used by
+ * {@link CompiledExpression.Mode#ADAPTIVE}.
+ * <p>
+ * Node starts {@link #UNINITIALIZED}. First evaluation picks a specialization for the operand pair (e.g. decimal and
+ * decimal) and later evaluations run it as long as its guard accepts operands. On a guard miss node re-specializes
+ * for the new operands, and after {@link #MAX_SPECIALIZATIONS} misses settles on generic operations. Each
+ * specialization is a separate class calling methods of a single operand representation only, so JIT sees monomorphic
+ * call sites in it instead of the shared megamorphic ones in {@link BaseNode#execute(VariantContainer)}. Instances
+ * are immutable and can be shared between threads.
+ *
+ * @author Valerijus Drozdovas
+ */
+abstract class OperandSpecialization implements Constants {
+
+    static final int MAX_SPECIALIZATIONS = 3;
+
+    static final OperandSpecialization UNINITIALIZED = new Uninitialized();
+
+    private final int misses;
+
+    private OperandSpecialization(int misses) {
+        this.misses = misses;
+    }
+
+    /**
+     * @return Whether operands pass guard of this specialization.
+     */
+    abstract boolean accepts(Variant left, Variant right);
+
+    abstract Variant apply(int operation, Variant left, Variant right);
+
+    /**
+     * @return Specialization replacing this one after its guard rejected given operands.
+     */
+    OperandSpecialization next(int operation, Variant left, Variant right) {
+        int count = misses + 1;
+        if (count > MAX_SPECIALIZATIONS) {
+            return new Generic(count);
+        }
+        if (Variant.isDecimalVariant(left) && Variant.isDecimalVariant(right)) {
+            return new Decimal(count);
+        }
+        if (Variant.isLongVariant(left) && Variant.isLongVariant(right)) {
+            return new Primitive(count);
+        }
+        if (Variant.isStringVariant(left) && Variant.isStringVariant(right) &&
+                operation != '*' && operation != '-' && operation != '/') {
+            return new Text(count);
+        }
+        return new Generic(count);
+    }
+
+    static boolean canSpecialize(int operation) {
+        switch (operation) {
+            case '*':
+            case '+':
+            case '-':
+            case '/':
+            case '>':
+            case '<':
+            case NT_LOP_EQUALS:
+            case NT_LOP_NOT_EQUALS:
+            case NT_LOP_MORE_EQUALS:
+            case NT_LOP_LESS_EQUALS:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static final class Uninitialized extends OperandSpecialization {
+        Uninitialized() {
+            super(-1);
+        }
+
+        @Override
+        boolean accepts(Variant left, Variant right) {
+            return false;
+        }
+
+        @Override
+        Variant apply(int operation, Variant left, Variant right) {
+            throw new IllegalStateException("Uninitialized specialization");
+        }
+    }
+
+    /**
+     * `BigDecimal` arithmetic and comparison without operand sanitizing and null checks.
+     */
+    static final class Decimal extends OperandSpecialization {
+        Decimal(int misses) {
+            super(misses);
+        }
+
+        @Override
+        boolean accepts(Variant left, Variant right) {
+            return Variant.isDecimalVariant(left) && Variant.isDecimalVariant(right);
+        }
+
+        @Override
+        Variant apply(int operation, Variant left, Variant right) {
+            BigDecimal l = left.asNumeric();
+            BigDecimal r = right.asNumeric();
+            switch (operation) {
+                case '*':
+                    return Variant.fromBigDecimal(l.multiply(r));
+                case '+':
+                    return Variant.fromBigDecimal(l.add(r));
+                case '-':
+                    return Variant.fromBigDecimal(l.subtract(r));
+                case '/':
+                    return left.divide(right);
+                default:
+                    return compared(operation, l.compareTo(r));
+            }
+        }
+    }
+
+    /**
+     * Primitive `long` operations of {@link Configuration.NumericMode#FAST} values.
+     */
+    static final class Primitive extends OperandSpecialization {
+        Primitive(int misses) {
+            super(misses);
+        }
+
+        @Override
+        boolean accepts(Variant left, Variant right) {
+            return Variant.isLongVariant(left) && Variant.isLongVariant(right);
+        }
+
+        @Override
+        Variant apply(int operation, Variant left, Variant right) {
+            switch (operation) {
+                case '*':
+                    return left.multiply(right);
+                case '+':
+                    return left.add(right);
+                case '-':
+                    return left.minus(right);
+                case '/':
+                    return left.divide(right);
+                default:
+                    return compared(operation, left.compareTo(right));
+            }
+        }
+    }
+
+    /**
+     * String concatenation and comparison. Equality follows {@link Configuration#isCaseSensitive()}.
+     */
+    static final class Text extends OperandSpecialization {
+        Text(int misses) {
+            super(misses);
+        }
+
+        @Override
+        boolean accepts(Variant left, Variant right) {
+            return Variant.isStringVariant(left) && Variant.isStringVariant(right);
+        }
+
+        @Override
+        Variant apply(int operation, Variant left, Variant right) {
+            switch (operation) {
+                case '+':
+                    return Variant.fromString(left.asString().concat(right.asString()));
+                case NT_LOP_EQUALS:
+                    return Variant.fromBoolean(left.equals(right));
+                case NT_LOP_NOT_EQUALS:
+                    return Variant.fromBoolean(!left.equals(right));
+                default:
+                    return compared(operation, left.asString().compareTo(right.asString()));
+            }
+        }
+    }
+
+    /**
+     * Same operations as {@link BaseNode}, for any operands.
+     */
+    static final class Generic extends OperandSpecialization {
+        Generic(int misses) {
+            super(misses);
+        }
+
+        @Override
+        boolean accepts(Variant left, Variant right) {
+            return true;
+        }
+
+        @Override
+        Variant apply(int operation, Variant left, Variant right) {
+            switch (operation) {
+                case '*':
+                    return left.multiply(right);
+                case '+':
+                    return left.add(right);
+                case '-':
+                    return left.minus(right);
+                case '/':
+                    return left.divide(right);
+                case NT_LOP_EQUALS:
+                    return Variant.fromBoolean(left.equals(right));
+                case NT_LOP_NOT_EQUALS:
+                    return Variant.fromBoolean(!left.equals(right));
+                default:
+                    return compared(operation, left.compareTo(right));
+            }
+        }
+    }
+
+    private static Variant compared(int operation, int comparison) {
+        switch (operation) {
+            case '>':
+                return Variant.fromBoolean(comparison > 0);
+            case '<':
+                return Variant.fromBoolean(comparison < 0);
+            case NT_LOP_EQUALS:
+                return Variant.fromBoolean(comparison == 0);
+            case NT_LOP_NOT_EQUALS:
+                return Variant.fromBoolean(comparison != 0);
+            case NT_LOP_MORE_EQUALS:
+                return Variant.fromBoolean(comparison >= 0);
+            case NT_LOP_LESS_EQUALS:
+                return Variant.fromBoolean(comparison <= 0);
+            default:
+                throw new IllegalStateException("Unexpected operation: " + operation);
+        }
+    }
+}
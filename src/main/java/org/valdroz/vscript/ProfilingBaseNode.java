@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+/**
+ * Node timing its evaluation into {@link EvaluationProfile}.
+ *
+ * @author Valerijus Drozdovas
+ */
+class ProfilingBaseNode extends BaseNode {
+    private final EvaluationProfile profile;
+    private final EvaluationProfile.NodeProfile nodeProfile;
+
+    ProfilingBaseNode(String id, EvaluationProfile profile, int line, int position) {
+        super(id);
+        this.profile = profile;
+        this.nodeProfile = profile.register(this, line, position);
+    }
+
+    @Override
+    public Variant execute(VariantContainer variantContainer) {
+        if (!profile.isActive()) {
+            return super.execute(variantContainer);
+        }
+        profile.enter(nodeProfile);
+        long start = System.nanoTime();
+        try {
+            return super.execute(variantContainer);
+        } finally {
+            profile.exit(nodeProfile, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,577 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.valdroz.vscript.RegisterMachine.*;
+
+/**
+ * Compiles parsed node tree into instruction stream of {@link RegisterMachine}.
+ * <p>
+ * Each node is compiled to leave its result in a target register, using registers above the target for operands, so
+ * number of temporary registers is bounded by expression depth. Constant operands are read directly from constant
+ * registers, plain variable operands are read by the operation itself, unless operands evaluated after them could
+ * assign variables. Chains of the same logical operator are compiled into a single sequence of conditional jumps.
+ * Tree is walked with explicit work stack rather than recursion.
+ * Constructs the interpreter rejects at evaluation time (e.g. `if` with missing parameters, assignment to non-variable)
+ * are delegated to the interpreter node, which then fails the same way.
+ *
+ * @author Valerijus Drozdovas
+ */
+final class RegisterCompiler implements Constants {
+
+    /**
+     * Offset of variable operands, which are emitted as `~v`, from constant register references while compiling.
+     */
+    private static final int VARIABLE_OPERAND = 1 << 30;
+
+    private final VariableSlots slots;
+    private final Deque<Object> work = new ArrayDeque<>();
+    private List<Object> steps;
+
+    private int[] code = new int[64];
+    private int size = 0;
+    private final List<Variant> constants = new ArrayList<>();
+    private final Map<String, Integer> constantIndex = new HashMap<>();
+    private final List<Integer> constantOperands = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<Integer> slotIndexes = new ArrayList<>();
+    private final List<BaseNode> callSites = new ArrayList<>();
+    private final List<Node> delegates = new ArrayList<>();
+    private int temporaryCount = 1;
+
+    private RegisterCompiler(VariableSlots slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * Compiles node tree. Parent run block must be set on the tree before evaluation, since functions are resolved by
+     * call site nodes and delegated subtrees are executed by the interpreter.
+     *
+     * @param root  parsed statements.
+     * @param slots variable slot layout the tree is bound to, or `null`.
+     * @return Compiled program.
+     */
+    static RegisterMachine compile(CompositeNode root, VariableSlots slots) {
+        return new RegisterCompiler(slots).generate(root);
+    }
+
+    private RegisterMachine generate(CompositeNode root) {
+        List<Node> statements = root.getNodes();
+        if (statements.isEmpty()) {
+            emit(MOVE, 0, constant(Variant.nullVariant()));
+        }
+        for (Node statement : statements) {
+            if (statement instanceof BaseNode) {
+                work.push(new Task((BaseNode) statement, 0));
+                drain();
+            } else {
+                emit(EXEC, 0, delegate(statement));
+            }
+        }
+        emit(RETURN, 0);
+
+        for (int position : constantOperands) {
+            code[position] = temporaryCount - code[position] - 1;
+        }
+        return new RegisterMachine(root,
+                Arrays.copyOf(code, size),
+                constants.toArray(new Variant[0]),
+                temporaryCount,
+                names.toArray(new String[0]),
+                slotIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                slots,
+                callSites.toArray(new BaseNode[0]),
+                delegates.toArray(new Node[0]));
+    }
+
+    private void drain() {
+        while (!work.isEmpty()) {
+            Object item = work.pop();
+            if (item instanceof Task) {
+                Task task = (Task) item;
+                steps = new ArrayList<>();
+                expand(task.node, task.target);
+                for (int i = steps.size() - 1; i >= 0; --i) {
+                    work.push(steps.get(i));
+                }
+            } else {
+                ((Runnable) item).run();
+            }
+        }
+    }
+
+    /**
+     * Appends steps computing node result into target register `t`: compilation of operand nodes and emission of
+     * instructions, in order of execution.
+     */
+    private void expand(BaseNode node, int t) {
+        use(t);
+        if (node instanceof ConstantNode) {
+            op(MOVE, t, constant(((ConstantNode) node).getConstantValue()));
+            return;
+        }
+        if (node.getClass() != BaseNode.class && !(node instanceof AdaptiveNode)) {
+            op(EXEC, t, delegate(node));
+            return;
+        }
+        int operation = node.getNodeOperation();
+        switch (operation) {
+            case NT_VARIABLE:
+            case NT_LOCAL_VARIABLE: {
+                int variable = variable(node);
+                BaseNode indexNode = node.getParameterNode();
+                if (indexNode != null) {
+                    op(LOAD_ITEM, t, variable, operand(indexNode, t));
+                } else {
+                    op(LOAD, t, variable);
+                }
+                substitution(node, t);
+            }
+            break;
+            case '+':
+                binary(node, ADD, t);
+                break;
+            case '-':
+                binary(node, SUB, t);
+                break;
+            case '*':
+                binary(node, MUL, t);
+                break;
+            case '/':
+                binary(node, DIV, t);
+                break;
+            case '&':
+                binary(node, BIT_AND, t);
+                break;
+            case '|':
+                binary(node, BIT_OR, t);
+                break;
+            case '^':
+                binary(node, BIT_XOR, t);
+                break;
+            case '>':
+                binary(node, GT, t);
+                break;
+            case '<':
+                binary(node, LT, t);
+                break;
+            case NT_LOP_MORE_EQUALS:
+                binary(node, GE, t);
+                break;
+            case NT_LOP_LESS_EQUALS:
+                binary(node, LE, t);
+                break;
+            case NT_LOP_EQUALS:
+                binary(node, EQ, t);
+                break;
+            case NT_LOP_NOT_EQUALS:
+                binary(node, NE, t);
+                break;
+            case '!':
+                op(NOT, t, input(node.getLeftNode(), t));
+                break;
+            case '=':
+                assignment(node, t);
+                break;
+            case NT_LOP_AND:
+                logical(node, JUMP_IF_FALSE, false, t);
+                break;
+            case NT_LOP_OR:
+                logical(node, JUMP_IF_TRUE, true, t);
+                break;
+            case NT_MF_IF:
+                conditional(node, t);
+                break;
+            case NT_MF_SWITCH:
+                selection(node, t);
+                break;
+            case NT_MF_MAX:
+                aggregate(node, MAX_OF, MAX, t);
+                break;
+            case NT_MF_MIN:
+                aggregate(node, MIN_OF, MIN, t);
+                break;
+            case NT_FUNCTION:
+                call(node, t);
+                break;
+            case NT_MF_FORMAT_TS:
+                formatTimestamp(node, t);
+                break;
+            case NT_MF_DAY:
+            case NT_MF_MONTH:
+            case NT_MF_YEAR:
+            case NT_MF_DAY_OF_YEAR:
+            case NT_MF_NOW:
+                builtin(node, 0, t);
+                break;
+            case NT_MF_SIN:
+            case NT_MF_COS:
+            case NT_MF_ASIN:
+            case NT_MF_ACOS:
+            case NT_MF_TAN:
+            case NT_MF_ATAN:
+            case NT_MF_EXP:
+            case NT_MF_LN:
+            case NT_MF_LOG:
+            case NT_MF_SQRT:
+            case NT_MF_ABS:
+            case NT_MF_NEG:
+            case NT_MF_DAYS_IN_MONTH:
+            case NT_MF_ISO:
+            case NT_MF_DAY_OF_WEEK:
+            case NT_MF_DAYS_BEFORE_NOW:
+            case NT_MF_HOURS_BEFORE_NOW:
+            case NT_MF_MINUTES_BEFORE_NOW:
+            case NT_MF_SIZE:
+            case NT_MF_IS_STRING:
+            case NT_MF_IS_NUMBER:
+            case NT_MF_IS_ARRAY:
+            case NT_MF_IS_NULL:
+                builtin(node, 1, t);
+                break;
+            case NT_MF_POWER:
+                builtin(node, 2, t);
+                break;
+            case NT_MF_DAYS_SINCE_WEEKDAY:
+                checkedBuiltin(node, 1, t);
+                break;
+            case NT_MF_FLOOR_MOD:
+            case NT_MF_FIRST:
+            case NT_MF_LAST:
+            case NT_MF_SKIP:
+            case NT_MF_ROUND:
+                checkedBuiltin(node, 2, t);
+                break;
+            case NT_MF_TO_ARRAY:
+            case NT_MF_AVERAGE:
+            case NT_MF_MEDIAN:
+                builtin(node, node.getParameterCount(), t);
+                break;
+            default:
+                op(EXEC, t, delegate(node));
+                break;
+        }
+    }
+
+    /**
+     * Left operand is read by the operation only if computing right one cannot change it.
+     */
+    private void binary(BaseNode node, int opcode, int t) {
+        BaseNode right = node.getRightNode();
+        int a = (right instanceof ConstantNode || isPlainVariable(right)) ?
+                input(node.getLeftNode(), t) : operand(node.getLeftNode(), t);
+        int b = input(right, t + 1);
+        op(opcode, t, a, b);
+    }
+
+    private void assignment(BaseNode node, int t) {
+        BaseNode target = node.getLeftNode();
+        if (target instanceof ConstantNode ||
+                (target.getNodeOperation() != NT_VARIABLE && target.getNodeOperation() != NT_LOCAL_VARIABLE)) {
+            op(EXEC, t, delegate(node));
+            return;
+        }
+        int variable = variable(target);
+        node(node.getRightNode(), t);
+        BaseNode indexNode = target.getParameterNode();
+        if (indexNode != null) {
+            op(STORE_ITEM, t, variable, operand(indexNode, t + 1));
+        } else {
+            op(STORE, t, variable);
+        }
+    }
+
+    /**
+     * Left nested operations of the same kind, e.g. `a && b && c`, short circuit straight to the result, since value
+     * of nested operation is only tested by the enclosing one.
+     */
+    private void logical(BaseNode node, int shortCircuitJump, boolean shortCircuitValue, int t) {
+        Label shortCircuit = new Label();
+        Label end = new Label();
+        Deque<BaseNode> terms = new ArrayDeque<>();
+        BaseNode left = node;
+        do {
+            terms.push(left.getRightNode());
+            left = left.getLeftNode();
+        } while (left.getClass() == BaseNode.class && left.getNodeOperation() == node.getNodeOperation());
+        jump(shortCircuitJump, shortCircuit, input(left, t));
+        while (terms.size() > 1) {
+            jump(shortCircuitJump, shortCircuit, input(terms.pop(), t));
+        }
+        op(BOOL, t, input(terms.pop(), t));
+        jump(JUMP, end);
+        mark(shortCircuit);
+        op(MOVE, t, constant(Variant.fromBoolean(shortCircuitValue)));
+        mark(end);
+    }
+
+    private void conditional(BaseNode node, int t) {
+        if (node.getParameterCount() < 3) {
+            op(EXEC, t, delegate(node));
+            return;
+        }
+        Label otherwise = new Label();
+        Label end = new Label();
+        jump(JUMP_IF_FALSE, otherwise, operand(node.getParameterOrNullNode(0), t));
+        node(node.getParameterOrNullNode(1), t);
+        jump(JUMP, end);
+        mark(otherwise);
+        node(node.getParameterOrNullNode(2), t);
+        mark(end);
+    }
+
+    /**
+     * Selector is kept in `t + 1`, case values are computed into `t + 2`, unless constant.
+     */
+    private void selection(BaseNode node, int t) {
+        int count = node.getParameterCount();
+        if (count < 3) {
+            op(EXEC, t, delegate(node));
+            return;
+        }
+        Label matched = new Label();
+        int selector = operand(node.getParameterOrNullNode(0), t + 1);
+        for (int i = 1; i < count - 1; i += 2) {
+            Label next = new Label();
+            jump(JUMP_IF_NOT_EQUAL, next, operand(node.getParameterOrNullNode(i), t + 2), selector);
+            node(node.getParameterOrNullNode(i + 1), t);
+            jump(JUMP, matched);
+            mark(next);
+        }
+        op(MOVE, t, constant(Variant.nullVariant()));
+        mark(matched);
+        if (count % 2 == 0) {
+            Label end = new Label();
+            jump(JUMP_IF_PRESENT, end, t);
+            node(node.getParameterOrNullNode(count - 1), t);
+            mark(end);
+        }
+    }
+
+    private void aggregate(BaseNode node, int firstOpcode, int nextOpcode, int t) {
+        int count = node.getParameterCount();
+        if (count == 0) {
+            op(MOVE, t, constant(Variant.nullVariant()));
+            return;
+        }
+        for (int i = 0; i < count; ++i) {
+            op((i == 0) ? firstOpcode : nextOpcode, t, operand(node.getParameterOrNullNode(i), t + 1));
+        }
+    }
+
+    /**
+     * Function is resolved into `t` before arguments are computed into registers following it. Arguments without
+     * matching function parameter name are skipped, as interpreter does.
+     */
+    private void call(BaseNode node, int t) {
+        int site = callSites.size();
+        callSites.add(node);
+        op(RESOLVE, t, site);
+        for (int i = 0; i < node.getParameterCount(); ++i) {
+            Label skip = new Label();
+            jump(ARG, skip, t, i);
+            node(node.getParameterOrNullNode(i), t + 1 + i);
+            mark(skip);
+        }
+        op(CALL, t, site);
+        substitution(node, t);
+    }
+
+    private void formatTimestamp(BaseNode node, int t) {
+        int count = node.getParameterCount();
+        if (count < 2 || count > 3) {
+            op(EXEC, t, delegate(node));
+            return;
+        }
+        Label present = new Label();
+        Label end = new Label();
+        node(node.getParameterOrNullNode(0), t + 1);
+        jump(JUMP_IF_PRESENT, present, t + 1);
+        op(MOVE, t, constant(Variant.nullVariant()));
+        jump(JUMP, end);
+        mark(present);
+        for (int i = 1; i < count; ++i) {
+            node(node.getParameterOrNullNode(i), t + 1 + i);
+        }
+        op(BUILTIN, t, NT_MF_FORMAT_TS, t + 1, count);
+        mark(end);
+    }
+
+    /**
+     * Build-in function taking exactly `arity` parameters. Interpreter checks parameter count before computing
+     * any of them.
+     */
+    private void checkedBuiltin(BaseNode node, int arity, int t) {
+        if (node.getParameterCount() != arity) {
+            op(EXEC, t, delegate(node));
+        } else {
+            builtin(node, arity, t);
+        }
+    }
+
+    /**
+     * Build-in function applied to its first `arity` parameters, missing ones being `null`.
+     */
+    private void builtin(BaseNode node, int arity, int t) {
+        for (int i = 0; i < arity; ++i) {
+            node(node.getParameterOrNullNode(i), t + 1 + i);
+        }
+        op(BUILTIN, t, node.getNodeOperation(), t + 1, arity);
+    }
+
+    private void substitution(BaseNode node, int t) {
+        BaseNode substitution = node.getValueSubstitution();
+        if (substitution != null) {
+            Label end = new Label();
+            jump(JUMP_IF_PRESENT, end, t);
+            node(substitution, t);
+            mark(end);
+        }
+    }
+
+    /**
+     * Returns source operand of node result: variable operand of plain variable, otherwise {@link #operand}.
+     */
+    private int input(BaseNode node, int t) {
+        if (isPlainVariable(node)) {
+            return -VARIABLE_OPERAND - variable(node);
+        }
+        return operand(node, t);
+    }
+
+    private static boolean isPlainVariable(BaseNode node) {
+        return node.getClass() == BaseNode.class
+                && (node.getNodeOperation() == NT_VARIABLE || node.getNodeOperation() == NT_LOCAL_VARIABLE)
+                && node.getParameterNode() == null && node.getValueSubstitution() == null;
+    }
+
+    private void node(BaseNode node, int t) {
+        use(t);
+        steps.add(new Task(node, t));
+    }
+
+    /**
+     * Returns register holding node result: constant register of constant node, otherwise `t` node is computed into.
+     */
+    private int operand(BaseNode node, int t) {
+        if (node instanceof ConstantNode) {
+            return constant(((ConstantNode) node).getConstantValue());
+        }
+        node(node, t);
+        return t;
+    }
+
+    private void op(int... words) {
+        steps.add((Runnable) () -> emit(words));
+    }
+
+    /**
+     * Jump instruction: opcode, operands, then target label.
+     */
+    private void jump(int opcode, Label label, int... operands) {
+        steps.add((Runnable) () -> {
+            emit(opcode);
+            emit(operands);
+            label.reference(this);
+            emit(0);
+        });
+    }
+
+    private void mark(Label label) {
+        steps.add((Runnable) () -> label.bind(this));
+    }
+
+    private void emit(int... words) {
+        if (size + words.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + words.length));
+        }
+        for (int word : words) {
+            if (word <= -VARIABLE_OPERAND) {
+                word = ~(-word - VARIABLE_OPERAND);
+            } else if (word < 0) {
+                constantOperands.add(size);
+            }
+            code[size++] = word;
+        }
+    }
+
+    private void use(int register) {
+        temporaryCount = Math.max(temporaryCount, register + 1);
+    }
+
+    /**
+     * Returns reference to constant register, encoded as `-(index + 1)` until number of temporary registers is known.
+     * Equal literals share register. Arrays are never shared, since they can be modified.
+     */
+    private int constant(Variant value) {
+        String key = value.isArray() ? null : value.getClass().getName() + ":" + value;
+        Integer index = (key != null) ? constantIndex.get(key) : null;
+        if (index == null) {
+            index = constants.size();
+            constants.add(value);
+            if (key != null) {
+                constantIndex.put(key, index);
+            }
+        }
+        return -index - 1;
+    }
+
+    private int variable(BaseNode node) {
+        names.add(node.getName());
+        slotIndexes.add(node.getSlots() != null ? node.getSlot() : -1);
+        return names.size() - 1;
+    }
+
+    private int delegate(Node node) {
+        delegates.add(node);
+        return delegates.size() - 1;
+    }
+
+    private static final class Task {
+        final BaseNode node;
+        final int target;
+
+        Task(BaseNode node, int target) {
+            this.node = node;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Forward jump target. References are patched once label position is known.
+     */
+    private static final class Label {
+        private final List<Integer> references = new ArrayList<>();
+
+        void reference(RegisterCompiler compiler) {
+            references.add(compiler.size);
+        }
+
+        void bind(RegisterCompiler compiler) {
+            for (int reference : references) {
+                compiler.code[reference] = compiler.size;
+            }
+        }
+    }
+}
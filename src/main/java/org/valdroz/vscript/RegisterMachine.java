@@ -0,0 +1,422 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Register based virtual machine evaluating instruction stream produced by {@link RegisterCompiler}.
+ * <p>
+ * Program is a flat `int[]` of instructions, each an opcode followed by its operands: register indexes, pool indexes
+ * or jump targets. Instructions are executed by a single loop over a file of {@link Variant} registers, so evaluation
+ * does not recurse however deeply expression is nested. Operations call the very same {@link Variant} and
+ * {@link BaseNode} methods, in the same order, as {@link BaseNode#execute} does.
+ * <p>
+ * Register file holds temporaries followed by constants of the program, so instructions take constant operands
+ * directly. Each evaluation gets a copy of the file, thus evaluations are independent, re-entrant evaluation (e.g.
+ * custom function evaluating the same expression) included, and no state outlives them.
+ * <p>
+ * Source operands `a`, `b` of operations and conditional jumps are either registers or, encoded as `~v`, variables
+ * read at the point of operation, which saves a load instruction per variable.
+ *
+ * @author Valerijus Drozdovas
+ */
+final class RegisterMachine implements Node, Constants {
+
+    // Operands: t - target register, a, b - source operands, k - pool index, v - variable index, l - jump target.
+    static final int MOVE = 1;              // t a
+    static final int LOAD = 2;              // t v
+    static final int LOAD_ITEM = 3;         // t v a
+    static final int STORE = 4;             // t v
+    static final int STORE_ITEM = 5;        // t v a
+    static final int ADD = 6;               // t a b
+    static final int SUB = 7;               // t a b
+    static final int MUL = 8;               // t a b
+    static final int DIV = 9;               // t a b
+    static final int BIT_AND = 10;          // t a b
+    static final int BIT_OR = 11;           // t a b
+    static final int BIT_XOR = 12;          // t a b
+    static final int GT = 13;               // t a b
+    static final int LT = 14;               // t a b
+    static final int GE = 15;               // t a b
+    static final int LE = 16;               // t a b
+    static final int EQ = 17;               // t a b
+    static final int NE = 18;               // t a b
+    static final int NOT = 19;              // t a
+    static final int BOOL = 20;             // t a
+    static final int MAX_OF = 21;           // t a
+    static final int MAX = 22;              // t a
+    static final int MIN_OF = 23;           // t a
+    static final int MIN = 24;              // t a
+    static final int BUILTIN = 25;          // t operation a count
+    static final int JUMP = 26;             // l
+    static final int JUMP_IF_FALSE = 27;    // a l
+    static final int JUMP_IF_TRUE = 28;     // a l
+    static final int JUMP_IF_PRESENT = 29;  // a l
+    static final int JUMP_IF_NOT_EQUAL = 30; // a b l
+    static final int RESOLVE = 31;          // t k
+    static final int ARG = 32;              // t index l
+    static final int CALL = 33;             // t k
+    static final int EXEC = 34;             // t k
+    static final int RETURN = 35;           // a
+
+    private final Node source;
+    private final int[] code;
+    /**
+     * Initial register file: empty temporaries followed by constants.
+     */
+    private final Variant[] registers;
+    private final int temporaryCount;
+    private final String[] names;
+    private final int[] slotIndexes;
+    private final VariableSlots slots;
+    private final BaseNode[] callSites;
+    private final Node[] delegates;
+
+    /**
+     * @param constants      constants, loaded into registers following `temporaryCount` temporaries.
+     * @param temporaryCount number of temporary registers.
+     */
+    RegisterMachine(Node source, int[] code, Variant[] constants, int temporaryCount, String[] names,
+                    int[] slotIndexes, VariableSlots slots, BaseNode[] callSites, Node[] delegates) {
+        this.source = source;
+        this.code = code;
+        this.registers = new Variant[temporaryCount + constants.length];
+        this.temporaryCount = temporaryCount;
+        this.names = names;
+        this.slotIndexes = slotIndexes;
+        this.slots = slots;
+        this.callSites = callSites;
+        this.delegates = delegates;
+        System.arraycopy(constants, 0, registers, temporaryCount, constants.length);
+    }
+
+    @Override
+    public void setParentRunBlock(RunBlock runBlock) {
+        source.setParentRunBlock(runBlock);
+    }
+
+    @Override
+    public void collectStats(NodeStats stats) {
+        source.collectStats(stats);
+    }
+
+    @Override
+    public Variant execute(VariantContainer variantContainer) {
+        return run(variantContainer, registers.clone(),
+                (callSites.length > 0) ? new AbstractFunction[temporaryCount] : null);
+    }
+
+    int getRegisterCount() {
+        return registers.length;
+    }
+
+    /**
+     * @param r         register file.
+     * @param functions functions resolved for pending calls, indexed by call target register.
+     */
+    private Variant run(VariantContainer variantContainer, Variant[] r, AbstractFunction[] functions) {
+        final int[] code = this.code;
+        int pc = 0;
+        for (; ; ) {
+            switch (code[pc]) {
+                case MOVE:
+                    r[code[pc + 1]] = r[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case LOAD:
+                    r[code[pc + 1]] = Variant.sanitize(read(variantContainer, code[pc + 2]));
+                    pc += 3;
+                    break;
+                case LOAD_ITEM: {
+                    int index = r[code[pc + 3]].asNumeric().intValue();
+                    r[code[pc + 1]] = Variant.sanitize(Variant.getArrayItem(read(variantContainer, code[pc + 2]), index));
+                    pc += 4;
+                }
+                break;
+                case STORE: {
+                    int v = code[pc + 2];
+                    VariableSlots.write(variantContainer, slots, slotIndexes[v], names[v], r[code[pc + 1]]);
+                    r[code[pc + 1]] = read(variantContainer, v);
+                    pc += 3;
+                }
+                break;
+                case STORE_ITEM: {
+                    int v = code[pc + 2];
+                    int index = r[code[pc + 3]].asNumeric().intValue();
+                    VariableSlots.write(variantContainer, slots, slotIndexes[v], names[v], index, r[code[pc + 1]]);
+                    r[code[pc + 1]] = read(variantContainer, v);
+                    pc += 4;
+                }
+                break;
+                case ADD:
+                    r[code[pc + 1]] = in(variantContainer, r, code[pc + 2]).add(in(variantContainer, r, code[pc + 3]));
+                    pc += 4;
+                    break;
+                case SUB:
+                    r[code[pc + 1]] = in(variantContainer, r, code[pc + 2]).minus(in(variantContainer, r, code[pc + 3]));
+                    pc += 4;
+                    break;
+                case MUL:
+                    r[code[pc + 1]] = in(variantContainer, r, code[pc + 2]).multiply(in(variantContainer, r, code[pc + 3]));
+                    pc += 4;
+                    break;
+                case DIV:
+                    r[code[pc + 1]] = in(variantContainer, r, code[pc + 2]).divide(in(variantContainer, r, code[pc + 3]));
+                    pc += 4;
+                    break;
+                case BIT_AND:
+                    r[code[pc + 1]] = Variant.fromLong(
+                            in(variantContainer, r, code[pc + 2]).asNumeric().longValue()
+                                    & in(variantContainer, r, code[pc + 3]).asNumeric().longValue());
+                    pc += 4;
+                    break;
+                case BIT_OR:
+                    r[code[pc + 1]] = Variant.fromLong(
+                            in(variantContainer, r, code[pc + 2]).asNumeric().longValue()
+                                    | in(variantContainer, r, code[pc + 3]).asNumeric().longValue());
+                    pc += 4;
+                    break;
+                case BIT_XOR:
+                    r[code[pc + 1]] = Variant.fromLong(
+                            in(variantContainer, r, code[pc + 2]).asNumeric().longValue()
+                                    ^ in(variantContainer, r, code[pc + 3]).asNumeric().longValue());
+                    pc += 4;
+                    break;
+                case GT:
+                    r[code[pc + 1]] = Variant.fromBoolean(
+                            in(variantContainer, r, code[pc + 2]).compareTo(in(variantContainer, r, code[pc + 3])) > 0);
+                    pc += 4;
+                    break;
+                case LT:
+                    r[code[pc + 1]] = Variant.fromBoolean(
+                            in(variantContainer, r, code[pc + 2]).compareTo(in(variantContainer, r, code[pc + 3])) < 0);
+                    pc += 4;
+                    break;
+                case GE:
+                    r[code[pc + 1]] = Variant.fromBoolean(
+                            in(variantContainer, r, code[pc + 2]).compareTo(in(variantContainer, r, code[pc + 3])) >= 0);
+                    pc += 4;
+                    break;
+                case LE:
+                    r[code[pc + 1]] = Variant.fromBoolean(
+                            in(variantContainer, r, code[pc + 2]).compareTo(in(variantContainer, r, code[pc + 3])) <= 0);
+                    pc += 4;
+                    break;
+                case EQ:
+                    r[code[pc + 1]] = Variant.fromBoolean(
+                            in(variantContainer, r, code[pc + 2]).equals(in(variantContainer, r, code[pc + 3])));
+                    pc += 4;
+                    break;
+                case NE:
+                    r[code[pc + 1]] = Variant.fromBoolean(
+                            !in(variantContainer, r, code[pc + 2]).equals(in(variantContainer, r, code[pc + 3])));
+                    pc += 4;
+                    break;
+                case NOT: {
+                    Variant value = in(variantContainer, r, code[pc + 2]);
+                    r[code[pc + 1]] = value.isNull() ? Variant.nullVariant() : Variant.fromBoolean(!value.asBoolean());
+                    pc += 3;
+                }
+                break;
+                case BOOL:
+                    r[code[pc + 1]] = Variant.fromBoolean(in(variantContainer, r, code[pc + 2]).asBoolean());
+                    pc += 3;
+                    break;
+                case MAX_OF:
+                    r[code[pc + 1]] = BaseNode.maxOf(r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case MAX:
+                    r[code[pc + 1]] = BaseNode.max(r[code[pc + 1]], r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case MIN_OF:
+                    r[code[pc + 1]] = BaseNode.minOf(r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case MIN:
+                    r[code[pc + 1]] = BaseNode.min(r[code[pc + 1]], r[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case BUILTIN:
+                    r[code[pc + 1]] = builtin(code[pc + 2], r, code[pc + 3], code[pc + 4]);
+                    pc += 5;
+                    break;
+                case JUMP:
+                    pc = code[pc + 1];
+                    break;
+                case JUMP_IF_FALSE:
+                    pc = in(variantContainer, r, code[pc + 1]).asBoolean() ? pc + 3 : code[pc + 2];
+                    break;
+                case JUMP_IF_TRUE:
+                    pc = in(variantContainer, r, code[pc + 1]).asBoolean() ? code[pc + 2] : pc + 3;
+                    break;
+                case JUMP_IF_PRESENT:
+                    pc = r[code[pc + 1]].isNull() ? pc + 3 : code[pc + 2];
+                    break;
+                case JUMP_IF_NOT_EQUAL:
+                    pc = r[code[pc + 1]].equals(r[code[pc + 2]]) ? pc + 4 : code[pc + 3];
+                    break;
+                case RESOLVE:
+                    functions[code[pc + 1]] = callSites[code[pc + 2]].resolveFunction();
+                    pc += 3;
+                    break;
+                case ARG: {
+                    int t = code[pc + 1];
+                    int index = code[pc + 2];
+                    List<String> parameterNames = functions[t].getParameterNames();
+                    if (index < parameterNames.size() && !parameterNames.get(index).isEmpty()) {
+                        pc += 4;
+                    } else {
+                        r[t + 1 + index] = null;
+                        pc = code[pc + 3];
+                    }
+                }
+                break;
+                case CALL:
+                    r[code[pc + 1]] = call(variantContainer, r, functions, code[pc + 1], callSites[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case EXEC:
+                    r[code[pc + 1]] = delegates[code[pc + 2]].execute(variantContainer);
+                    pc += 3;
+                    break;
+                case RETURN:
+                    return r[code[pc + 1]];
+                default:
+                    throw new IllegalStateException("Invalid opcode " + code[pc] + " at " + pc);
+            }
+        }
+    }
+
+    private Variant read(VariantContainer variantContainer, int variable) {
+        return VariableSlots.read(variantContainer, slots, slotIndexes[variable], names[variable]);
+    }
+
+    /**
+     * @return Value of source operand: register `a`, or variable `~a` if `a` is negative.
+     */
+    private Variant in(VariantContainer variantContainer, Variant[] r, int a) {
+        return (a >= 0) ? r[a] : Variant.sanitize(read(variantContainer, ~a));
+    }
+
+    /**
+     * Calls custom function resolved into target register, with arguments in registers following it.
+     */
+    private static Variant call(VariantContainer variantContainer, Variant[] r, AbstractFunction[] functions, int t,
+                                BaseNode site) {
+        AbstractFunction function = functions[t];
+        functions[t] = null;
+        List<String> parameterNames = function.getParameterNames();
+        int count = Math.min(site.getParameterCount(), parameterNames.size());
+        Variant result;
+        if (function instanceof MemoizedFunction) {
+            Variant[] args = Arrays.copyOfRange(r, t + 1, t + 1 + count);
+            result = ((MemoizedFunction) function).call(args, variantContainer);
+        } else {
+            LocalVariantContainer lvc = new LocalVariantContainer(variantContainer);
+            for (int i = 0; i < count; ++i) {
+                String name = parameterNames.get(i);
+                if (!name.isEmpty()) {
+                    lvc.setVariant(name, r[t + 1 + i]);
+                }
+            }
+            result = function.execute(lvc);
+        }
+        return Variant.sanitize(result);
+    }
+
+    /**
+     * Applies build-in function to `count` arguments in registers starting at `a`.
+     */
+    private static Variant builtin(int operation, Variant[] r, int a, int count) {
+        switch (operation) {
+            case NT_MF_SIN:
+            case NT_MF_COS:
+            case NT_MF_ASIN:
+            case NT_MF_ACOS:
+            case NT_MF_TAN:
+            case NT_MF_ATAN:
+            case NT_MF_EXP:
+            case NT_MF_LN:
+            case NT_MF_LOG:
+            case NT_MF_SQRT:
+            case NT_MF_ABS:
+                return r[a].mfunc(operation);
+            case NT_MF_NEG:
+                return r[a].negate();
+            case NT_MF_POWER:
+                return r[a].pow(r[a + 1]);
+            case NT_MF_FLOOR_MOD:
+                return Variant.fromInt(Math.floorMod(r[a].asNumeric().intValue(), r[a + 1].asNumeric().intValue()));
+            case NT_MF_DAY:
+                return Variant.fromInt(BaseNode.now().getDayOfMonth());
+            case NT_MF_MONTH:
+                return Variant.fromInt(BaseNode.now().getMonthOfYear());
+            case NT_MF_YEAR:
+                return Variant.fromInt(BaseNode.now().getYear());
+            case NT_MF_DAY_OF_YEAR:
+                return Variant.fromInt(BaseNode.now().getDayOfYear());
+            case NT_MF_DAYS_IN_MONTH:
+                return BaseNode.daysInMonth(r[a]);
+            case NT_MF_ISO:
+                return BaseNode.isoMillis(r[a]);
+            case NT_MF_DAY_OF_WEEK:
+                return BaseNode.dayOfWeek(r[a]);
+            case NT_MF_NOW:
+                return Variant.fromLong(BaseNode.currentTime.get());
+            case NT_MF_DAYS_BEFORE_NOW:
+                return Variant.fromLong(BaseNode.durationTillNow(r[a]).getStandardDays());
+            case NT_MF_HOURS_BEFORE_NOW:
+                return Variant.fromLong(BaseNode.durationTillNow(r[a]).getStandardHours());
+            case NT_MF_MINUTES_BEFORE_NOW:
+                return Variant.fromLong(BaseNode.durationTillNow(r[a]).getStandardMinutes());
+            case NT_MF_DAYS_SINCE_WEEKDAY:
+                return BaseNode.daysSinceWeekday(r[a]);
+            case NT_MF_SIZE:
+                return Variant.fromInt(r[a].size());
+            case NT_MF_IS_STRING:
+                return Variant.fromBoolean(r[a].isString());
+            case NT_MF_IS_NUMBER:
+                return Variant.fromBoolean(r[a].isNumeric());
+            case NT_MF_IS_ARRAY:
+                return Variant.fromBoolean(r[a].isArray());
+            case NT_MF_IS_NULL:
+                return Variant.fromBoolean(r[a].isNull());
+            case NT_MF_TO_ARRAY:
+                return Variant.fromArray(new ArrayList<>(Arrays.asList(r).subList(a, a + count)));
+            case NT_MF_FIRST:
+                return BaseNode.first(r[a], r[a + 1]);
+            case NT_MF_LAST:
+                return BaseNode.last(r[a], r[a + 1]);
+            case NT_MF_SKIP:
+                return BaseNode.skip(r[a], r[a + 1]);
+            case NT_MF_AVERAGE:
+                return BaseNode.average(Arrays.asList(r).subList(a, a + count));
+            case NT_MF_MEDIAN:
+                return BaseNode.median(Arrays.asList(r).subList(a, a + count));
+            case NT_MF_ROUND:
+                return Variant.round(r[a], r[a + 1].asNumeric().intValue());
+            case NT_MF_FORMAT_TS:
+                return BaseNode.formatTimestamp(BaseNode.parseTimestamp(r[a]), r[a + 1], (count == 3) ? r[a + 2] : null);
+            default:
+                throw new IllegalStateException("Unexpected build-in function: " + operation);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Array backed variant container. Variables present in {@link VariableSlots} layout are stored by slot index,
+ * any other variable (e.g. local variable) is kept in a map.
+ * <p>
+ * Expressions compiled by {@link CompiledExpression} resolve variables of a container created with
+ * {@link CompiledExpression#newContainer()} by slot, with no variable name hashing or comparison.
+ *
+ * @author Valerijus Drozdovas
+ */
+public class SlotVariantContainer implements VariantContainer {
+    private final VariableSlots slots;
+    private final Variant[] values;
+    private Map<String, Variant> overflow = null;
+
+    public SlotVariantContainer(VariableSlots slots) {
+        this.slots = slots;
+        this.values = new Variant[slots.size()];
+    }
+
+    public VariableSlots getSlots() {
+        return slots;
+    }
+
+    public Variant getVariant(int slot) {
+        return Variant.sanitize(values[slot]);
+    }
+
+    public void setVariant(int slot, Variant varValue) {
+        values[slot] = varValue;
+    }
+
+    public Variant getVariant(int slot, int index) {
+        return Variant.getArrayItem(values[slot], index);
+    }
+
+    public void setVariant(int slot, int index, Variant varValue) {
+        Variant variant = Variant.sanitize(values[slot]);
+        if (variant.isArray()) {
+            Variant.setArrayItem(variant, index, varValue);
+        } else {
+            values[slot] = Variant.setArrayItem(variant, index, varValue);
+        }
+    }
+
+    @Override
+    public void setVariant(String varName, Variant varValue) {
+        int slot = slots.indexOf(varName);
+        if (slot >= 0) {
+            setVariant(slot, varValue);
+        } else {
+            overflow().put(varName, varValue);
+        }
+    }
+
+    @Override
+    public Variant getVariant(String varName) {
+        int slot = slots.indexOf(varName);
+        if (slot >= 0) {
+            return getVariant(slot);
+        }
+        return Variant.sanitize((overflow != null) ? overflow.get(varName) : null);
+    }
+
+    @Override
+    public void setVariant(String varName, int index, Variant varValue) {
+        int slot = slots.indexOf(varName);
+        if (slot >= 0) {
+            setVariant(slot, index, varValue);
+        } else {
+            Variant variant = Variant.sanitize(overflow().get(varName));
+            if (variant.isArray()) {
+                Variant.setArrayItem(variant, index, varValue);
+            } else {
+                overflow.put(varName, Variant.setArrayItem(variant, index, varValue));
+            }
+        }
+    }
+
+    @Override
+    public Variant getVariant(String varName, int index) {
+        int slot = slots.indexOf(varName);
+        if (slot >= 0) {
+            return getVariant(slot, index);
+        }
+        return Variant.getArrayItem((overflow != null) ? overflow.get(varName) : null, index);
+    }
+
+    @Override
+    public boolean contains(String varName) {
+        int slot = slots.indexOf(varName);
+        if (slot >= 0) {
+            return values[slot] != null;
+        }
+        return overflow != null && overflow.containsKey(varName);
+    }
+
+    /**
+     * Removes all variables, so container can be reused for next evaluation.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        overflow = null;
+    }
+
+    private Map<String, Variant> overflow() {
+        if (overflow == null) {
+            overflow = new HashMap<>();
+        }
+        return overflow;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Fixed capacity ring buffer of structured trace events. Recording stores references to evaluated node and its result
+ * in preallocated arrays, so it does not allocate except for copying array results, which can be modified later in
+ * the same evaluation; oldest events are overwritten once buffer is full. Events are turned into {@link TraceEvent}
+ * objects and formatted only when read. Latest result of each node is kept aside too, so operands evaluated long
+ * before their parent node are still reported after their own events were overwritten.
+ * <p>
+ * Buffer is not thread-safe: use one buffer per traced {@link EquationEval}.
+ *
+ * <pre>
+ *     TraceBuffer buffer = new TraceBuffer(4096);
+ *     EquationEval eval = EquationEval.traced("price * qty > limit", buffer).withTraceSampling(1000);
+ *     ...
+ *     buffer.format().forEach(log::debug);
+ * </pre>
+ *
+ * @author Valerijus Drozdovas
+ */
+public final class TraceBuffer {
+
+    private final int capacity;
+    private final long[] evaluations;
+    private final BaseNode[] nodes;
+    private final Variant[] results;
+    private final RuntimeException[] errors;
+
+    private Variant[] lastResults = new Variant[0];
+    private long[] lastEvaluations = new long[0];
+
+    private long recorded = 0;
+
+    /**
+     * @param capacity maximum number of events kept.
+     */
+    public TraceBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Trace buffer capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.evaluations = new long[capacity];
+        this.nodes = new BaseNode[capacity];
+        this.results = new Variant[capacity];
+        this.errors = new RuntimeException[capacity];
+    }
+
+    void record(long evaluation, BaseNode node, Variant result, RuntimeException error) {
+        int slot = (int) (recorded % capacity);
+        evaluations[slot] = evaluation;
+        nodes[slot] = node;
+        Variant snapshot = Variant.snapshot(result);
+        results[slot] = snapshot;
+        errors[slot] = error;
+        ++recorded;
+
+        int id = node.getNodeId();
+        if (id >= 0) {
+            if (id >= lastResults.length) {
+                int length = Math.max(id + 1, lastResults.length * 2);
+                lastResults = Arrays.copyOf(lastResults, length);
+                int from = lastEvaluations.length;
+                lastEvaluations = Arrays.copyOf(lastEvaluations, length);
+                Arrays.fill(lastEvaluations, from, length, -1);
+            }
+            lastResults[id] = snapshot;
+            lastEvaluations[id] = evaluation;
+        }
+    }
+
+    /**
+     * @return Number of events currently held.
+     */
+    public int size() {
+        return (int) Math.min(recorded, capacity);
+    }
+
+    /**
+     * @return Number of events recorded since creation or last {@link #clear()}, including overwritten ones.
+     */
+    public long getRecordedCount() {
+        return recorded;
+    }
+
+    public void clear() {
+        for (int i = 0; i < capacity; ++i) {
+            nodes[i] = null;
+            results[i] = null;
+            errors[i] = null;
+        }
+        Arrays.fill(lastResults, null);
+        Arrays.fill(lastEvaluations, -1);
+        recorded = 0;
+    }
+
+    /**
+     * @return Events held, oldest first.
+     */
+    public List<TraceEvent> getEvents() {
+        List<TraceEvent> events = Lists.newArrayListWithCapacity(size());
+        for (long position = recorded - size(); position < recorded; ++position) {
+            int slot = (int) (position % capacity);
+            BaseNode node = nodes[slot];
+            Map<BaseNode, Variant> operands = Maps.newIdentityHashMap();
+            for (BaseNode operand : TraceEvent.operandsOf(node)) {
+                operands.put(operand, operandResult(position, operand));
+            }
+            events.add(new TraceEvent(evaluations[slot], node, results[slot], errors[slot], operands));
+        }
+        return events;
+    }
+
+    /**
+     * @return Messages of events held, oldest first, in {@link TraceListener} format.
+     */
+    public List<String> format() {
+        List<String> messages = Lists.newArrayListWithCapacity(size());
+        getEvents().forEach(event -> messages.add(event.toString()));
+        return messages;
+    }
+
+    String formatLast() {
+        long position = recorded - 1;
+        int slot = (int) (position % capacity);
+        Function<BaseNode, Variant> operands = operand -> operandResult(position, operand);
+        return TraceEvent.format(nodes[slot], results[slot], errors[slot], operands);
+    }
+
+    /**
+     * Finds result of operand node evaluated before event at position within the same evaluation. Operands which
+     * were not evaluated (e.g. short-circuited) yield `null`. If operand event was already overwritten, latest result
+     * of operand node is used as long as it was recorded in the same evaluation.
+     */
+    private Variant operandResult(long position, BaseNode operand) {
+        if (operand instanceof ConstantNode) {
+            return ((ConstantNode) operand).getConstantValue();
+        }
+        long evaluation = evaluations[(int) (position % capacity)];
+        for (long p = position - 1; p >= recorded - size(); --p) {
+            int slot = (int) (p % capacity);
+            if (evaluations[slot] != evaluation) {
+                return Variant.nullVariant();
+            }
+            if (nodes[slot] == operand) {
+                return Variant.sanitize(results[slot]);
+            }
+        }
+        return lastResult(operand, evaluation);
+    }
+
+    private Variant lastResult(BaseNode node, long evaluation) {
+        int id = node.getNodeId();
+        if (id >= 0 && id < lastResults.length && lastEvaluations[id] == evaluation) {
+            return Variant.sanitize(lastResults[id]);
+        }
+        return Variant.nullVariant();
+    }
+}
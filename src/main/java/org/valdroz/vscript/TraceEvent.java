@@ -0,0 +1,188 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.valdroz.vscript.Constants.*;
+
+/**
+ * Single node evaluation read from {@link TraceBuffer}.
+ *
+ * @author Valerijus Drozdovas
+ */
+public final class TraceEvent {
+
+    private final long evaluation;
+    private final BaseNode node;
+    private final Variant result;
+    private final RuntimeException error;
+    private final Map<BaseNode, Variant> operandResults;
+
+    TraceEvent(long evaluation, BaseNode node, Variant result, RuntimeException error,
+               Map<BaseNode, Variant> operandResults) {
+        this.evaluation = evaluation;
+        this.node = node;
+        this.result = result;
+        this.error = error;
+        this.operandResults = operandResults;
+    }
+
+    /**
+     * @return Sequence number of evaluation, counted from 0 for each traced equation.
+     */
+    public long getEvaluation() {
+        return evaluation;
+    }
+
+    /**
+     * @return Node id, unique within equation.
+     */
+    public int getNodeId() {
+        return node.getNodeId();
+    }
+
+    /**
+     * @return Node operation code (see {@link Constants}), e.g. `'+'` or {@link Constants#NT_FUNCTION}.
+     */
+    public int getOperation() {
+        return node.getNodeOperation();
+    }
+
+    /**
+     * @return Variable or function name, empty for operators.
+     */
+    public String getName() {
+        return node.getName();
+    }
+
+    /**
+     * @return Node ids of operands (left, right, then parameters).
+     */
+    public int[] getOperandNodeIds() {
+        List<BaseNode> operands = operandsOf(node);
+        int[] ids = new int[operands.size()];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = operands.get(i).getNodeId();
+        }
+        return ids;
+    }
+
+    /**
+     * @return Node result, or `null` if node failed.
+     */
+    public Variant getResult() {
+        return result;
+    }
+
+    /**
+     * @return Exception thrown by node, or `null`.
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    /**
+     * @return Event message in {@link TraceListener} format.
+     */
+    @Override
+    public String toString() {
+        return format(node, result, error, operand -> operandResults.getOrDefault(operand, Variant.nullVariant()));
+    }
+
+    static List<BaseNode> operandsOf(BaseNode node) {
+        List<BaseNode> operands = Lists.newArrayList();
+        if (node.getLeftNode() != null) {
+            operands.add(node.getLeftNode());
+        }
+        if (node.getRightNode() != null) {
+            operands.add(node.getRightNode());
+        }
+        if (node.getParams() != null) {
+            node.getParams().forEach(operands::add);
+        }
+        return operands;
+    }
+
+    static String format(BaseNode node, Variant result, RuntimeException error,
+                         Function<BaseNode, Variant> operandResult) {
+        if (error != null) {
+            return "ERROR: " + error.getMessage();
+        }
+        List<String> params = Lists.newArrayList();
+        if (node.getParams() != null) {
+            node.getParams().forEach(param -> params.add(String.valueOf(operandResult.apply(param))));
+        }
+        String buildInFuncName = EquationParser.functionNameFromCode(node.getNodeOperation());
+        String paramsMsg = Joiner.on(", ").join(params);
+        if (StringUtils.isNotBlank(buildInFuncName)) {
+            return "FUN: " + buildInFuncName + "(" + paramsMsg + ") YIELDS " + result;
+        }
+        String message;
+        switch (node.getNodeOperation()) {
+            case NT_VARIABLE:
+            case NT_LOCAL_VARIABLE:
+                message = "GET: " + node.getName();
+                if (StringUtils.isNotBlank(paramsMsg)) {
+                    message += "[" + paramsMsg + "]";
+                }
+                message += " IS " + result;
+                break;
+            case NT_FUNCTION:
+                message = "FUN: " + node.getName() + "(" + paramsMsg + ") YIELDS " + result;
+                break;
+            case '=':
+                message = "SET: " + node.getLeftNode().getName();
+                if (StringUtils.isNotBlank(paramsMsg)) {
+                    message += "[" + paramsMsg + "]";
+                }
+                message += " TO " + result;
+                break;
+            case '!':
+                message = "OPR: NOT " + operandResult.apply(node.getLeftNode()) + " YIELDS " + result;
+                break;
+            case '+':
+            case '-':
+            case '*':
+            case '/':
+            case '&':
+            case '|':
+            case '>':
+            case '<':
+            case '^':
+            case NT_LOP_AND:
+            case NT_LOP_OR:
+            case NT_LOP_EQUALS:
+            case NT_LOP_NOT_EQUALS:
+            case NT_LOP_MORE_EQUALS:
+            case NT_LOP_LESS_EQUALS:
+                message = "OPR: " + operandResult.apply(node.getLeftNode()) +
+                        " " + TracingBaseNode.toOpString(node.getNodeOperation()) + " " +
+                        operandResult.apply(node.getRightNode()) + " YIELDS " + result;
+                break;
+            default:
+                message = "OPR: " + TracingBaseNode.toOpString(node.getNodeOperation()) + " YIELDS: " + result;
+                break;
+        }
+        return message;
+    }
+}
@@ -15,32 +15,71 @@
  */
 package org.valdroz.vscript;
 
-import com.google.common.collect.Maps;
-
-import java.util.Map;
-
 /**
+ * Records node evaluations of traced equation into {@link TraceBuffer}. With legacy {@link TraceListener}, each
+ * event is also formatted and passed to the listener right away.
+ *
  * @author Valerijus Drozdovas
  * Created on 9/25/20
  */
-class Tracer implements TraceListener {
+class Tracer {
+    private static final int LISTENER_BUFFER_CAPACITY = 1024;
+
     private final TraceListener traceListener;
-    private final Map<String,Variant> nodeResults = Maps.newHashMap();
+    private final TraceBuffer buffer;
+
+    private int sampleEvery = 1;
+    private long evaluationCount = 0;
+    private long evaluation = 0;
+    private boolean active = true;
 
     Tracer(TraceListener traceListener) {
         this.traceListener = traceListener;
+        this.buffer = new TraceBuffer(LISTENER_BUFFER_CAPACITY);
+    }
+
+    Tracer(TraceBuffer buffer) {
+        this.traceListener = null;
+        this.buffer = buffer;
+    }
+
+    void setSampleEvery(int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("Sampling rate must be positive: " + sampleEvery);
+        }
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Starts next evaluation and decides whether it is sampled.
+     */
+    void beginEvaluation() {
+        evaluation = evaluationCount++;
+        active = (evaluation % sampleEvery) == 0;
+    }
+
+    boolean isActive() {
+        return active;
     }
 
-    void put(String nid, Variant result) {
-        nodeResults.put(nid, result);
+    /**
+     * Legacy listener tracing substitutes failing nodes with `null` rather than failing evaluation.
+     */
+    boolean swallowsErrors() {
+        return traceListener != null;
     }
 
-    Variant get(String nid) {
-        return nodeResults.getOrDefault(nid, Variant.nullVariant());
+    void record(BaseNode node, Variant result) {
+        buffer.record(evaluation, node, result, null);
+        if (traceListener != null) {
+            traceListener.trace(buffer.formatLast());
+        }
     }
 
-    @Override
-    public void trace(String message) {
-        traceListener.trace(message);
+    void recordError(BaseNode node, RuntimeException error) {
+        buffer.record(evaluation, node, null, error);
+        if (traceListener != null) {
+            traceListener.trace(buffer.formatLast());
+        }
     }
 }
@@ -15,12 +15,6 @@
  */
 package org.valdroz.vscript;
 
-import com.google.common.base.Joiner;
-import com.google.common.collect.Lists;
-import org.apache.commons.lang3.StringUtils;
-
-import java.util.List;
-
 /**
  * @author Valerijus Drozdovas
  * Created on 9/24/20
@@ -38,79 +32,27 @@ public class TracingBaseNode extends BaseNode {
         return super.withLeftNode(leftNode);
     }
 
+    /**
+     * Records node result when tracer samples current evaluation. Formatting is deferred to {@link TraceEvent}.
+     */
     @Override
     public Variant execute(VariantContainer variantContainer) {
+        if (!tracer.isActive()) {
+            return super.execute(variantContainer);
+        }
         try {
             Variant result = super.execute(variantContainer);
-            tracer.put(getId(), result);
-            List<String> params = Lists.newLinkedList();
-            if (getParams() != null) {
-                getParams().forEach(baseNode -> params.add(nodeAsTrace(baseNode)));
-            }
-            String buildInFuncName = EquationParser.functionNameFromCode(getNodeOperation());
-            String message = "";
-            String paramsMsg = Joiner.on(", ").join(params);
-            if (StringUtils.isNotBlank(buildInFuncName)) {
-                message += "FUN: " + buildInFuncName + "(" + paramsMsg + ") YIELDS " + result;
-            } else {
-                switch (getNodeOperation()) {
-                    case NT_VARIABLE:
-                    case NT_LOCAL_VARIABLE:
-                        message += "GET: " + getName() + "";
-                        if (StringUtils.isNotBlank(paramsMsg)) {
-                            message += "[" + paramsMsg + "]";
-                        }
-                        message += " IS " + result;
-                        break;
-                    case NT_FUNCTION:
-                        message += "FUN: " + getName() + "(" + paramsMsg + ") YIELDS " + result;
-                        break;
-                    case '=':
-                        message += "SET: " + getLeftNode().getName();
-                        if (StringUtils.isNotBlank(paramsMsg)) {
-                            message += "[" + paramsMsg + "]";
-                        }
-                        message += " TO " + result;
-                        break;
-                    case '!':
-                        message += "OPR: NOT " + nodeAsTrace(getLeftNode()) + " YIELDS " + result;
-                        break;
-                    case '+':
-                    case '-':
-                    case '*':
-                    case '/':
-                    case '&':
-                    case '|':
-                    case '>':
-                    case '<':
-                    case '^':
-                    case NT_LOP_AND:
-                    case NT_LOP_OR:
-                    case NT_LOP_EQUALS:
-                    case NT_LOP_NOT_EQUALS:
-                    case NT_LOP_MORE_EQUALS:
-                    case NT_LOP_LESS_EQUALS:
-                        message += "OPR: " + nodeAsTrace(getLeftNode()) +
-                                " " + toOpString(getNodeOperation()) + " " + nodeAsTrace(getRightNode()) + " YIELDS " + result;
-                        break;
-                    default:
-                        message += "OPR: " + toOpString(getNodeOperation()) + " YIELDS: " + result;
-                        break;
-                }
-            }
-
-            tracer.trace(message);
+            tracer.record(this, result);
             return result;
-        } catch (Exception ex) {
-            tracer.trace("ERROR: " + ex.getMessage());
-            return Variant.nullVariant();
+        } catch (RuntimeException ex) {
+            tracer.recordError(this, ex);
+            if (tracer.swallowsErrors()) {
+                return Variant.nullVariant();
+            }
+            throw ex;
         }
     }
 
-    private String nodeAsTrace(BaseNode node) {
-        return tracer.get(node.getId()).toString();
-    }
-
     protected static String toOpString(int op) {
         switch (op) {
             case '+':
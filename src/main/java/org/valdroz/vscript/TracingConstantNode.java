@@ -37,10 +37,11 @@ public class TracingConstantNode extends ConstantNode {
         this.tracer = tracer;
     }
 
+    /**
+     * Constants are not recorded; trace formatting reads their value from the node.
+     */
     @Override
     public Variant execute(VariantContainer variantContainer) {
-        Variant result = super.execute(variantContainer);
-        tracer.put(getId(), result);
-        return result;
+        return super.execute(variantContainer);
     }
 }
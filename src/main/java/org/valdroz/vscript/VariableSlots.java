@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable layout assigning integer slot to each variable name. Variable nodes bound to a layout resolve values of
+ * {@link SlotVariantContainer} created from the same layout by slot index, without hashing variable names.
+ *
+ * @author Valerijus Drozdovas
+ */
+public final class VariableSlots {
+    private final List<String> names;
+    private final ImmutableMap<String, Integer> indexes;
+
+    private VariableSlots(Collection<String> names) {
+        this.names = ImmutableList.copyOf(names);
+        ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+        for (int i = 0; i < this.names.size(); ++i) {
+            builder.put(this.names.get(i), i);
+        }
+        this.indexes = builder.build();
+    }
+
+    /**
+     * Creates layout. Slots are assigned in iteration order of provided names.
+     *
+     * @param names distinct variable names.
+     * @return Variable slot layout.
+     */
+    public static VariableSlots of(Collection<String> names) {
+        return new VariableSlots(names);
+    }
+
+    /**
+     * @param name variable name.
+     * @return Slot index of the variable, or -1 if variable has no slot.
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return (index != null) ? index : -1;
+    }
+
+    public String nameAt(int slot) {
+        return names.get(slot);
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * @return New empty container using this layout.
+     */
+    public SlotVariantContainer newContainer() {
+        return new SlotVariantContainer(this);
+    }
+
+    /**
+     * Reads variable by slot if container uses given layout, otherwise by name.
+     */
+    static Variant read(VariantContainer container, VariableSlots slots, int slot, String name) {
+        if (slot >= 0 && container instanceof SlotVariantContainer) {
+            SlotVariantContainer slotContainer = (SlotVariantContainer) container;
+            if (slotContainer.getSlots() == slots) {
+                return slotContainer.getVariant(slot);
+            }
+        }
+        return container.getVariant(name);
+    }
+
+    /**
+     * Writes variable by slot if container uses given layout, otherwise by name.
+     */
+    static void write(VariantContainer container, VariableSlots slots, int slot, String name, Variant value) {
+        if (slot >= 0 && container instanceof SlotVariantContainer) {
+            SlotVariantContainer slotContainer = (SlotVariantContainer) container;
+            if (slotContainer.getSlots() == slots) {
+                slotContainer.setVariant(slot, value);
+                return;
+            }
+        }
+        container.setVariant(name, value);
+    }
+
+    /**
+     * Writes array item by slot if container uses given layout, otherwise by name.
+     */
+    static void write(VariantContainer container, VariableSlots slots, int slot, String name, int index,
+                      Variant value) {
+        if (slot >= 0 && container instanceof SlotVariantContainer) {
+            SlotVariantContainer slotContainer = (SlotVariantContainer) container;
+            if (slotContainer.getSlots() == slots) {
+                slotContainer.setVariant(slot, index, value);
+                return;
+            }
+        }
+        container.setVariant(name, index, value);
+    }
+
+    @Override
+    public String toString() {
+        return names.toString();
+    }
+}
@@ -17,6 +17,7 @@ package org.valdroz.vscript;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.errorprone.annotations.*;
 
 import java.math.BigDecimal;
@@ -25,6 +26,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static org.valdroz.vscript.Configuration.*;
@@ -45,8 +48,35 @@ public abstract class Variant implements Comparable<Variant> {
 
     private static final Variant NULL_VARIANT = new NullVariant();
 
+    private static final Variant TRUE_VARIANT = new BooleanVariant(true);
+    private static final Variant FALSE_VARIANT = new BooleanVariant(false);
+
+    /**
+     * Shared instances of small integers, such as comparison, `size()` and date part results.
+     */
+    private static final int SMALL_INT_MIN = -128;
+    private static final int SMALL_INT_MAX = 1024;
+    private static final Variant[] SMALL_DECIMALS = new Variant[SMALL_INT_MAX - SMALL_INT_MIN + 1];
+    private static final Variant[] SMALL_LONGS = new Variant[SMALL_INT_MAX - SMALL_INT_MIN + 1];
+
+    static {
+        for (int i = 0; i < SMALL_DECIMALS.length; ++i) {
+            SMALL_DECIMALS[i] = new NumericVariant(BigDecimal.valueOf(SMALL_INT_MIN + i));
+            SMALL_LONGS[i] = new LongVariant(SMALL_INT_MIN + i);
+        }
+    }
+
+    /**
+     * Pool of string variants for {@link #fromInternedString(String)}. Entries are dropped once variant is no
+     * longer referenced.
+     */
+    private static final ConcurrentMap<String, Variant> STRING_POOL = new MapMaker().weakValues().makeMap();
+
     private static final Variant EMPTY_STRING_VARIANT = Variant.fromString(EMPTY_STRING);
 
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
     @Deprecated
     public static void setDecimalScale(int decimalScale) {
         Configuration.setDecimalScale(decimalScale);
@@ -97,17 +127,33 @@ public abstract class Variant implements Comparable<Variant> {
     }
 
     public static Variant fromDouble(double value) {
+        if (getNumericMode() == NumericMode.FAST && !Double.isNaN(value) && !Double.isInfinite(value)) {
+            return new DoubleVariant(value);
+        }
         return new NumericVariant(BigDecimal.valueOf(value));
     }
 
     public static Variant fromInt(int value) {
-        return new NumericVariant(BigDecimal.valueOf(value));
+        return fromLong(value);
     }
 
     public static Variant fromLong(long value) {
+        if (getNumericMode() == NumericMode.FAST) {
+            return longVariant(value);
+        }
+        if (value >= SMALL_INT_MIN && value <= SMALL_INT_MAX) {
+            return SMALL_DECIMALS[(int) value - SMALL_INT_MIN];
+        }
         return new NumericVariant(BigDecimal.valueOf(value));
     }
 
+    private static Variant longVariant(long value) {
+        if (value >= SMALL_INT_MIN && value <= SMALL_INT_MAX) {
+            return SMALL_LONGS[(int) value - SMALL_INT_MIN];
+        }
+        return new LongVariant(value);
+    }
+
     public static Variant fromBigDecimal(BigDecimal value) {
         if (value != null) {
             return new NumericVariant(value);
@@ -119,12 +165,59 @@ public abstract class Variant implements Comparable<Variant> {
         return new NumericVariant(new BigDecimal(value));
     }
 
+    /**
+     * Creates numeric variant from equation literal according to configured {@link NumericMode}.
+     */
+    static Variant fromNumericLiteral(String literal) {
+        BigDecimal value = new BigDecimal(literal);
+        if (getNumericMode() == NumericMode.FAST) {
+            if (value.scale() <= 0) {
+                if (value.compareTo(LONG_MIN) >= 0 && value.compareTo(LONG_MAX) <= 0) {
+                    return fromLong(value.longValue());
+                }
+                return new NumericVariant(value);
+            }
+            return fromDouble(value.doubleValue());
+        }
+        return new NumericVariant(value);
+    }
+
     public static Variant fromString(String value) {
         return new StringVariant(value);
     }
 
+    /**
+     * Returns string variant shared with other callers passing equal text if {@link Configuration#isStringInterning()}
+     * is on, or new variant otherwise. Used for equation literals and JSON input values, which repeat a lot.
+     *
+     * @param value text.
+     * @return String variant.
+     */
+    public static Variant fromInternedString(String value) {
+        if (value == null || !isStringInterning()) {
+            return fromString(value);
+        }
+        return STRING_POOL.computeIfAbsent(value, StringVariant::new);
+    }
+
+    /**
+     * Exact representation checks for {@link OperandSpecialization} guards. Instances of the same representation share
+     * operation implementations.
+     */
+    static boolean isDecimalVariant(Variant variant) {
+        return variant != null && variant.getClass() == NumericVariant.class;
+    }
+
+    static boolean isLongVariant(Variant variant) {
+        return variant != null && variant.getClass() == LongVariant.class;
+    }
+
+    static boolean isStringVariant(Variant variant) {
+        return variant != null && variant.getClass() == StringVariant.class;
+    }
+
     public static Variant fromBoolean(boolean value) {
-        return new BooleanVariant(value);
+        return value ? TRUE_VARIANT : FALSE_VARIANT;
     }
 
     public static Variant fromArray(List<Variant> value) {
@@ -168,6 +261,20 @@ public abstract class Variant implements Comparable<Variant> {
         return nullVariant();
     }
 
+    /**
+     * @return Deep copy of array value, other values as is since they are immutable. `null` stays `null`.
+     */
+    static Variant snapshot(Variant variant) {
+        if (variant == null || !variant.isArray()) {
+            return variant;
+        }
+        List<Variant> elements = new ArrayList<>(variant.size());
+        for (Variant element : variant.asArray()) {
+            elements.add(snapshot(element));
+        }
+        return fromArray(elements);
+    }
+
     public static Variant sanitize(Variant variant) {
         if (variant == null) {
             return nullVariant();
@@ -231,7 +338,7 @@ public abstract class Variant implements Comparable<Variant> {
 
     private static class NumericVariant extends Variant {
 
-        private BigDecimal value;
+        private final BigDecimal value;
 
         NumericVariant(BigDecimal value) {
             this.value = value;
@@ -320,7 +427,7 @@ public abstract class Variant implements Comparable<Variant> {
 
         @Override
         public int hashCode() {
-            return Objects.hash(value);
+            return Objects.hash(value.stripTrailingZeros());
         }
 
         @Override
@@ -329,6 +436,281 @@ public abstract class Variant implements Comparable<Variant> {
         }
     }
 
+    /**
+     * Numeric variant backed by a primitive value, used in {@link NumericMode#FAST} mode. Operations with
+     * other primitive backed values are carried out on primitives. Anything else, including overflowing results and
+     * division by zero, is delegated to `BigDecimal` arithmetic of {@link NumericVariant}.
+     */
+    private abstract static class PrimitiveNumericVariant extends Variant {
+
+        NumericVariant decimal() {
+            return new NumericVariant(asNumeric());
+        }
+
+        @Override
+        public boolean isNumeric() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return asString();
+        }
+
+        @Override
+        public Variant pow(Variant variant) {
+            return decimal().pow(variant);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Variant)) return false;
+            Variant that = (Variant) o;
+            if (that.isNull() || that.isArray()) return false;
+            if (that instanceof PrimitiveNumericVariant) {
+                return compareTo(that) == 0;
+            }
+            return asNumeric().compareTo(Optional.ofNullable(that.asNumeric()).orElse(BigDecimal.ZERO)) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(asNumeric().stripTrailingZeros());
+        }
+
+        /**
+         * Compares long to double exactly, unlike widening long to double. Negative zero is equal to zero.
+         */
+        static int compare(long value, double other) {
+            if (other < -0x1p63) {
+                return 1;
+            }
+            if (other >= 0x1p63) {
+                return -1;
+            }
+            long integral = (long) other;
+            if (value != integral) {
+                return Long.compare(value, integral);
+            }
+            double fraction = other - integral;
+            return fraction > 0 ? -1 : (fraction < 0 ? 1 : 0);
+        }
+    }
+
+    private static final class LongVariant extends PrimitiveNumericVariant {
+        private final long value;
+
+        LongVariant(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public BigDecimal asNumeric() {
+            return BigDecimal.valueOf(value);
+        }
+
+        @Override
+        public Boolean asBoolean() {
+            return value != 0;
+        }
+
+        @Override
+        public String asString() {
+            return Long.toString(value);
+        }
+
+        @Override
+        public int compareTo(Variant o) {
+            if (o instanceof LongVariant) {
+                return Long.compare(value, ((LongVariant) o).value);
+            }
+            if (o instanceof DoubleVariant) {
+                return compare(value, ((DoubleVariant) o).value);
+            }
+            return asNumeric().compareTo(sanitize(o).asNumeric());
+        }
+
+        @Override
+        public Variant multiply(Variant variant) {
+            if (variant instanceof LongVariant) {
+                long other = ((LongVariant) variant).value;
+                long result = value * other;
+                if (other == 0 || (result / other == value && !(value == Long.MIN_VALUE && other == -1))) {
+                    return longVariant(result);
+                }
+            } else if (variant instanceof DoubleVariant) {
+                double result = value * ((DoubleVariant) variant).value;
+                if (Double.isFinite(result)) {
+                    return new DoubleVariant(result);
+                }
+            }
+            return decimal().multiply(variant);
+        }
+
+        @Override
+        public Variant add(Variant variant) {
+            if (variant instanceof LongVariant) {
+                long other = ((LongVariant) variant).value;
+                long result = value + other;
+                if (((value ^ result) & (other ^ result)) >= 0) {
+                    return longVariant(result);
+                }
+            } else if (variant instanceof DoubleVariant) {
+                double result = value + ((DoubleVariant) variant).value;
+                if (Double.isFinite(result)) {
+                    return new DoubleVariant(result);
+                }
+            }
+            return decimal().add(variant);
+        }
+
+        @Override
+        public Variant minus(Variant variant) {
+            if (variant instanceof LongVariant) {
+                long other = ((LongVariant) variant).value;
+                long result = value - other;
+                if (((value ^ other) & (value ^ result)) >= 0) {
+                    return longVariant(result);
+                }
+            } else if (variant instanceof DoubleVariant) {
+                double result = value - ((DoubleVariant) variant).value;
+                if (Double.isFinite(result)) {
+                    return new DoubleVariant(result);
+                }
+            }
+            return decimal().minus(variant);
+        }
+
+        @Override
+        public Variant divide(Variant variant) {
+            if (variant instanceof LongVariant) {
+                long other = ((LongVariant) variant).value;
+                if (other == 0) {
+                    throw new EvaluationException("Division by zero");
+                }
+                if (value % other == 0 && !(value == Long.MIN_VALUE && other == -1)) {
+                    return longVariant(value / other);
+                }
+                return new DoubleVariant((double) value / other);
+            } else if (variant instanceof DoubleVariant && ((DoubleVariant) variant).value != 0) {
+                double result = value / ((DoubleVariant) variant).value;
+                if (Double.isFinite(result)) {
+                    return new DoubleVariant(result);
+                }
+            }
+            return decimal().divide(variant);
+        }
+
+        @Override
+        public Variant mfunc(int func) {
+            return mfunc(func, (double) value);
+        }
+
+        @Override
+        public Variant negate() {
+            if (value == Long.MIN_VALUE) {
+                return decimal().negate();
+            }
+            return longVariant(-value);
+        }
+    }
+
+    private static final class DoubleVariant extends PrimitiveNumericVariant {
+        private final double value;
+
+        DoubleVariant(double value) {
+            this.value = value;
+        }
+
+        private static double primitiveValue(Variant variant) {
+            return (variant instanceof DoubleVariant) ?
+                    ((DoubleVariant) variant).value :
+                    ((LongVariant) variant).value;
+        }
+
+        @Override
+        public BigDecimal asNumeric() {
+            return BigDecimal.valueOf(value);
+        }
+
+        @Override
+        public Boolean asBoolean() {
+            return value != 0;
+        }
+
+        @Override
+        public String asString() {
+            return BigDecimal.valueOf(value).toString();
+        }
+
+        @Override
+        public int compareTo(Variant o) {
+            if (o instanceof DoubleVariant) {
+                double other = ((DoubleVariant) o).value;
+                return value < other ? -1 : (value > other ? 1 : 0);
+            }
+            if (o instanceof LongVariant) {
+                return -compare(((LongVariant) o).value, value);
+            }
+            return asNumeric().compareTo(sanitize(o).asNumeric());
+        }
+
+        @Override
+        public Variant multiply(Variant variant) {
+            if (variant instanceof PrimitiveNumericVariant) {
+                double result = value * primitiveValue(variant);
+                if (Double.isFinite(result)) {
+                    return new DoubleVariant(result);
+                }
+            }
+            return decimal().multiply(variant);
+        }
+
+        @Override
+        public Variant add(Variant variant) {
+            if (variant instanceof PrimitiveNumericVariant) {
+                double result = value + primitiveValue(variant);
+                if (Double.isFinite(result)) {
+                    return new DoubleVariant(result);
+                }
+            }
+            return decimal().add(variant);
+        }
+
+        @Override
+        public Variant minus(Variant variant) {
+            if (variant instanceof PrimitiveNumericVariant) {
+                double result = value - primitiveValue(variant);
+                if (Double.isFinite(result)) {
+                    return new DoubleVariant(result);
+                }
+            }
+            return decimal().minus(variant);
+        }
+
+        @Override
+        public Variant divide(Variant variant) {
+            if (variant instanceof PrimitiveNumericVariant && primitiveValue(variant) != 0) {
+                double result = value / primitiveValue(variant);
+                if (Double.isFinite(result)) {
+                    return new DoubleVariant(result);
+                }
+            }
+            return decimal().divide(variant);
+        }
+
+        @Override
+        public Variant mfunc(int func) {
+            return mfunc(func, value);
+        }
+
+        @Override
+        public Variant negate() {
+            return new DoubleVariant(-value);
+        }
+    }
+
     /**
      * Rounds the given value to the specified number of decimal places, following standard rounding rules.
      * Handles nulls, non-numeric, negatives, and very large numbers gracefully.
@@ -358,7 +740,14 @@ public abstract class Variant implements Comparable<Variant> {
     }
 
     private static class StringVariant extends Variant {
+        private static final Object NOT_NUMERIC = new Object();
+
         private final String value;
+        /**
+         * Parsed numeric value, {@link #NOT_NUMERIC} or `null` if text is not classified yet. Instances are
+         * immutable otherwise, so concurrent classification at worst repeats the scan.
+         */
+        private Object number;
 
         public StringVariant(String value) {
             this.value = value;
@@ -366,12 +755,75 @@ public abstract class Variant implements Comparable<Variant> {
 
         @Override
         public BigDecimal asNumeric() {
-            try {
-                return new BigDecimal(value).setScale(getDecimalScale(), getRoundingMode());
-            } catch (Exception ex) {
-                LOG.warning("Text cannot be converted to numeric value. Detail: " + ex.getMessage());
-                return null;
+            BigDecimal parsed = parsedNumber();
+            return parsed != null ? parsed.setScale(getDecimalScale(), getRoundingMode()) : null;
+        }
+
+        /**
+         * @return Text parsed as `BigDecimal`, or `null` if text is not numeric. Text with an exponent too large
+         * to rescale to the configured decimal scale is not numeric either, as it was before classification
+         * was cached.
+         */
+        private BigDecimal parsedNumber() {
+            Object parsed = number;
+            if (parsed == null) {
+                parsed = NOT_NUMERIC;
+                if (isNumericText(value)) {
+                    try {
+                        BigDecimal decimal = new BigDecimal(value);
+                        decimal.setScale(getDecimalScale(), getRoundingMode());
+                        parsed = decimal;
+                    } catch (NumberFormatException | ArithmeticException ex) {
+                        // exponent or rescaled value out of range
+                    }
+                }
+                if (parsed == NOT_NUMERIC && LOG.isLoggable(Level.FINE)) {
+                    LOG.fine("Text cannot be converted to numeric value: " + value);
+                }
+                number = parsed;
+            }
+            return parsed != NOT_NUMERIC ? (BigDecimal) parsed : null;
+        }
+
+        /**
+         * Checks text against `BigDecimal` string syntax: optional sign, digits with optional decimal point
+         * (at least one digit) and optional exponent.
+         */
+        private static boolean isNumericText(String text) {
+            int length = text.length();
+            int i = 0;
+            if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                ++i;
             }
+            int digits = 0;
+            boolean point = false;
+            for (; i < length; ++i) {
+                char c = text.charAt(i);
+                if (Character.isDigit(c)) {
+                    ++digits;
+                } else if (c == '.' && !point) {
+                    point = true;
+                } else {
+                    break;
+                }
+            }
+            if (digits == 0) {
+                return false;
+            }
+            if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+                ++i;
+                if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                    ++i;
+                }
+                int exponentDigits = 0;
+                for (; i < length && Character.isDigit(text.charAt(i)); ++i) {
+                    ++exponentDigits;
+                }
+                if (exponentDigits == 0) {
+                    return false;
+                }
+            }
+            return i == length;
         }
 
         @Override
@@ -402,10 +854,9 @@ public abstract class Variant implements Comparable<Variant> {
         @Override
         public Variant multiply(Variant variant) {
             if (variant != null && variant.isNumeric()) {
-                try {
-                    return Variant.fromBigDecimal(value).multiply(variant);
-                } catch (Exception ex) {
-                    // do nothing
+                BigDecimal parsed = parsedNumber();
+                if (parsed != null) {
+                    return Variant.fromBigDecimal(parsed).multiply(variant);
                 }
             }
             throw invalidOperator("multiply");
@@ -414,10 +865,9 @@ public abstract class Variant implements Comparable<Variant> {
         @Override
         public Variant add(Variant variant) {
             if (variant != null && variant.isNumeric()) {
-                try {
-                    return Variant.fromBigDecimal(value).add(variant);
-                } catch (Exception ex) {
-                    // do nothing
+                BigDecimal parsed = parsedNumber();
+                if (parsed != null) {
+                    return Variant.fromBigDecimal(parsed).add(variant);
                 }
             }
             return fromString(asString() + sanitize(variant).asString());
@@ -426,10 +876,9 @@ public abstract class Variant implements Comparable<Variant> {
         @Override
         public Variant minus(Variant variant) {
             if (variant != null && variant.isNumeric()) {
-                try {
-                    return Variant.fromBigDecimal(value).minus(variant);
-                } catch (Exception ex) {
-                    // do nothing
+                BigDecimal parsed = parsedNumber();
+                if (parsed != null) {
+                    return Variant.fromBigDecimal(parsed).minus(variant);
                 }
             }
             throw invalidOperator("minus");
@@ -438,10 +887,9 @@ public abstract class Variant implements Comparable<Variant> {
         @Override
         public Variant divide(Variant variant) {
             if (variant != null && variant.isNumeric()) {
-                try {
-                    return Variant.fromBigDecimal(value).divide(variant);
-                } catch (Exception ex) {
-                    // do nothing
+                BigDecimal parsed = parsedNumber();
+                if (parsed != null) {
+                    return Variant.fromBigDecimal(parsed).divide(variant);
                 }
             }
             throw invalidOperator("divide");
@@ -449,21 +897,24 @@ public abstract class Variant implements Comparable<Variant> {
 
         @Override
         public Variant mfunc(int func) {
+            BigDecimal parsed = parsedNumber();
             try {
-                return mfunc(func, new BigDecimal(value).doubleValue());
-            } catch (Exception ex) {
-                throw new EvaluationException("Invalid argument " + this + " for function " + functionNameFromCode(func));
+                if (parsed != null) {
+                    return mfunc(func, parsed.doubleValue());
+                }
+            } catch (NumberFormatException ex) {
+                // result is not a number
             }
+            throw new EvaluationException("Invalid argument " + this + " for function " + functionNameFromCode(func));
         }
 
 
         @Override
         public Variant pow(Variant variant) {
             if (variant != null && variant.isNumeric()) {
-                try {
-                    return Variant.fromBigDecimal(value).pow(variant);
-                } catch (Exception ex) {
-                    // do nothing
+                BigDecimal parsed = parsedNumber();
+                if (parsed != null) {
+                    return Variant.fromBigDecimal(parsed).pow(variant);
                 }
             }
             throw invalidOperator("pow");
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.json;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.gson.JsonObject;
+import org.valdroz.vscript.CompiledExpression;
+import org.valdroz.vscript.Variant;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates compiled expression against all permutations of {@link DataSetIndex} in parallel.
+ * <p>
+ * Permutation range is split recursively across {@link ForkJoinPool} workers. Results are always returned in
+ * permutation order. Data set containers are read only, thus assignments made by the expression are not visible
+ * across permutations.
+ *
+ * <pre>
+ *     DataSetEvaluator evaluator = new DataSetEvaluator(CompiledExpression.compile("order.total > 100"));
+ *     int[] matches = evaluator.matchingPermutations(DataSetIndex.index(json));
+ * </pre>
+ *
+ * @author Valerijus Drozdovas
+ */
+public final class DataSetEvaluator {
+
+    private static final int DEFAULT_SEQUENTIAL_THRESHOLD = 64;
+
+    private final CompiledExpression expression;
+    private final ForkJoinPool pool;
+    private int sequentialThreshold = DEFAULT_SEQUENTIAL_THRESHOLD;
+
+    /**
+     * Creates evaluator running on common fork-join pool.
+     *
+     * @param expression compiled expression.
+     */
+    public DataSetEvaluator(CompiledExpression expression) {
+        this(expression, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param expression compiled expression.
+     * @param pool       fork-join pool to run evaluation on.
+     */
+    public DataSetEvaluator(CompiledExpression expression, ForkJoinPool pool) {
+        this.expression = expression;
+        this.pool = pool;
+    }
+
+    /**
+     * @param sequentialThreshold number of permutations below which range is evaluated by a single task.
+     * @return this evaluator.
+     */
+    public DataSetEvaluator withSequentialThreshold(int sequentialThreshold) {
+        this.sequentialThreshold = Math.max(1, sequentialThreshold);
+        return this;
+    }
+
+    /**
+     * Evaluates expression against every permutation.
+     *
+     * @param index data set index.
+     * @return Results in permutation order.
+     */
+    public Variant[] evaluate(DataSetIndex index) {
+        Variant[] results = new Variant[index.numberOfPermutations()];
+        pool.invoke(new EvaluationTask(index, results, 0, results.length));
+        return results;
+    }
+
+    /**
+     * Evaluates expression against every permutation and collects permutations yielding `true`.
+     *
+     * @param index data set index.
+     * @return Ascending indexes of matching permutations.
+     */
+    public int[] matchingPermutations(DataSetIndex index) {
+        Variant[] results = evaluate(index);
+        int count = 0;
+        int[] matches = new int[results.length];
+        for (int i = 0; i < results.length; ++i) {
+            if (results[i].asBoolean()) {
+                matches[count++] = i;
+            }
+        }
+        int[] trimmed = new int[count];
+        System.arraycopy(matches, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    /**
+     * Evaluates permutations in order until one yields `true`.
+     * <p>
+     * Evaluation is done once if none of the variables referenced by expression has permutations. Permutations having
+     * the same values of all referenced variables as an already evaluated one are skipped, regardless of where these
+     * variables are in permutation order. Pruning is disabled if expression references custom functions, since they
+     * can read any variable.
+     *
+     * @param index data set index.
+     * @return `true` if any permutation matches.
+     */
+    public boolean anyMatch(DataSetIndex index) {
+        return findFirst(index, true) >= 0;
+    }
+
+    /**
+     * Evaluates permutations in order until one yields `false`. Prunes permutations as {@link #anyMatch(DataSetIndex)}.
+     *
+     * @param index data set index.
+     * @return `true` if all permutations match.
+     */
+    public boolean allMatch(DataSetIndex index) {
+        return findFirst(index, false) < 0;
+    }
+
+    /**
+     * Evaluates permutations in order until one yields `true`. Prunes permutations as {@link #anyMatch(DataSetIndex)}.
+     *
+     * @param index data set index.
+     * @return Index of first matching permutation, or -1 if none matches.
+     */
+    public int firstMatch(DataSetIndex index) {
+        return findFirst(index, true);
+    }
+
+    /**
+     * Evaluates JSON data sets, assembled lazily in {@link JsonDataSetMaker#getDataSets()} order, until one yields
+     * `true`. Nested object arrays with no variables referenced by expression contribute only their first element.
+     * Pruning is disabled if expression references custom functions.
+     *
+     * @param jo    JSON object.
+     * @param modes data set maker modes.
+     * @return `true` if any data set matches.
+     */
+    public boolean anyMatch(JsonObject jo, JsonDataSetMaker.Mode... modes) {
+        return findFirst(jo, true, modes).isPresent();
+    }
+
+    /**
+     * Evaluates JSON data sets until one yields `false`. Prunes as {@link #anyMatch(JsonObject, JsonDataSetMaker.Mode...)}.
+     *
+     * @param jo    JSON object.
+     * @param modes data set maker modes.
+     * @return `true` if all data sets match.
+     */
+    public boolean allMatch(JsonObject jo, JsonDataSetMaker.Mode... modes) {
+        return !findFirst(jo, false, modes).isPresent();
+    }
+
+    /**
+     * Evaluates JSON data sets until one yields `true`. Prunes as {@link #anyMatch(JsonObject, JsonDataSetMaker.Mode...)}.
+     *
+     * @param jo    JSON object.
+     * @param modes data set maker modes.
+     * @return First matching data set in {@link JsonDataSetMaker#getDataSets()} order.
+     */
+    public Optional<JsonObject> firstMatch(JsonObject jo, JsonDataSetMaker.Mode... modes) {
+        return findFirst(jo, true, modes);
+    }
+
+    private int findFirst(DataSetIndex index, boolean expected) {
+        List<String> names = prunable() ? Lists.newArrayList(expression.getStats().referencedVariables()) : null;
+        if (names != null && names.stream().noneMatch(index::hasPermutations)) {
+            return (expression.eval(index.getAsVariantContainer(0)).asBoolean() == expected) ? 0 : -1;
+        }
+        Set<List<Object>> evaluated = (names != null) ? Sets.newHashSet() : null;
+        for (int i = 0; i < index.numberOfPermutations(); ++i) {
+            if (evaluated != null && !evaluated.add(referencedValues(index, names, i))) {
+                continue;
+            }
+            if (expression.eval(index.getAsVariantContainer(i)).asBoolean() == expected) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Optional<JsonObject> findFirst(JsonObject jo, boolean expected, JsonDataSetMaker.Mode... modes) {
+        Collection<String> names = expression.getStats().referencedVariables();
+        Predicate<String> referencedPath = prunable() ?
+                path -> names.stream().anyMatch(name -> name.equals(path) || name.startsWith(path + ".")) :
+                path -> true;
+        for (JsonObject dataSet : new JsonDataSetMaker(jo, modes).getLazyDataSets(referencedPath)) {
+            if (expression.eval(new JsonVariantContainer(dataSet)).asBoolean() == expected) {
+                return Optional.of(dataSet);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean prunable() {
+        return expression.getStats().referencedExtFunctions().isEmpty();
+    }
+
+    /**
+     * @return Values of referenced variables in permutation, compared by type, value and scale.
+     */
+    private static List<Object> referencedValues(DataSetIndex index, List<String> names, int permutation) {
+        List<Object> values = new ArrayList<>(names.size());
+        for (String name : names) {
+            Variant value = index.getValue(name, permutation);
+            if (value == null || value.isNull()) {
+                values.add(null);
+            } else if (value.isString()) {
+                values.add(value.asString());
+            } else if (value.isBoolean()) {
+                values.add(value.asBoolean());
+            } else if (value.isNumeric()) {
+                values.add(value.asNumeric());
+            } else {
+                values.add(value.toString());
+            }
+        }
+        return values;
+    }
+
+    private final class EvaluationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final DataSetIndex index;
+        private final Variant[] results;
+        private final int from;
+        private final int to;
+
+        EvaluationTask(DataSetIndex index, Variant[] results, int from, int to) {
+            this.index = index;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= sequentialThreshold) {
+                for (int i = from; i < to; ++i) {
+                    results[i] = expression.eval(index.getAsVariantContainer(i));
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new EvaluationTask(index, results, from, middle),
+                        new EvaluationTask(index, results, middle, to));
+            }
+        }
+    }
+}
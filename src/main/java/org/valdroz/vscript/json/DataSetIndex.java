@@ -17,14 +17,31 @@ package org.valdroz.vscript.json;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.gson.*;
-import org.apache.commons.lang3.StringUtils;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 import org.valdroz.vscript.Variant;
 import org.valdroz.vscript.VariantContainer;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
 
 /**
  * @author Valerijus Drozdovas
@@ -32,13 +49,30 @@ import java.util.Map;
  */
 public final class DataSetIndex {
 
+    public enum Mode {
+        /**
+         * Store permutation values column-wise in primitive arrays: numbers as scaled longs, strings dictionary
+         * encoded, booleans as bit sets. Variants are materialized when read. Columns mixing value types, arrays or
+         * numbers not fitting scaled long are kept as plain variants.
+         */
+        COLUMNAR
+    }
+
     private final Map<String, VariantValue> valueMap = Maps.newHashMap();
     private final List<List<DataSetIndex>> subIndexes = Lists.newArrayList();
     private final Map<String, JsonElements> jsonElementMap = Maps.newHashMap();
 
+    private final boolean columnar;
+
     private int size = 1;
 
-    private DataSetIndex() {
+    /**
+     * Sorted value paths for prefix queries, built on first use. Index is not modified once built.
+     */
+    private volatile NavigableSet<String> sortedNames;
+
+    private DataSetIndex(boolean columnar) {
+        this.columnar = columnar;
     }
 
     /**
@@ -48,12 +82,161 @@ public final class DataSetIndex {
      * @return DataSetIndex instance
      */
     public static DataSetIndex index(JsonObject jo) {
-        DataSetIndex index = new DataSetIndex();
-        populateIndex(index, "", jo);
+        return index(jo, new Mode[0]);
+    }
+
+    /**
+     * Flattens JSON into indexed data set.
+     *
+     * @param jo    JsonObject
+     * @param modes indexing modes
+     * @return DataSetIndex instance
+     */
+    public static DataSetIndex index(JsonObject jo, Mode... modes) {
+        return index(jo, null, modes);
+    }
+
+    /**
+     * Flattens only paths read by an expression into indexed data set. Arrays and objects not on a path to any of
+     * referenced variables are skipped, so unreferenced nested object arrays do not add permutations. A referenced
+     * path keeps its whole subtree.
+     *
+     * <pre>
+     *     EquationEval eval = new EquationEval("order.total > 100");
+     *     DataSetIndex dsi = DataSetIndex.index(jo, eval.getStats().referencedVariables());
+     * </pre>
+     *
+     * @param jo                  JsonObject
+     * @param referencedVariables variable path names to index. If `null`, all paths are indexed.
+     * @param modes               indexing modes
+     * @return DataSetIndex instance
+     */
+    public static DataSetIndex index(JsonObject jo, Collection<String> referencedVariables, Mode... modes) {
+        DataSetIndex index = new DataSetIndex(isColumnar(modes));
+        populateIndex(index, "", jo, (referencedVariables != null) ? new ReferencedPaths(referencedVariables) : null);
+        index.consolidate();
+        return index;
+    }
+
+    /**
+     * Flattens JSON read from character stream directly into indexed data set, without building JSON tree.
+     *
+     * @param reader JSON object source
+     * @param modes  indexing modes
+     * @return DataSetIndex instance
+     * @throws JsonSyntaxException if source is not a valid JSON object
+     * @throws JsonIOException     if source cannot be read
+     * @see #index(Reader, Collection, Mode...)
+     */
+    public static DataSetIndex index(Reader reader, Mode... modes) {
+        return index(reader, null, modes);
+    }
+
+    /**
+     * Flattens UTF-8 encoded JSON read from byte stream directly into indexed data set, without building JSON tree.
+     *
+     * @param inputStream JSON object source
+     * @param modes       indexing modes
+     * @return DataSetIndex instance
+     * @throws JsonSyntaxException if source is not a valid JSON object
+     * @throws JsonIOException     if source cannot be read
+     * @see #index(Reader, Collection, Mode...)
+     */
+    public static DataSetIndex index(InputStream inputStream, Mode... modes) {
+        return index(new InputStreamReader(inputStream, StandardCharsets.UTF_8), null, modes);
+    }
+
+    /**
+     * Flattens JSON read from character stream directly into indexed data set, without building JSON tree. Values
+     * not on a path to referenced variables are skipped by tokenizer. Reader is not closed.
+     * <p>
+     * Nested object arrays are not retained as JSON elements, so {@link #getJsonElement(String, int)} returns
+     * object reconstructed from indexed values of the permutation rather than original array.
+     *
+     * @param reader              JSON object source
+     * @param referencedVariables variable path names to index. If `null`, all paths are indexed.
+     * @param modes               indexing modes
+     * @return DataSetIndex instance
+     * @throws JsonSyntaxException if source is not a single valid JSON object (strict syntax, nothing but whitespace
+     *                             after it)
+     * @throws JsonIOException     if source cannot be read
+     */
+    public static DataSetIndex index(Reader reader, Collection<String> referencedVariables, Mode... modes) {
+        DataSetIndex index = new DataSetIndex(isColumnar(modes));
+        JsonReader jsonReader = new JsonReader(reader);
+        try {
+            if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JsonSyntaxException("Expected JSON object but was " + jsonReader.peek());
+            }
+            populateIndex(index, "", jsonReader,
+                    (referencedVariables != null) ? new ReferencedPaths(referencedVariables) : null);
+            if (jsonReader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Expected end of JSON document but was " + jsonReader.peek());
+            }
+        } catch (MalformedJsonException | EOFException e) {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
         index.consolidate();
         return index;
     }
 
+    private static boolean isColumnar(Mode... modes) {
+        boolean columnar = false;
+        for (Mode mode : modes) {
+            switch (mode) {
+                case COLUMNAR:
+                    columnar = true;
+                    break;
+            }
+        }
+        return columnar;
+    }
+
+    /**
+     * Opens index snapshot written by {@link #save(Path)}. File is memory-mapped read-only, only path directory is
+     * read up front and values are decoded from mapped pages when accessed, so opening is independent of data size
+     * and pages are shared by processes mapping the same file. File must not be modified while index is in use.
+     *
+     * @param path snapshot file
+     * @return DataSetIndex instance
+     * @throws IOException if file cannot be read or is not a data set index snapshot
+     */
+    public static DataSetIndex load(Path path) throws IOException {
+        return DataSetIndexSnapshot.load(path);
+    }
+
+    /**
+     * Writes compact binary snapshot of this index: paths, number of permutations, permutation values and JSON
+     * elements of object arrays. Equal values within a path are stored once. Snapshot is written to a temporary file
+     * and moved over the target, so indexes already loaded from the target are not affected.
+     *
+     * @param path snapshot file, replaced if exists
+     * @throws IOException if file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        DataSetIndexSnapshot.save(this, path);
+    }
+
+    static DataSetIndex restore(int size, Map<String, VariantValue> values, Map<String, JsonElements> jsonElements) {
+        DataSetIndex index = new DataSetIndex(false);
+        index.size = size;
+        index.valueMap.putAll(values);
+        index.jsonElementMap.putAll(jsonElements);
+        return index;
+    }
+
+    Map<String, VariantValue> values() {
+        return Collections.unmodifiableMap(valueMap);
+    }
+
+    Map<String, JsonElements> jsonElements() {
+        return Collections.unmodifiableMap(jsonElementMap);
+    }
+
     /**
      * @return Number of data permutations
      */
@@ -97,10 +280,9 @@ public final class DataSetIndex {
             return v.get(permutationIndex);
         }
         JsonObject jo = new JsonObject();
-        String pref = name + ".";
-        valueMap.keySet().stream()
-                .filter(s -> s.startsWith(pref))
-                .forEach(s -> JsonUtils.set(jo, s.substring(pref.length()), getValue(s, permutationIndex)));
+        int prefLength = name.length() + 1;
+        PathDictionary.nestedPaths(sortedNames(), name)
+                .forEach(s -> JsonUtils.set(jo, s.substring(prefLength), getValue(s, permutationIndex)));
 
         return jo;
     }
@@ -131,7 +313,7 @@ public final class DataSetIndex {
     private void consolidate() {
         List<DataSetIndex> permutations = Lists.newArrayList();
         if (!subIndexes.isEmpty()) {
-            generatePermutations(subIndexes, permutations, 0, new DataSetIndex());
+            generatePermutations(subIndexes, permutations, 0, new DataSetIndex(columnar));
         }
         int level = 0;
         for (DataSetIndex dsi : permutations) {
@@ -157,7 +339,7 @@ public final class DataSetIndex {
             return;
         }
         for (int i = 0; i < allIndex.get(depth).size(); i++) {
-            DataSetIndex ndsi = new DataSetIndex();
+            DataSetIndex ndsi = new DataSetIndex(columnar);
             ndsi.jsonElementMap.putAll(dsi.jsonElementMap);
             ndsi.valueMap.putAll(dsi.valueMap);
             DataSetIndex dsi2 = allIndex.get(depth).get(i);
@@ -168,14 +350,20 @@ public final class DataSetIndex {
         }
     }
 
-    private static void populateIndex(DataSetIndex dsi, String key, JsonElement je) {
+    private static void populateIndex(DataSetIndex dsi, String key, JsonElement je, ReferencedPaths paths) {
         if (je.isJsonPrimitive()) {
             setIndexValue(dsi, key, variantFromPrimitive(je.getAsJsonPrimitive()));
         } else if (je.isJsonObject()) {
             JsonObject jo = je.getAsJsonObject();
             jo.entrySet().forEach(entry -> {
                 String newKey = newKey(key, entry.getKey());
-                populateIndex(dsi, newKey, entry.getValue());
+                if (paths == null) {
+                    populateIndex(dsi, newKey, entry.getValue(), null);
+                } else if (paths.isReferenced(newKey)) {
+                    populateIndex(dsi, newKey, entry.getValue(), null);
+                } else if (paths.isOnPath(newKey)) {
+                    populateIndex(dsi, newKey, entry.getValue(), paths);
+                }
             });
         } else if (je.isJsonArray()) {
             JsonArray ja = je.getAsJsonArray();
@@ -186,26 +374,87 @@ public final class DataSetIndex {
                 if (item.isJsonPrimitive()) {
                     variants.add(variantFromPrimitive(item.getAsJsonPrimitive()));
                 } else if (item.isJsonObject()) {
-                    DataSetIndex ndsi = new DataSetIndex();
-                    populateIndex(ndsi, key, item.getAsJsonObject());
+                    DataSetIndex ndsi = new DataSetIndex(dsi.columnar);
+                    populateIndex(ndsi, key, item.getAsJsonObject(), paths);
                     indices.add(ndsi);
                     ndsi.consolidate();
                 }
             }
-            if (!variants.isEmpty()) {
-                setIndexValue(dsi, key, Variant.fromArray(variants));
-            }
-            if (!indices.isEmpty()) {
-                dsi.subIndexes.add(indices);
+            addArray(dsi, key, variants, indices, paths, ja);
+        }
+    }
+
+    private static void populateIndex(DataSetIndex dsi, String key, JsonReader reader, ReferencedPaths paths)
+            throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String newKey = newKey(key, reader.nextName());
+                    if (paths == null) {
+                        populateIndex(dsi, newKey, reader, null);
+                    } else if (paths.isReferenced(newKey)) {
+                        populateIndex(dsi, newKey, reader, null);
+                    } else if (paths.isOnPath(newKey)) {
+                        populateIndex(dsi, newKey, reader, paths);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                List<DataSetIndex> indices = Lists.newArrayList();
+                List<Variant> variants = Lists.newLinkedList();
+                while (reader.hasNext()) {
+                    JsonToken token = reader.peek();
+                    if (token == JsonToken.BEGIN_OBJECT) {
+                        DataSetIndex ndsi = new DataSetIndex(dsi.columnar);
+                        populateIndex(ndsi, key, reader, paths);
+                        indices.add(ndsi);
+                        ndsi.consolidate();
+                    } else if (token == JsonToken.BEGIN_ARRAY || token == JsonToken.NULL) {
+                        reader.skipValue();
+                    } else {
+                        variants.add(nextPrimitive(reader));
+                    }
+                }
+                reader.endArray();
+                addArray(dsi, key, variants, indices, paths, null);
+                break;
+            case NULL:
+                reader.nextNull();
+                break;
+            default:
+                setIndexValue(dsi, key, nextPrimitive(reader));
+        }
+    }
+
+    private static void addArray(DataSetIndex dsi, String key, List<Variant> variants, List<DataSetIndex> indices,
+                                 ReferencedPaths paths, JsonArray ja) {
+        if (!variants.isEmpty()) {
+            setIndexValue(dsi, key, Variant.fromArray(variants));
+        }
+        if (paths != null && indices.stream().allMatch(DataSetIndex::isEmpty)) {
+            indices.clear();
+        }
+        if (!indices.isEmpty()) {
+            dsi.subIndexes.add(indices);
+            if (ja != null) {
                 setIndexJsonValue(dsi, key, 0, ja);
             }
         }
     }
 
+    private boolean isEmpty() {
+        return valueMap.isEmpty() && jsonElementMap.isEmpty();
+    }
+
     private static void setIndexValue(DataSetIndex dsi, String key, int index, Variant variant) {
         VariantValue variantValue = dsi.valueMap.get(key);
         if (variantValue == null) {
-            variantValue = new IndexedVariantValue();
+            variantValue = dsi.columnar ? new ColumnarVariantValue() : new IndexedVariantValue();
             dsi.valueMap.put(key, variantValue);
         }
         variantValue.setValue(index, variant);
@@ -232,13 +481,27 @@ public final class DataSetIndex {
         elements.set(index, je);
     }
 
+    private static Variant nextPrimitive(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+                return Variant.fromInternedString(reader.nextString());
+            case NUMBER:
+                return Variant.fromBigDecimal(new BigDecimal(reader.nextString()));
+            case BOOLEAN:
+                return Variant.fromBoolean(reader.nextBoolean());
+            default:
+                reader.skipValue();
+                return Variant.nullVariant();
+        }
+    }
+
     private static Variant variantFromPrimitive(JsonPrimitive jp) {
         if (jp == null) {
             return Variant.nullVariant();
         }
 
         if (jp.isString()) {
-            return Variant.fromString(jp.getAsString());
+            return Variant.fromInternedString(jp.getAsString());
         }
 
         if (jp.isNumber()) {
@@ -254,13 +517,47 @@ public final class DataSetIndex {
 
 
     private static String newKey(String pref, String key) {
-        if (StringUtils.isBlank(pref)) {
-            return key;
+        return PathDictionary.childPath(pref, key);
+    }
+
+    private NavigableSet<String> sortedNames() {
+        NavigableSet<String> names = sortedNames;
+        if (names == null) {
+            names = PathDictionary.sorted(valueMap.keySet());
+            sortedNames = names;
         }
-        return pref + "." + key;
+        return names;
     }
 
-    private static class JsonElements {
+    private static final class ReferencedPaths {
+        private final Set<String> variables = Sets.newHashSet();
+        private final Set<String> prefixes = Sets.newHashSet();
+
+        ReferencedPaths(Collection<String> referencedVariables) {
+            for (String name : referencedVariables) {
+                variables.add(name);
+                for (int dot = name.indexOf('.'); dot > 0; dot = name.indexOf('.', dot + 1)) {
+                    prefixes.add(name.substring(0, dot));
+                }
+            }
+        }
+
+        /**
+         * @return `true` if path is referenced itself, so its whole subtree is needed.
+         */
+        boolean isReferenced(String path) {
+            return variables.contains(path);
+        }
+
+        /**
+         * @return `true` if path is a parent of a referenced path.
+         */
+        boolean isOnPath(String path) {
+            return prefixes.contains(path);
+        }
+    }
+
+    static class JsonElements {
         private final ArrayList<JsonElement> elements = new ArrayList<>();
 
         void set(int index, JsonElement value) {
@@ -293,12 +590,19 @@ public final class DataSetIndex {
 
     }
 
-    private interface VariantValue {
+    interface VariantValue {
         void setValue(int index, Variant value);
 
         Variant getValue(int index);
 
         int size();
+
+        /**
+         * @return `true` if single value is shared by all permutations.
+         */
+        default boolean isConstant() {
+            return false;
+        }
     }
 
     private static class BaseVariantValue implements VariantValue {
@@ -318,6 +622,11 @@ public final class DataSetIndex {
         public int size() {
             return 1;
         }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
     }
 
     private static class IndexedVariantValue implements VariantValue {
@@ -346,6 +655,171 @@ public final class DataSetIndex {
 
     }
 
+    /**
+     * Column of permutation values stored in primitive arrays. Column type is determined by the first non-null value.
+     * Once a value of another type is stored, column is converted to plain variant storage.
+     */
+    private static class ColumnarVariantValue implements VariantValue {
+        private static final int EMPTY = 0;
+        private static final int NUMERIC = 1;
+        private static final int STRING = 2;
+        private static final int BOOLEAN = 3;
+        private static final int GENERIC = 4;
+
+        private int type = EMPTY;
+        private int size = 0;
+        private final BitSet present = new BitSet();
+
+        private long[] unscaledValues;
+        private byte[] scales;
+
+        private int[] codes;
+        private List<Variant> dictionary;
+        private Map<String, Integer> dictionaryIndex;
+
+        private BitSet booleans;
+
+        private Variant[] variants;
+
+        @Override
+        public void setValue(int index, Variant value) {
+            size = Math.max(size, index + 1);
+            if (value == null || value.isNull()) {
+                present.clear(index);
+                if (type == GENERIC && index < variants.length) {
+                    variants[index] = null;
+                }
+                return;
+            }
+            int valueType = typeOf(value);
+            if (type == EMPTY) {
+                initialize(valueType);
+            } else if (type != valueType && type != GENERIC) {
+                convertToGeneric();
+            }
+            store(index, value);
+            present.set(index);
+        }
+
+        @Override
+        public Variant getValue(int index) {
+            if (index < 0 || index >= size || !present.get(index)) {
+                return Variant.nullVariant();
+            }
+            switch (type) {
+                case NUMERIC:
+                    return Variant.fromBigDecimal(BigDecimal.valueOf(unscaledValues[index], scales[index]));
+                case STRING:
+                    return dictionary.get(codes[index]);
+                case BOOLEAN:
+                    return Variant.fromBoolean(booleans.get(index));
+                case GENERIC:
+                    return Variant.sanitize(variants[index]);
+                default:
+                    return Variant.nullVariant();
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private static int typeOf(Variant value) {
+            if (value.isNumeric()) {
+                BigDecimal decimal = value.asNumeric();
+                if (decimal.unscaledValue().bitLength() < Long.SIZE &&
+                        decimal.scale() >= Byte.MIN_VALUE && decimal.scale() <= Byte.MAX_VALUE) {
+                    return NUMERIC;
+                }
+            } else if (value.isString()) {
+                return STRING;
+            } else if (value.isBoolean()) {
+                return BOOLEAN;
+            }
+            return GENERIC;
+        }
+
+        private void initialize(int valueType) {
+            type = valueType;
+            switch (type) {
+                case NUMERIC:
+                    unscaledValues = new long[size];
+                    scales = new byte[size];
+                    break;
+                case STRING:
+                    codes = new int[size];
+                    dictionary = new ArrayList<>();
+                    dictionaryIndex = Maps.newHashMap();
+                    break;
+                case BOOLEAN:
+                    booleans = new BitSet();
+                    break;
+                default:
+                    variants = new Variant[size];
+                    break;
+            }
+        }
+
+        private void store(int index, Variant value) {
+            switch (type) {
+                case NUMERIC: {
+                    if (index >= unscaledValues.length) {
+                        int capacity = newCapacity(unscaledValues.length, index);
+                        unscaledValues = Arrays.copyOf(unscaledValues, capacity);
+                        scales = Arrays.copyOf(scales, capacity);
+                    }
+                    BigDecimal decimal = value.asNumeric();
+                    unscaledValues[index] = decimal.unscaledValue().longValue();
+                    scales[index] = (byte) decimal.scale();
+                }
+                break;
+                case STRING: {
+                    if (index >= codes.length) {
+                        codes = Arrays.copyOf(codes, newCapacity(codes.length, index));
+                    }
+                    String text = value.asString();
+                    Integer code = dictionaryIndex.get(text);
+                    if (code == null) {
+                        code = dictionary.size();
+                        dictionary.add(value);
+                        dictionaryIndex.put(text, code);
+                    }
+                    codes[index] = code;
+                }
+                break;
+                case BOOLEAN:
+                    booleans.set(index, value.asBoolean());
+                    break;
+                default:
+                    if (index >= variants.length) {
+                        variants = Arrays.copyOf(variants, newCapacity(variants.length, index));
+                    }
+                    variants[index] = value;
+                    break;
+            }
+        }
+
+        private void convertToGeneric() {
+            Variant[] converted = new Variant[size];
+            for (int i = 0; i < size; ++i) {
+                converted[i] = present.get(i) ? getValue(i) : null;
+            }
+            unscaledValues = null;
+            scales = null;
+            codes = null;
+            dictionary = null;
+            dictionaryIndex = null;
+            booleans = null;
+            variants = converted;
+            type = GENERIC;
+        }
+
+        private static int newCapacity(int current, int index) {
+            return Math.max(index + 1, current + (current >> 1) + 1);
+        }
+    }
+
     private static class DataSetVariantContainer implements VariantContainer {
         private final DataSetIndex dataSetIndex;
         private final int permutationIndex;
@@ -0,0 +1,414 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.json;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.CountingOutputStream;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+import org.valdroz.vscript.Variant;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary snapshot of consolidated {@link DataSetIndex}.
+ * <p>
+ * Layout (big-endian): magic, version, number of permutations, columns, directory, directory offset. Directory lists
+ * value paths and object array paths with absolute offsets of their columns and flags (constant value column). Column is an entry count followed by
+ * absolute entry offsets (-1 for null) and entries; equal entries of a column share one offset. Value entries are
+ * tagged variants, JSON entries are length prefixed UTF-8 JSON text.
+ *
+ * @author Valerijus Drozdovas
+ */
+final class DataSetIndexSnapshot {
+
+    private static final int MAGIC = 0x56534449;
+    private static final int VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte NUMERIC = 1;
+    private static final byte STRING = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte ARRAY = 4;
+
+    private static final int NO_ENTRY = -1;
+
+    private static final byte CONSTANT = 1;
+
+    private DataSetIndexSnapshot() {
+    }
+
+    /**
+     * Writes snapshot to a temporary file next to the target and moves it over the target, so indexes mapped from
+     * the previous file keep reading the previous contents.
+     *
+     * @param index index to save.
+     * @param path snapshot file, replaced if exists.
+     * @throws IOException if snapshot cannot be written.
+     */
+    static void save(DataSetIndex index, Path path) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path tmp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            write(index, tmp);
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void write(DataSetIndex index, Path path) throws IOException {
+        try (OutputStream os = Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             SnapshotOutput out = new SnapshotOutput(new CountingOutputStream(new BufferedOutputStream(os)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(index.numberOfPermutations());
+
+            Map<String, Integer> valueColumns = Maps.newLinkedHashMap();
+            Map<String, Byte> valueFlags = Maps.newHashMap();
+            for (Map.Entry<String, DataSetIndex.VariantValue> entry : index.values().entrySet()) {
+                DataSetIndex.VariantValue value = entry.getValue();
+                List<byte[]> entries = Lists.newArrayListWithCapacity(value.size());
+                for (int i = 0; i < value.size(); ++i) {
+                    Variant variant = value.getValue(i);
+                    entries.add((variant == null || variant.isNull()) ? null : encode(variant));
+                }
+                valueColumns.put(entry.getKey(), out.writeColumn(entries));
+                valueFlags.put(entry.getKey(), value.isConstant() ? CONSTANT : 0);
+            }
+
+            Map<String, Integer> jsonColumns = Maps.newLinkedHashMap();
+            for (Map.Entry<String, DataSetIndex.JsonElements> entry : index.jsonElements().entrySet()) {
+                DataSetIndex.JsonElements elements = entry.getValue();
+                List<byte[]> entries = Lists.newArrayListWithCapacity(elements.size());
+                for (int i = 0; i < elements.size(); ++i) {
+                    JsonElement element = elements.get(i);
+                    entries.add(element.isJsonNull() ? null : encode(element.toString()));
+                }
+                jsonColumns.put(entry.getKey(), out.writeColumn(entries));
+            }
+
+            int directoryOffset = offset(out.position());
+            out.writeDirectory(valueColumns, valueFlags);
+            out.writeDirectory(jsonColumns, Maps.newHashMap());
+            out.writeInt(directoryOffset);
+            offset(out.position());
+        }
+    }
+
+    /**
+     * Snapshot offsets are stored as `int`, so snapshot, which is mapped as a single buffer, cannot exceed 2GB.
+     *
+     * @param position absolute position in snapshot.
+     * @return position as snapshot offset.
+     * @throws IOException if position is beyond the range of snapshot offsets.
+     */
+    static int offset(long position) throws IOException {
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("Data set index snapshot is too large: offset " + position + " exceeds "
+                    + Integer.MAX_VALUE);
+        }
+        return (int) position;
+    }
+
+    static DataSetIndex load(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Data set index snapshot is too large: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.capacity() < 16 || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a data set index snapshot: " + path);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported data set index snapshot version " + buffer.getInt(4) + ": " + path);
+            }
+            int size = buffer.getInt(8);
+
+            ByteBuffer directory = buffer.duplicate();
+            directory.position(buffer.getInt(buffer.capacity() - 4));
+
+            Map<String, DataSetIndex.VariantValue> values = Maps.newHashMap();
+            for (int i = directory.getInt(); i > 0; --i) {
+                String name = PathDictionary.intern(readString(directory));
+                int offset = directory.getInt();
+                values.put(name, new MappedVariantValue(buffer, offset, (directory.get() & CONSTANT) != 0));
+            }
+            Map<String, DataSetIndex.JsonElements> jsonElements = Maps.newHashMap();
+            for (int i = directory.getInt(); i > 0; --i) {
+                String name = PathDictionary.intern(readString(directory));
+                int offset = directory.getInt();
+                directory.get();
+                jsonElements.put(name, new MappedJsonElements(buffer, offset));
+            }
+            return DataSetIndex.restore(size, values, jsonElements);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupted data set index snapshot: " + path, e);
+        }
+    }
+
+    private static byte[] encode(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).array();
+    }
+
+    private static byte[] encode(Variant variant) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        encode(variant, out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void encode(Variant variant, DataOutputStream out) throws IOException {
+        if (variant == null || variant.isNull()) {
+            out.writeByte(NULL);
+        } else if (variant.isArray()) {
+            List<Variant> items = variant.asArray();
+            out.writeByte(ARRAY);
+            out.writeInt(items.size());
+            for (Variant item : items) {
+                encode(item, out);
+            }
+        } else if (variant.isNumeric()) {
+            BigDecimal decimal = variant.asNumeric();
+            byte[] unscaled = decimal.unscaledValue().toByteArray();
+            out.writeByte(NUMERIC);
+            out.writeInt(decimal.scale());
+            out.writeInt(unscaled.length);
+            out.write(unscaled);
+        } else if (variant.isString()) {
+            byte[] text = variant.asString().getBytes(StandardCharsets.UTF_8);
+            out.writeByte(STRING);
+            out.writeInt(text.length);
+            out.write(text);
+        } else if (variant.isBoolean()) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(variant.asBoolean());
+        } else {
+            throw new IllegalArgumentException("Unsupported variant type: " + variant.getClass().getSimpleName());
+        }
+    }
+
+    private static Variant decode(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return Variant.nullVariant();
+            case NUMERIC: {
+                int scale = in.getInt();
+                byte[] unscaled = new byte[in.getInt()];
+                in.get(unscaled);
+                return Variant.fromBigDecimal(new BigDecimal(new BigInteger(unscaled), scale));
+            }
+            case STRING:
+                return Variant.fromInternedString(readString(in));
+            case BOOLEAN:
+                return Variant.fromBoolean(in.get() != 0);
+            case ARRAY: {
+                int length = in.getInt();
+                List<Variant> items = Lists.newArrayListWithCapacity(length);
+                for (int i = 0; i < length; ++i) {
+                    items.add(decode(in));
+                }
+                return Variant.fromArray(items);
+            }
+            default:
+                throw new IllegalStateException("Corrupted data set index snapshot: unknown value tag " + tag);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Column view over mapped snapshot. Buffer is only read with absolute offsets or through private duplicates, so
+     * values can be read concurrently.
+     */
+    private static class MappedColumn {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int size;
+
+        MappedColumn(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.size = buffer.getInt(offset);
+        }
+
+        ByteBuffer entry(int index) {
+            if (index < 0 || index >= size) {
+                return null;
+            }
+            int entryOffset = buffer.getInt(offset + 4 + index * 4);
+            if (entryOffset == NO_ENTRY) {
+                return null;
+            }
+            ByteBuffer entry = buffer.duplicate();
+            entry.position(entryOffset);
+            return entry;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    private static class MappedVariantValue implements DataSetIndex.VariantValue {
+        private final MappedColumn column;
+        private final boolean constant;
+
+        MappedVariantValue(ByteBuffer buffer, int offset, boolean constant) {
+            this.column = new MappedColumn(buffer, offset);
+            this.constant = constant;
+        }
+
+        @Override
+        public void setValue(int index, Variant value) {
+            throw new UnsupportedOperationException("Data set index snapshot is read-only");
+        }
+
+        @Override
+        public Variant getValue(int index) {
+            ByteBuffer entry = column.entry(constant ? 0 : index);
+            return (entry != null) ? decode(entry) : Variant.nullVariant();
+        }
+
+        @Override
+        public int size() {
+            return column.size();
+        }
+
+        @Override
+        public boolean isConstant() {
+            return constant;
+        }
+    }
+
+    private static class MappedJsonElements extends DataSetIndex.JsonElements {
+        private final MappedColumn column;
+
+        MappedJsonElements(ByteBuffer buffer, int offset) {
+            this.column = new MappedColumn(buffer, offset);
+        }
+
+        @Override
+        void set(int index, JsonElement value) {
+            throw new UnsupportedOperationException("Data set index snapshot is read-only");
+        }
+
+        @Override
+        JsonElement get(int index) {
+            ByteBuffer entry = column.entry(index);
+            return (entry != null) ? JsonParser.parseString(readString(entry)) : JsonNull.INSTANCE;
+        }
+
+        @Override
+        JsonElement getOrLast(int index) {
+            return get((size() == 1) ? 0 : index);
+        }
+
+        @Override
+        int size() {
+            return column.size();
+        }
+    }
+
+    /**
+     * Tracks written byte count as absolute file offset. {@link DataOutputStream#size()} saturates at
+     * `Integer.MAX_VALUE`, so count is taken from underlying stream instead.
+     */
+    private static class SnapshotOutput extends DataOutputStream {
+        private final CountingOutputStream counter;
+
+        SnapshotOutput(CountingOutputStream out) {
+            super(out);
+            this.counter = out;
+        }
+
+        long position() {
+            return counter.getCount();
+        }
+
+        int writeColumn(List<byte[]> entries) throws IOException {
+            int columnOffset = offset(position());
+            long entryOffset = columnOffset + 4L + entries.size() * 4L;
+            Map<ByteBuffer, Integer> offsets = Maps.newHashMap();
+            List<byte[]> distinct = Lists.newArrayList();
+            writeInt(entries.size());
+            for (byte[] entry : entries) {
+                if (entry == null) {
+                    writeInt(NO_ENTRY);
+                    continue;
+                }
+                Integer offset = offsets.get(ByteBuffer.wrap(entry));
+                if (offset == null) {
+                    offset = offset(entryOffset);
+                    offsets.put(ByteBuffer.wrap(entry), offset);
+                    distinct.add(entry);
+                    entryOffset += entry.length;
+                }
+                writeInt(offset);
+            }
+            for (byte[] entry : distinct) {
+                write(entry);
+            }
+            return columnOffset;
+        }
+
+        void writeDirectory(Map<String, Integer> columns, Map<String, Byte> flags) throws IOException {
+            writeInt(columns.size());
+            for (Map.Entry<String, Integer> column : columns.entrySet()) {
+                byte[] name = column.getKey().getBytes(StandardCharsets.UTF_8);
+                writeInt(name.length);
+                write(name);
+                writeInt(column.getValue());
+                writeByte(flags.getOrDefault(column.getKey(), (byte) 0));
+            }
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.valdroz.vscript.json;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -25,9 +27,12 @@ import com.google.gson.JsonPrimitive;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * @author Valerijus Drozdovas
@@ -68,6 +73,28 @@ public class JsonDataSetMaker {
         return root.getDataSets();
     }
 
+    /**
+     * Same data sets, in the same order, as {@link #getDataSets()}, however each data set is assembled only when
+     * iterated to. Memory used does not depend on number of data sets. Iterable can be iterated multiple times.
+     *
+     * @return Lazily assembled data sets.
+     */
+    public Iterable<JsonObject> getLazyDataSets() {
+        return root.getLazyDataSets(path -> true);
+    }
+
+    /**
+     * Lazy data sets, where child groups (nested object arrays) with no referenced paths contribute only their
+     * first data set. Result of an evaluation referencing only accepted paths is the same for collapsed and full
+     * data sets, and first matching data set is the same as in {@link #getDataSets()} order.
+     *
+     * @param referencedPath accepts group path if any referenced variable is the path itself or is nested in it.
+     * @return Lazily assembled data sets.
+     */
+    Iterable<JsonObject> getLazyDataSets(Predicate<String> referencedPath) {
+        return root.getLazyDataSets(referencedPath);
+    }
+
     private void flatten(JfObject parent, String pref, JsonElement je) {
         if (je.isJsonPrimitive()) {
             parent.addNode(pref, je.getAsJsonPrimitive());
@@ -99,10 +126,7 @@ public class JsonDataSetMaker {
     }
 
     private static String newKey(String pref, String key) {
-        if (StringUtils.isBlank(pref)) {
-            return key;
-        }
-        return pref + "." + key;
+        return PathDictionary.childPath(pref, key);
     }
 
 
@@ -202,6 +226,87 @@ public class JsonDataSetMaker {
             return dataSet;
         }
 
+        /**
+         * Data sets are cartesian product of own flats and data sets of each child group, in group order.
+         * Unreferenced groups contribute only first data set.
+         */
+        public Iterable<JsonObject> getLazyDataSets(Predicate<String> referencedPath) {
+            if (children.isEmpty()) {
+                return Collections.unmodifiableList(flats);
+            }
+            List<Iterable<JsonObject>> factors = Lists.newArrayList();
+            factors.add(flats);
+            for (Map.Entry<String, Collection<JfObject>> entry : children.asMap().entrySet()) {
+                List<Iterable<JsonObject>> group = Lists.newArrayList();
+                for (JfObject jfObject : entry.getValue()) {
+                    group.add(jfObject.getLazyDataSets(referencedPath));
+                }
+                Iterable<JsonObject> groupDataSets = Iterables.concat(group);
+                if (StringUtils.isNotEmpty(entry.getKey()) && !referencedPath.test(entry.getKey())) {
+                    groupDataSets = Iterables.limit(groupDataSets, 1);
+                }
+                factors.add(groupDataSets);
+            }
+            return () -> new ProductIterator(factors);
+        }
+
+    }
+
+    /**
+     * Iterates cartesian product of factors, leftmost factor varying slowest. Each product item is merged
+     * into new JSON object.
+     */
+    private static class ProductIterator extends AbstractIterator<JsonObject> {
+        private final List<Iterable<JsonObject>> factors;
+        private final List<Iterator<JsonObject>> iterators;
+        private final JsonObject[] current;
+
+        ProductIterator(List<Iterable<JsonObject>> factors) {
+            this.factors = factors;
+            this.iterators = Lists.newArrayListWithCapacity(factors.size());
+            this.current = new JsonObject[factors.size()];
+        }
+
+        @Override
+        protected JsonObject computeNext() {
+            int from;
+            if (iterators.isEmpty()) {
+                from = 0;
+            } else {
+                from = factors.size() - 1;
+                while (from >= 0 && !iterators.get(from).hasNext()) {
+                    --from;
+                }
+                if (from < 0) {
+                    return endOfData();
+                }
+                current[from] = iterators.get(from).next();
+                ++from;
+            }
+            for (int i = from; i < factors.size(); ++i) {
+                Iterator<JsonObject> iterator = factors.get(i).iterator();
+                if (!iterator.hasNext()) {
+                    return endOfData();
+                }
+                current[i] = iterator.next();
+                if (i < iterators.size()) {
+                    iterators.set(i, iterator);
+                } else {
+                    iterators.add(iterator);
+                }
+            }
+            return merge(current);
+        }
+
+        private static JsonObject merge(JsonObject[] parts) {
+            JsonObject jo = new JsonObject();
+            for (JsonObject part : parts) {
+                for (Map.Entry<String, JsonElement> entry : part.entrySet()) {
+                    jo.add(entry.getKey(), entry.getValue());
+                }
+            }
+            return jo;
+        }
     }
 
     private static List<JsonObject> replicate(List<JsonObject> base, List<JsonObject> source) {
@@ -15,13 +15,15 @@
  */
 package org.valdroz.vscript.json;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.gson.*;
 import org.valdroz.vscript.Variant;
 import org.valdroz.vscript.VariantContainer;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
 
 /**
  * @author Valerijus Drozdovas
@@ -31,7 +33,18 @@ public class JsonVariantContainer implements VariantContainer {
 
     private final JsonObject jo;
 
-    private JsonVariantContainer(JsonObject jo) {
+    /**
+     * Sorted keys of {@link #jo} mapped to their insertion position, for prefix queries. Built on second prefix query,
+     * since a single query is cheaper as a scan, and dropped whenever container is modified.
+     */
+    private volatile NavigableMap<String, Integer> sortedKeys;
+    private volatile boolean prefixQueried;
+    /**
+     * Set once {@link #jo} is handed out: changes made to it directly cannot be tracked, so keys are no longer cached.
+     */
+    private volatile boolean exposed;
+
+    JsonVariantContainer(JsonObject jo) {
         this.jo = jo;
     }
 
@@ -50,13 +63,41 @@ public class JsonVariantContainer implements VariantContainer {
         return variantContainers;
     }
 
+    /**
+     * Lazily flattens JSON into variant containers, one per data set permutation. Unlike
+     * {@link #jsonToVariantContainers(JsonObject)}, containers are created while iterating, so evaluation can start
+     * right away and memory use does not grow with number of permutations.
+     *
+     * @param je JSON object.
+     * @return Iterable of variant containers, in the same order as {@link #jsonToVariantContainers(JsonObject)}.
+     */
+    public static Iterable<JsonVariantContainer> iterateVariantContainers(JsonObject je) {
+        return iterateVariantContainers(je, JsonDataSetMaker.Mode.KEEP_ARRAYS_FOR_PRIMITIVES);
+    }
+
+    /**
+     * Lazily flattens JSON into variant containers, one per data set permutation.
+     *
+     * @param je    JSON object.
+     * @param modes data set maker modes.
+     * @return Iterable of variant containers, in the same order as
+     * {@link #jsonToVariantContainers(JsonObject, JsonDataSetMaker.Mode...)}.
+     */
+    public static Iterable<JsonVariantContainer> iterateVariantContainers(JsonObject je, JsonDataSetMaker.Mode... modes) {
+        JsonDataSetMaker jsonDataSetMaker = new JsonDataSetMaker(je, modes);
+        return Iterables.transform(jsonDataSetMaker.getLazyDataSets(), JsonVariantContainer::new);
+    }
+
     public JsonObject getJsonObject() {
+        exposed = true;
+        sortedKeys = null;
         return jo;
     }
 
     @Override
     public void setVariant(String name, Variant value) {
         jo.add(name, primitiveFromVariant(value));
+        sortedKeys = null;
     }
 
     @Override
@@ -88,20 +129,9 @@ public class JsonVariantContainer implements VariantContainer {
     public JsonElement getJsonElement(String name) {
         JsonElement je = jo.get(name);
         if (je == null) {
-            String pathPref = name + ".";
-            JsonObject jods = getJsonObject();
             JsonObject joAssembly = new JsonObject();
-            for (Map.Entry<String, JsonElement> entry : jods.entrySet()) {
-                if (name.equals(entry.getKey()) ||
-                        entry.getKey().startsWith(pathPref)) {
-                    if (je == null) {
-                        je = new JsonObject();
-                    }
-                    JsonUtils.set(joAssembly,
-                            entry.getKey().substring(name.length() + 1),
-                            entry.getValue()
-                    );
-                }
+            for (String key : nestedKeys(name)) {
+                JsonUtils.set(joAssembly, key.substring(name.length() + 1), jo.get(key));
             }
             if (joAssembly.size() > 0) {
                 je = joAssembly;
@@ -133,6 +163,7 @@ public class JsonVariantContainer implements VariantContainer {
         }
         ja.set(index, primitiveFromVariant(value));
         jo.add(name, ja);
+        sortedKeys = null;
     }
 
     @Override
@@ -156,13 +187,30 @@ public class JsonVariantContainer implements VariantContainer {
         return jo.has(name);
     }
 
+    /**
+     * @return Keys nested in parent path, in insertion order.
+     */
+    private List<String> nestedKeys(String parent) {
+        NavigableMap<String, Integer> keys = sortedKeys;
+        if (keys == null) {
+            if (exposed || !prefixQueried) {
+                prefixQueried = true;
+                String pref = parent + ".";
+                return Lists.newArrayList(Iterables.filter(jo.keySet(), key -> key.startsWith(pref)));
+            }
+            keys = Collections.unmodifiableNavigableMap(PathDictionary.sortedPositions(jo.keySet()));
+            sortedKeys = keys;
+        }
+        return PathDictionary.nestedPaths(keys, parent);
+    }
+
     private static Variant variantFromPrimitive(JsonPrimitive jp) {
         if (jp == null) {
             return Variant.nullVariant();
         }
 
         if (jp.isString()) {
-            return Variant.fromString(jp.getAsString());
+            return Variant.fromInternedString(jp.getAsString());
         }
 
         if (jp.isNumber()) {
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript.json;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Flattened path helpers: process wide path interning and prefix queries over sorted path sets.
+ *
+ * @author Valerijus Drozdovas
+ */
+final class PathDictionary {
+
+    private static final Interner<String> INTERNER = Interners.newWeakInterner();
+
+    private PathDictionary() {
+    }
+
+    /**
+     * @param path flattened path
+     * @return Canonical instance of path, shared by all indexes and data sets.
+     */
+    static String intern(String path) {
+        return INTERNER.intern(path);
+    }
+
+    /**
+     * @param pref parent path, may be blank
+     * @param key  member name
+     * @return Interned child path.
+     */
+    static String childPath(String pref, String key) {
+        if (StringUtils.isBlank(pref)) {
+            return intern(key);
+        }
+        return intern(pref + "." + key);
+    }
+
+    static NavigableSet<String> sorted(Iterable<String> paths) {
+        NavigableSet<String> sorted = new TreeSet<>();
+        paths.forEach(sorted::add);
+        return sorted;
+    }
+
+    /**
+     * Paths nested in parent path, e.g. `a.b` and `a.c.d` for `a`. Lookup is logarithmic in number of paths, as all
+     * nested paths sort between `a.` and `a/` (`/` follows `.`).
+     *
+     * @param paths  sorted paths
+     * @param parent parent path
+     * @return View of nested paths.
+     */
+    static SortedSet<String> nestedPaths(NavigableSet<String> paths, String parent) {
+        return paths.subSet(parent + '.', true, parent + (char) ('.' + 1), false);
+    }
+
+    /**
+     * @param paths paths in insertion order
+     * @return Sorted paths mapped to their insertion position.
+     */
+    static NavigableMap<String, Integer> sortedPositions(Iterable<String> paths) {
+        NavigableMap<String, Integer> sorted = new TreeMap<>();
+        int position = 0;
+        for (String path : paths) {
+            sorted.put(path, position++);
+        }
+        return sorted;
+    }
+
+    /**
+     * Paths nested in parent path, see {@link #nestedPaths(NavigableSet, String)}, in insertion order.
+     *
+     * @param paths  sorted paths mapped to their insertion position
+     * @param parent parent path
+     * @return Nested paths in insertion order.
+     */
+    static List<String> nestedPaths(NavigableMap<String, Integer> paths, String parent) {
+        List<Map.Entry<String, Integer>> nested = new ArrayList<>(
+                paths.subMap(parent + '.', true, parent + (char) ('.' + 1), false).entrySet());
+        nested.sort(Map.Entry.comparingByValue());
+        List<String> keys = new ArrayList<>(nested.size());
+        nested.forEach(entry -> keys.add(entry.getKey()));
+        return keys;
+    }
+}
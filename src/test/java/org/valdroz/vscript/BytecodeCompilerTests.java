@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import org.junit.Test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+public class BytecodeCompilerTests {
+
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+            "1 + 2 * 3 - 4 / 3",
+            "price * qty + 0.5",
+            "name + \" \" + price",
+            "price > 10 && qty <= 3 || !flag",
+            "(price >= 12.5) == true",
+            "price != qty",
+            "missing?price * 2",
+            "missing + 1",
+            "arr[1] + arr[5]?100",
+            "arr[idx] * 2",
+            "x = price * 2; y[2] = x; y[2] + x",
+            "var z = 5; z * z",
+            "(6 & 3) + (8 | 1) + (5 ^ 1)",
+            "!missing",
+            "!\"a\"",
+            "if(price > 1, \"big\", \"small\")",
+            "if(flag, 1)",
+            "pow(2, 10) + sqrt(16) + abs(-3) + neg(2)",
+            "size(arr) + size(name)",
+            "is_null(missing) && is_string(name) && is_numeric(price) && is_array(arr)",
+            "max(arr) + min(1, 2) + avg(1, 2, 3)",
+            "switch(qty, 1, \"one\", 3, \"three\", \"other\")",
+            "{1, 2, price} + 4",
+            "twice(price) + 1",
+            "undefined_fn(1)",
+            "\"abc\" * 2",
+            "1 / 0",
+            "true + true",
+            "first(name, 2) + last(name, 2)",
+            "round(price, 1)",
+            "a = {1, 2}; a[3] = 4; a",
+            "PI * E"
+    );
+
+    @Test
+    public void testBytecodeMatchesInterpreter() {
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        runBlock.registerFunction("twice(x)", lvc -> lvc.getVariant("x").multiply(Variant.fromInt(2)));
+
+        for (String expression : EXPRESSIONS) {
+            CompiledExpression interpreted = CompiledExpression.compile(expression, runBlock);
+            CompiledExpression compiled = CompiledExpression.compile(expression, runBlock,
+                    CompiledExpression.Mode.BYTECODE);
+
+            assertThat(expression, compiled.getNode().getClass().getName(), startsWith("org.valdroz.vscript.GeneratedNode$"));
+            assertThat(expression, outcome(compiled, newContainer()), is(outcome(interpreted, newContainer())));
+        }
+    }
+
+    @Test
+    public void testBytecodeContainerSideEffects() {
+        CompiledExpression compiled = CompiledExpression.compile("t = price * qty; u[1] = t", null,
+                CompiledExpression.Mode.BYTECODE);
+        VariantContainer container = newContainer();
+        compiled.eval(container);
+
+        assertThat(container.getVariant("t").asNumeric().doubleValue(), is(37.5));
+        assertThat(container.getVariant("u", 1).asNumeric().doubleValue(), is(37.5));
+        assertThat(compiled.getStats().referencedVariables().contains("price"), is(true));
+    }
+
+    @Test
+    public void testBytecodeFallbackKeepsInterpreter() {
+        CompiledExpression compiled = CompiledExpression.compile("now() > 0", null, CompiledExpression.Mode.BYTECODE);
+        assertThat(compiled.getNode().getClass(), not(CompositeNode.class));
+        assertThat(compiled.eval().asBoolean(), is(true));
+    }
+
+    @Test
+    public void testDeepExpressionFallsBackToInterpreter() throws Exception {
+        StringBuilder sb = new StringBuilder("x");
+        for (int i = 1; i < 4000; ++i) {
+            sb.append("+x");
+        }
+        String expression = sb.toString();
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("x", Variant.fromInt(1));
+
+        Object compiled = runWithStack(512 * 1024,
+                () -> CompiledExpression.compile(expression, null, CompiledExpression.Mode.BYTECODE));
+        assertThat(compiled, instanceOf(CompiledExpression.class));
+        assertThat(((CompiledExpression) compiled).getNode(), instanceOf(CompositeNode.class));
+        assertThat(runWithStack(16 * 1024 * 1024, () -> ((CompiledExpression) compiled).eval(container)),
+                is(Variant.fromInt(4000)));
+    }
+
+    @Test
+    public void testWithoutAsm() throws Exception {
+        ClassLoader parent = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (name.startsWith("org.objectweb.asm.") || name.startsWith("org.valdroz.vscript.")) {
+                    throw new ClassNotFoundException(name);
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+        URL classes = CompiledExpression.class.getProtectionDomain().getCodeSource().getLocation();
+        try (LibraryClassLoader loader = new LibraryClassLoader(classes, parent)) {
+            Class<?> compiledExpression = loader.loadClass(CompiledExpression.class.getName());
+            Class<?> mode = loader.loadClass(CompiledExpression.Mode.class.getName());
+            Method compile = compiledExpression.getMethod("compile", String.class,
+                    loader.loadClass(RunBlock.class.getName()), Array.newInstance(mode, 0).getClass());
+            Method eval = compiledExpression.getMethod("eval");
+
+            Object interpreted = compile.invoke(null, "1 + 2", null, Array.newInstance(mode, 0));
+            assertThat(eval.invoke(interpreted).toString(), is("3"));
+            assertThat(loader.isLoaded(BytecodeCompiler.class.getName()), is(false));
+
+            Object modes = Array.newInstance(mode, 1);
+            Array.set(modes, 0, mode.getField(CompiledExpression.Mode.BYTECODE.name()).get(null));
+            Object bytecode = compile.invoke(null, "1 + 2", null, modes);
+            assertThat(eval.invoke(bytecode).toString(), is("3"));
+            assertThat(eval.invoke(compile.invoke(null, "3 * 2", null, modes)).toString(), is("6"));
+        }
+    }
+
+    private static final class LibraryClassLoader extends URLClassLoader {
+        LibraryClassLoader(URL classes, ClassLoader parent) {
+            super(new URL[]{classes}, parent);
+        }
+
+        boolean isLoaded(String name) {
+            return findLoadedClass(name) != null;
+        }
+    }
+
+    private static Object runWithStack(long stackSize, Supplier<Object> task) throws InterruptedException {
+        AtomicReference<Object> outcome = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                outcome.set(task.get());
+            } catch (Throwable ex) {
+                outcome.set(ex);
+            }
+        }, "deep-expression", stackSize);
+        thread.start();
+        thread.join();
+        return outcome.get();
+    }
+
+    private static String outcome(CompiledExpression expression, VariantContainer container) {
+        try {
+            Variant result = expression.eval(container);
+            return result.getClass().getSimpleName() + ":" + result;
+        } catch (RuntimeException ex) {
+            return ex.getClass().getSimpleName() + ":" + ex.getMessage();
+        }
+    }
+
+    private static VariantContainer newContainer() {
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("price", Variant.fromDouble(12.5));
+        container.setVariant("qty", Variant.fromInt(3));
+        container.setVariant("idx", Variant.fromInt(2));
+        container.setVariant("name", Variant.fromString("widget"));
+        container.setVariant("flag", Variant.fromBoolean(false));
+        container.setVariant("arr", Variant.fromArray(Arrays.asList(Variant.fromInt(4), Variant.fromInt(7),
+                Variant.fromInt(9))));
+        return container;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class CompiledExpressionTests {
+
+    @Test
+    public void testCompiledExpressionEval() {
+        CompiledExpression expr = CompiledExpression.compile("a = 3; b = a * 2; b + 1");
+        DefaultVariantContainer container = new DefaultVariantContainer();
+
+        assertThat(expr.eval(container).asNumeric().intValue(), is(7));
+        assertThat(container.getVariant("b").asNumeric().intValue(), is(6));
+        assertThat(expr.eval().asNumeric().intValue(), is(7));
+        assertThat(expr.getSource(), is("a = 3; b = a * 2; b + 1"));
+        assertThat(expr.getStats().referencedVariables(), containsInAnyOrder("a", "b"));
+    }
+
+    @Test
+    public void testCompiledExpressionBindsFunctionsAtCompileTime() {
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        runBlock.registerFunction("twice(x)", lvc -> lvc.getVariant("x").multiply(Variant.fromInt(2)));
+
+        CompiledExpression expr = CompiledExpression.compile("twice(a) + 1", runBlock);
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("a", Variant.fromInt(20));
+
+        assertThat(expr.eval(container).asNumeric().intValue(), is(41));
+        assertThrows(UndefinedFunction.class, () -> CompiledExpression.compile("twice(1)").eval());
+    }
+
+    @Test
+    public void testCompiledExpressionConcurrentEval() throws Exception {
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        runBlock.registerFunction("plus(x, y)", lvc -> lvc.getVariant("x").add(lvc.getVariant("y")));
+
+        CompiledExpression expr = CompiledExpression.compile("t = plus(a, 1); if(t > 500, t * 2, t) - 1", runBlock);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = Lists.newArrayList();
+            for (int task = 0; task < 8; ++task) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; ++i) {
+                        DefaultVariantContainer container = new DefaultVariantContainer();
+                        container.setVariant("a", Variant.fromInt(i));
+                        int expected = (i + 1 > 500) ? (i + 1) * 2 - 1 : i;
+                        if (expr.eval(container).asNumeric().intValue() != expected) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertThat(future.get(), is(true));
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testCompiledExpressionSyntaxError() {
+        assertThrows(EvaluationException.class, () -> CompiledExpression.compile("1 + 2 # 3"));
+    }
+
+}
@@ -975,5 +975,78 @@ public class EquationEvalTests {
                 () -> new EquationEval("round(1, -1)").eval());
     }
 
+    @Test
+    public void testEvalBatch() {
+        List<VariantContainer> containers = Lists.newArrayList();
+        for (int i = 0; i < 5; ++i) {
+            DefaultVariantContainer container = new DefaultVariantContainer();
+            container.setVariant("a", Variant.fromInt(i));
+            containers.add(container);
+        }
+        EquationEval eval = new EquationEval("b = a * 2; b + 1");
+
+        Variant[] results = eval.evalBatch(containers);
+        assertThat(results.length, is(5));
+        assertThat(results[4].asNumeric().intValue(), is(9));
+        assertThat(containers.get(3).getVariant("b").asNumeric().intValue(), is(6));
+
+        Variant[] preallocated = new Variant[8];
+        assertThat(eval.evalBatch(containers, preallocated), Matchers.sameInstance(preallocated));
+        assertThat(preallocated[2].asNumeric().intValue(), is(5));
+        assertThat(preallocated[5], Matchers.nullValue());
+        assertThrows(IllegalArgumentException.class, () -> eval.evalBatch(containers, new Variant[2]));
+
+        List<Integer> sink = Lists.newArrayList();
+        eval.evalBatch(containers.iterator(), v -> sink.add(v.asNumeric().intValue()));
+        assertThat(sink, Matchers.contains(1, 3, 5, 7, 9));
+    }
+
+    @Test
+    public void testStringNumericCoercion() {
+        assertThat(Variant.fromString("1.5e2").asNumeric().intValue(), is(150));
+        assertThat(Variant.fromString("-.5").asNumeric().doubleValue(), is(-0.5));
+        assertThat(Variant.fromString("+7.").asNumeric().intValue(), is(7));
+        for (String text : new String[]{"", "abc", ".", "+", "1e", "1e+", "1.2.3", " 1", "1 ", "0x10", "1e99999999999"}) {
+            assertThat(text, Variant.fromString(text).asNumeric(), Matchers.nullValue());
+        }
+
+        Variant number = Variant.fromString("12");
+        assertThat(number.add(Variant.fromInt(3)).asNumeric().intValue(), is(15));
+        assertThat(number.multiply(Variant.fromInt(3)).asNumeric().intValue(), is(36));
+        assertThat(Variant.fromString("x").add(Variant.fromInt(1)).asString(), is("x1"));
+        assertThrows(EvaluationException.class, () -> Variant.fromString("x").multiply(Variant.fromInt(1)));
+        assertThrows(EvaluationException.class, () -> new EquationEval("sqrt(\"-4\")").eval());
+        assertThat(new EquationEval("sqrt(\"16\")").eval().asNumeric().intValue(), is(4));
+    }
+
+    @Test
+    public void testStringScaleOverflowIsNotNumeric() {
+        for (String text : new String[]{"1E999999999", "1E-999999999", "1E2147483647"}) {
+            Variant variant = Variant.fromString(text);
+            assertThat(text, variant.asNumeric(), Matchers.nullValue());
+            assertThat(text, variant.asNumeric(), Matchers.nullValue());
+            assertThat(variant.add(Variant.fromInt(1)).asString(), is(text + "1"));
+            assertThrows(EvaluationException.class, () -> variant.multiply(Variant.fromInt(2)));
+            assertThrows(EvaluationException.class, () -> variant.minus(Variant.fromInt(2)));
+            assertThrows(EvaluationException.class, () -> variant.divide(Variant.fromInt(2)));
+            assertThrows(EvaluationException.class, () -> variant.pow(Variant.fromInt(2)));
+        }
+        assertThat(new EquationEval("\"1E999999999\" + 1").eval().asString(), is("1E9999999991"));
+    }
+
+    @Test
+    public void testLongMultiStatementScript() {
+        StringBuilder script = new StringBuilder("v0 = 1");
+        for (int i = 1; i < 10_000; ++i) {
+            script.append("; v").append(i).append(" = v").append(i - 1).append(" + 1");
+        }
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        Variant result = new EquationEval(script.toString()).eval(container);
+
+        assertThat(result.asNumeric().intValue(), is(10_000));
+        assertThat(container.getVariant("v5000").asNumeric().intValue(), is(5001));
+        assertThrows(EvaluationException.class, () -> new EquationEval("a = 1; b = 2 cd").eval());
+    }
+
 
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class EvaluationProfileTests {
+
+    @Test
+    public void testNodeTimesAndCounts() {
+        EvaluationProfile profile = new EvaluationProfile();
+        EquationEval eval = EquationEval.profiled("b = a * 2; max(b, 1) > 5", profile);
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("a", Variant.fromInt(3));
+
+        assertThat(eval.eval(container).asBoolean(), is(true));
+        assertThat(eval.eval(container).asBoolean(), is(true));
+        assertThat(profile.getProfiledEvaluations(), is(2L));
+
+        List<EvaluationProfile.NodeProfile> executed = profile.getNodes().stream()
+                .filter(n -> n.getInvocations() > 0)
+                .collect(Collectors.toList());
+        assertThat(executed.stream().map(EvaluationProfile.NodeProfile::getLabel).collect(Collectors.toList()),
+                contains("=", "a", "*", "max()", "b", ">"));
+        for (EvaluationProfile.NodeProfile node : executed) {
+            assertThat(node.getInvocations(), is(2L));
+            assertThat(node.getInclusiveNanos(), greaterThanOrEqualTo(node.getExclusiveNanos()));
+        }
+
+        EvaluationProfile.NodeProfile max = executed.get(3);
+        EvaluationProfile.NodeProfile b = executed.get(4);
+        assertThat(b.getParent(), is(max));
+        assertThat(max.getParent().getLabel(), is(">"));
+        assertThat(max.getInclusiveNanos(), greaterThanOrEqualTo(max.getExclusiveNanos() + b.getInclusiveNanos()));
+    }
+
+    @Test
+    public void testCollapsedStacks() {
+        EvaluationProfile profile = new EvaluationProfile();
+        EquationEval.profiled("x = 1;\ny = x + 2", profile).eval();
+
+        List<String> lines = Arrays.asList(profile.toCollapsedStacks().split("\n"));
+        assertThat(lines.size(), is(4));
+        for (String line : lines) {
+            assertThat(line, line.matches("[^ ]+@\\d+:\\d+ \\d+"), is(true));
+        }
+        assertThat(lines.stream().anyMatch(l -> l.matches("=@2:\\d+;\\+@2:\\d+;x@2:\\d+ \\d+")), is(true));
+    }
+
+    @Test
+    public void testSamplingAndReset() {
+        EvaluationProfile profile = new EvaluationProfile(3);
+        EquationEval eval = EquationEval.profiled("1 + 2", profile);
+        for (int i = 0; i < 7; ++i) {
+            eval.eval();
+        }
+        EvaluationProfile.NodeProfile plus = profile.getNodes().get(0);
+        assertThat(plus.getLabel(), is("+"));
+        assertThat(plus.getInvocations(), is(3L));
+        assertThat(profile.getProfiledEvaluations(), is(3L));
+
+        profile.reset();
+        assertThat(plus.getInvocations(), is(0L));
+        assertThat(profile.toCollapsedStacks(), is(""));
+        assertThrows(IllegalArgumentException.class, () -> new EvaluationProfile(0));
+    }
+
+}
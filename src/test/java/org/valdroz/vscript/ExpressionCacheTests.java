@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThrows;
+
+public class ExpressionCacheTests {
+
+    @Test
+    public void testCacheHitsAndMisses() {
+        ExpressionCache cache = new ExpressionCache(100);
+        CompiledExpression first = cache.get("a * 2");
+
+        assertThat(cache.get("a * 2"), sameInstance(first));
+        assertThat(cache.get("a * 2", null, CompiledExpression.Mode.OPTIMIZE), not(sameInstance(first)));
+        assertThat(cache.getStats().hitCount(), is(1L));
+        assertThat(cache.getStats().missCount(), is(2L));
+        assertThat(cache.size(), is(2L));
+
+        cache.invalidateAll();
+        assertThat(cache.size(), is(0L));
+    }
+
+    @Test
+    public void testCacheKeyIncludesRunBlockAndConfiguration() {
+        ExpressionCache cache = new ExpressionCache(100);
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        CompiledExpression expr = cache.get("1 / 3", runBlock);
+
+        assertThat(cache.get("1 / 3", runBlock), sameInstance(expr));
+        assertThat(cache.get("1 / 3", new DefaultRunBlock()), not(sameInstance(expr)));
+
+        int restore = Configuration.setDecimalScale(5);
+        try {
+            assertThat(cache.get("1 / 3", runBlock), not(sameInstance(expr)));
+        } finally {
+            Configuration.setDecimalScale(restore);
+        }
+        assertThat(cache.get("1 / 3", runBlock), sameInstance(expr));
+    }
+
+    @Test
+    public void testCacheEviction() {
+        ExpressionCache cache = new ExpressionCache(2);
+        for (int i = 0; i < 10; ++i) {
+            cache.get("x + " + i);
+        }
+        assertThat(cache.size() <= 2, is(true));
+        assertThat(cache.getStats().evictionCount() >= 8, is(true));
+    }
+
+    @Test
+    public void testCompileErrorsAreNotCached() {
+        ExpressionCache cache = new ExpressionCache(10);
+        assertThrows(EvaluationException.class, () -> cache.get("1 + 2 # 3"));
+        assertThrows(EvaluationException.class, () -> cache.get("1 + 2 # 3"));
+        assertThat(cache.size(), is(0L));
+    }
+
+    @Test
+    public void testCacheConcurrentAccess() throws Exception {
+        ExpressionCache cache = new ExpressionCache(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = Lists.newArrayList();
+            for (int task = 0; task < 8; ++task) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; ++i) {
+                        int rule = i % 50;
+                        if (cache.get(rule + " * 2").eval().asNumeric().intValue() != rule * 2) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertThat(future.get(), is(true));
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertThat(cache.size(), is(50L));
+        assertThat(cache.getStats().loadSuccessCount(), is(50L));
+    }
+}
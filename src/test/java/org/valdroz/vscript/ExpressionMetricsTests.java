@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThrows;
+
+public class ExpressionMetricsTests {
+
+    @Test
+    public void testCompiledExpressionMetrics() {
+        ExpressionMetrics metrics = new ExpressionMetrics();
+        DefaultRunBlock runBlock = new DefaultRunBlock().withMetricsListener(metrics);
+        runBlock.registerFunction("twice(x)", lvc -> lvc.getVariant("x").multiply(Variant.fromInt(2)));
+
+        CompiledExpression plain = CompiledExpression.compile("twice(a) + twice(1) + 100 / a", runBlock);
+        CompiledExpression expr = plain.withMetricsListener(metrics);
+
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("a", Variant.fromInt(5));
+        for (int i = 0; i < 10; ++i) {
+            assertThat(expr.eval(container).asNumeric().intValue(), is(32));
+        }
+        container.setVariant("a", Variant.fromInt(0));
+        assertThrows(EvaluationException.class, () -> expr.eval(container));
+        container.setVariant("a", Variant.fromInt(1));
+        plain.eval(container);
+
+        assertThat(metrics.getEvaluationCount(), is(11L));
+        assertThat(metrics.getErrorCount(), is(1L));
+        assertThat(metrics.getFunctionCallCounts(), is(ImmutableMap.of("twice", 24L)));
+        assertThat(metrics.getFunctionCallCount("unknown"), is(0L));
+        assertThat(metrics.getLatencyPercentileNanos(50), lessThanOrEqualTo(metrics.getMaxLatencyNanos()));
+        assertThat(metrics.getTotalLatencyNanos(), greaterThanOrEqualTo(metrics.getMaxLatencyNanos()));
+    }
+
+    @Test
+    public void testEquationEvalMetrics() {
+        ExpressionMetrics metrics = new ExpressionMetrics();
+        EquationEval eval = new EquationEval("a * 2").withMetricsListener(metrics);
+
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("a", Variant.fromInt(4));
+        eval.eval(container);
+        eval.evalBatch(Arrays.asList(container, container));
+
+        assertThat(metrics.getEvaluationCount(), is(3L));
+        assertThat(metrics.getErrorCount(), is(0L));
+    }
+
+    @Test
+    public void testLatencyPercentiles() {
+        ExpressionMetrics metrics = new ExpressionMetrics();
+        assertThat(metrics.getLatencyPercentileNanos(99), is(0L));
+        for (long nanos = 1; nanos <= 1000; ++nanos) {
+            metrics.onEvaluation("x", nanos * 1000);
+        }
+
+        long p50 = metrics.getLatencyPercentileNanos(50);
+        long p99 = metrics.getLatencyPercentileNanos(99);
+        assertThat(p50, greaterThanOrEqualTo(500_000L));
+        assertThat(p50, lessThanOrEqualTo(562_500L));
+        assertThat(p99, greaterThanOrEqualTo(990_000L));
+        assertThat(metrics.getLatencyPercentileNanos(100), is(1_000_000L));
+        assertThat(metrics.getLatencyPercentileNanos(0), is(ExpressionMetrics.bucketUpperBound(ExpressionMetrics.bucketIndex(1000))));
+        assertThrows(IllegalArgumentException.class, () -> metrics.getLatencyPercentileNanos(101));
+    }
+
+    @Test
+    public void testLatencyBuckets() {
+        for (long value : new long[]{0, 7, 8, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int index = ExpressionMetrics.bucketIndex(value);
+            assertThat(ExpressionMetrics.bucketUpperBound(index), greaterThanOrEqualTo(value));
+            if (index > 0) {
+                assertThat(ExpressionMetrics.bucketUpperBound(index - 1), lessThanOrEqualTo(value - 1));
+            }
+        }
+        assertThat(ExpressionMetrics.bucketIndex(Long.MAX_VALUE), is(487));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ExpressionOptimizerTests {
+
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+            "price * (1 + 0.07) * PI / 180",
+            "if(true, price, qty)",
+            "if(1 > 2, price, qty * 2)",
+            "if(missing, 1, 2)",
+            "switch(2, 1, \"one\", 2, \"two\", \"other\")",
+            "switch(5, 1, \"one\", 2, \"two\", \"other\")",
+            "switch(5, 1, \"one\", 2, \"two\")",
+            "switch(1, 1, null, 2, \"two\", \"other\")",
+            "switch(1, 1, missing, \"other\")",
+            "switch(1, 1, missing)",
+            "switch(2, qty, \"qty\", 2, \"two\")",
+            "false && (x = 1)",
+            "true || (x = 1)",
+            "true && price > 1",
+            "1 / 0",
+            "price / (2 - 2)",
+            "first(\"Hello\", 2) + size(\"abc\") + max(1, 5, 3) + round(2.345, 2)",
+            "{1, 2} + 3",
+            "neg(sqrt(16)) + pow(2, 3) + abs(-1)",
+            "!(2 > 1) || !missing",
+            "(6 & 3) + (8 | 1) + (5 ^ 1)",
+            "\"a\" + 1 + 2",
+            "x = 2 * 3; x + 1"
+    );
+
+    @Test
+    public void testOptimizedMatchesInterpreter() {
+        for (String expression : EXPRESSIONS) {
+            CompiledExpression interpreted = CompiledExpression.compile(expression);
+            CompiledExpression optimized = CompiledExpression.compile(expression, null,
+                    CompiledExpression.Mode.OPTIMIZE);
+            CompiledExpression optimizedBytecode = CompiledExpression.compile(expression, null,
+                    CompiledExpression.Mode.BYTECODE, CompiledExpression.Mode.OPTIMIZE);
+
+            String expected = outcome(interpreted, newContainer());
+            assertThat(expression, outcome(optimized, newContainer()), is(expected));
+            assertThat(expression, outcome(optimizedBytecode, newContainer()), is(expected));
+        }
+    }
+
+    @Test
+    public void testConstantSubtreesAreFolded() {
+        assertThat(firstStatement("(1 + 0.07) * PI / 180 - size(\"abc\")"), instanceOf(ConstantNode.class));
+        assertThat(firstStatement("if(true, 1, price)"), instanceOf(ConstantNode.class));
+        assertThat(firstStatement("false && price"), instanceOf(ConstantNode.class));
+
+        BaseNode node = firstStatement("price * (1 + 0.07)");
+        assertThat(node.getLeftNode(), not(instanceOf(ConstantNode.class)));
+        assertThat(node.getRightNode(), instanceOf(ConstantNode.class));
+        assertThat(((ConstantNode) node.getRightNode()).getConstantValue().asString(), is("1.07"));
+    }
+
+    @Test
+    public void testConstantSelectorPrunesBranches() {
+        BaseNode node = firstStatement("if(2 > 1, price, qty)");
+        assertThat(node.getNodeOperation(), is(Constants.NT_VARIABLE));
+        assertThat(node.getName(), is("price"));
+
+        node = firstStatement("switch(\"b\", \"a\", price, \"b\", qty)");
+        assertThat(node.getNodeOperation(), is(Constants.NT_VARIABLE));
+        assertThat(node.getName(), is("qty"));
+
+        node = firstStatement("switch(\"c\", \"a\", price, \"b\", qty, 0)");
+        assertThat(node, instanceOf(ConstantNode.class));
+
+        // Matched value may yield null and fall through to default, thus is kept as is
+        assertThat(firstStatement("switch(1, 1, missing, 0)").getNodeOperation(), is(Constants.NT_MF_SWITCH));
+    }
+
+    @Test
+    public void testTimeDependentAndFailingOperationsAreNotFolded() {
+        assertThat(firstStatement("now() + 1"), not(instanceOf(ConstantNode.class)));
+        assertThat(firstStatement("day() > 0"), not(instanceOf(ConstantNode.class)));
+        assertThat(firstStatement("1 / 0"), not(instanceOf(ConstantNode.class)));
+        assertThat(firstStatement("{1, 2}"), not(instanceOf(ConstantNode.class)));
+        assertThat(firstStatement("x = 1 + 2").getNodeOperation(), is((int) '='));
+    }
+
+    @Test
+    public void testSharedConstantsAreNotReplaced() {
+        BaseNode node = firstStatement("true");
+        assertThat(node, sameInstance(Constants.C_TRUE));
+    }
+
+    private static BaseNode firstStatement(String expression) {
+        CompositeNode root = (CompositeNode) CompiledExpression.compile(expression, null,
+                CompiledExpression.Mode.OPTIMIZE).getNode();
+        return (BaseNode) root.getNodes().get(0);
+    }
+
+    private static String outcome(CompiledExpression expression, VariantContainer container) {
+        try {
+            Variant result = expression.eval(container);
+            return result.getClass().getSimpleName() + ":" + result + ":" + container.getVariant("x");
+        } catch (RuntimeException ex) {
+            return ex.getClass().getSimpleName() + ":" + ex.getMessage();
+        }
+    }
+
+    private static VariantContainer newContainer() {
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("price", Variant.fromDouble(12.5));
+        container.setVariant("qty", Variant.fromInt(3));
+        return container;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class MemoizedFunctionTests {
+
+    @Test
+    public void testResultsCachedByArguments() {
+        AtomicInteger calls = new AtomicInteger();
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        MemoizedFunction rate = runBlock.registerPureFunction("rate(from, to)", 100, 0, TimeUnit.SECONDS, lvc -> {
+            calls.incrementAndGet();
+            return Variant.fromString(lvc.getVariant("from").asString() + lvc.getVariant("to").asString());
+        });
+
+        CompiledExpression expr = CompiledExpression.compile("rate(a, \"EUR\")", runBlock);
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("a", Variant.fromString("USD"));
+        for (int i = 0; i < 5; ++i) {
+            assertThat(expr.eval(container).asString(), is("USDEUR"));
+        }
+        container.setVariant("a", Variant.fromString("GBP"));
+        assertThat(expr.eval(container).asString(), is("GBPEUR"));
+
+        assertThat(calls.get(), is(2));
+        assertThat(rate.size(), is(2L));
+        assertThat(rate.getStats().hitCount(), is(4L));
+        assertThat(rate.getStats().missCount(), is(2L));
+
+        rate.invalidateAll();
+        container.setVariant("a", Variant.fromString("USD"));
+        expr.eval(container);
+        assertThat(calls.get(), is(3));
+    }
+
+    @Test
+    public void testArgumentsComparedByTypeAndValue() {
+        AtomicInteger calls = new AtomicInteger();
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        runBlock.registerPureFunction("id(x)", 100, 1, TimeUnit.MINUTES, lvc -> {
+            calls.incrementAndGet();
+            return lvc.getVariant("x");
+        });
+
+        EquationEval eval = new EquationEval("id(1) + id(1.00) + id(\"1\") + id(\"1\")").withMasterBlock(runBlock);
+        assertThat(eval.eval().asNumeric().intValue(), is(4));
+        assertThat(calls.get(), is(3));
+        assertThat(new EquationEval("id(1.00)").withMasterBlock(runBlock).eval().asString(), is("1.00"));
+        assertThat(new EquationEval("id(1)").withMasterBlock(runBlock).eval().asString(), is("1"));
+
+        assertThat(new EquationEval("id(to_array(1, 2)) == id(to_array(1, 2))").withMasterBlock(runBlock)
+                .eval().asBoolean(), is(true));
+        assertThat(calls.get(), is(4));
+    }
+
+    @Test
+    public void testArrayResultNotShared() {
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        runBlock.registerPureFunction("pair(x)", 10, 0, TimeUnit.SECONDS,
+                lvc -> Variant.fromArray(Lists.newArrayList(lvc.getVariant("x"), lvc.getVariant("x"))));
+
+        EquationEval eval = new EquationEval("p = pair(1); p[0] = 99; q = pair(1); q[1] = 98; pair(1)")
+                .withMasterBlock(runBlock);
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        assertThat(eval.eval(container).asString(), is("{1,1}"));
+        assertThat(container.getVariant("p").asString(), is("{99,1}"));
+        assertThat(container.getVariant("q").asString(), is("{1,98}"));
+    }
+
+    @Test
+    public void testNullResultSubstitution() {
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        runBlock.registerPureFunction("nothing(x)", 10, 0, TimeUnit.SECONDS, lvc -> null);
+
+        EquationEval eval = new EquationEval("nothing(1) ? 7").withMasterBlock(runBlock);
+        assertThat(eval.eval().asNumeric().intValue(), is(7));
+        assertThat(eval.eval().asNumeric().intValue(), is(7));
+    }
+
+}
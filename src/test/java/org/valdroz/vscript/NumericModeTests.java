@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+import static org.valdroz.vscript.Configuration.NumericMode;
+
+public class NumericModeTests {
+
+    @Test
+    public void testFastModeIntegerArithmetic() {
+        NumericMode restore = Configuration.setNumericMode(NumericMode.FAST);
+        try {
+            DefaultVariantContainer container = new DefaultVariantContainer();
+            container.setVariant("a", Variant.fromInt(7));
+            container.setVariant("b", Variant.fromLong(3));
+
+            assertThat(new EquationEval("a * b + 1 - 2").eval(container).asString(), is("20"));
+            assertThat(new EquationEval("a * 2 / 7").eval(container).asString(), is("2"));
+            assertThat(new EquationEval("a / 2").eval(container).asString(), is("3.5"));
+            assertThat(new EquationEval("0 - a == -7").eval(container).asBoolean(), is(true));
+            assertThat(new EquationEval("a > b && b >= 3 && 2.5 < b").eval(container).asBoolean(), is(true));
+            assertThat(new EquationEval("a == 7.0").eval(container).asBoolean(), is(true));
+            assertThat(new EquationEval("pow(2, 10)").eval(container).asString(), is("1024"));
+            assertThrows(EvaluationException.class, () -> new EquationEval("a / 0").eval(container));
+        } finally {
+            Configuration.setNumericMode(restore);
+        }
+    }
+
+    @Test
+    public void testFastModeFractionArithmetic() {
+        NumericMode restore = Configuration.setNumericMode(NumericMode.FAST);
+        try {
+            assertThat(new EquationEval("0.5 + 1.25 * 2").eval().asString(), is("3.0"));
+            assertThat(new EquationEval("1 / 4").eval().asString(), is("0.25"));
+            assertThrows(EvaluationException.class, () -> new EquationEval("0.5 / 0").eval());
+        } finally {
+            Configuration.setNumericMode(restore);
+        }
+    }
+
+    @Test
+    public void testFastModePromotesOnOverflow() {
+        NumericMode restore = Configuration.setNumericMode(NumericMode.FAST);
+        try {
+            DefaultVariantContainer container = new DefaultVariantContainer();
+            container.setVariant("max", Variant.fromLong(Long.MAX_VALUE));
+
+            assertThat(new EquationEval("max + 1").eval(container).asNumeric(),
+                    is(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE)));
+            assertThat(new EquationEval("max * 2").eval(container).asNumeric(),
+                    is(BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2))));
+            assertThat(new EquationEval("0 - max - 2").eval(container).asNumeric(),
+                    is(BigDecimal.valueOf(Long.MIN_VALUE).subtract(BigDecimal.ONE)));
+            assertThat(new EquationEval("99999999999999999999 + 1").eval(container).asString(),
+                    is("100000000000000000000"));
+            assertThat(new EquationEval("12345678901234567890123").eval(container).asNumeric(),
+                    is(new BigDecimal("12345678901234567890123")));
+        } finally {
+            Configuration.setNumericMode(restore);
+        }
+    }
+
+    @Test
+    public void testFastModeSignedZero() {
+        NumericMode restore = Configuration.setNumericMode(NumericMode.FAST);
+        try {
+            assertThat(new EquationEval("0 == 0.0 * -1").eval().asBoolean(), is(true));
+            assertThat(new EquationEval("0.0 == 0.0 * -1").eval().asBoolean(), is(true));
+            assertThat(new EquationEval("0.0 * -1 < 0").eval().asBoolean(), is(false));
+            assertThat(new EquationEval("0.0 * -1 < 0.0").eval().asBoolean(), is(false));
+        } finally {
+            Configuration.setNumericMode(restore);
+        }
+    }
+
+    @Test
+    public void testFastModeEqualsAndHashCode() {
+        NumericMode restore = Configuration.setNumericMode(NumericMode.FAST);
+        try {
+            Variant[] equal = {Variant.fromLong(1), Variant.fromDouble(1.0), Variant.fromBigDecimal("1.00")};
+            for (Variant a : equal) {
+                for (Variant b : equal) {
+                    assertThat(a.equals(b), is(true));
+                    assertThat(a.hashCode(), is(b.hashCode()));
+                }
+            }
+            assertThat(Variant.fromDouble(-0.0).hashCode(), is(Variant.fromLong(0).hashCode()));
+            assertThat(Variant.fromLong((1L << 53) + 1).equals(Variant.fromDouble(0x1p53)), is(false));
+            assertThat(Variant.fromLong((1L << 53) + 1).compareTo(Variant.fromDouble(0x1p53)), is(1));
+            assertThat(Variant.fromDouble(0x1p53).compareTo(Variant.fromLong((1L << 53) + 1)), is(-1));
+            assertThat(Variant.fromLong(Long.MAX_VALUE).compareTo(Variant.fromDouble(0x1p63)), is(-1));
+            assertThat(Variant.fromLong(2).compareTo(Variant.fromDouble(2.5)), is(-1));
+            assertThat(Variant.fromLong(-2).compareTo(Variant.fromDouble(-2.5)), is(1));
+        } finally {
+            Configuration.setNumericMode(restore);
+        }
+    }
+
+    @Test
+    public void testFastModeMixedWithDecimal() {
+        NumericMode restore = Configuration.setNumericMode(NumericMode.FAST);
+        try {
+            DefaultVariantContainer container = new DefaultVariantContainer();
+            container.setVariant("d", Variant.fromBigDecimal("10.125"));
+            container.setVariant("s", Variant.fromString("2"));
+
+            assertThat(new EquationEval("d + 1").eval(container).asString(), is("11.125"));
+            assertThat(new EquationEval("1 + d").eval(container).asString(), is("11.125"));
+            assertThat(new EquationEval("3 * s").eval(container).asNumeric().intValue(), is(6));
+            assertThat(new EquationEval("d > 10").eval(container).asBoolean(), is(true));
+        } finally {
+            Configuration.setNumericMode(restore);
+        }
+    }
+
+    @Test
+    public void testDecimalModeIsDefault() {
+        assertThat(Configuration.getNumericMode(), is(NumericMode.DECIMAL));
+        assertThat(new EquationEval("1 / 4").eval().asNumeric(), is(new BigDecimal("0.25")));
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThrows;
+import static org.valdroz.vscript.Configuration.NumericMode;
+
+public class OperandSpecializationTests {
+
+    private static final String[] EQUATIONS = {
+            "a + b", "a - b", "a * b", "a / b", "a > b", "a < b", "a >= b", "a <= b", "a == b", "a != b"
+    };
+
+    @Test
+    public void testSameResultsAsGenericNodes() {
+        Variant[][] operands = {
+                {Variant.fromInt(7), Variant.fromDouble(2.5)},
+                {Variant.fromInt(3), Variant.fromInt(3)},
+                {Variant.fromString("abc"), Variant.fromString("ABD")},
+                {Variant.fromString("12"), Variant.fromInt(3)},
+                {Variant.fromInt(4), Variant.fromString("x")},
+                {Variant.fromBoolean(true), Variant.fromInt(1)},
+        };
+        for (String equation : EQUATIONS) {
+            CompiledExpression generic = CompiledExpression.compile(equation);
+            CompiledExpression adaptive = CompiledExpression.compile(equation, null, CompiledExpression.Mode.ADAPTIVE);
+            for (int round = 0; round < 2; ++round) {
+                for (Variant[] pair : operands) {
+                    DefaultVariantContainer container = new DefaultVariantContainer();
+                    container.setVariant("a", pair[0]);
+                    container.setVariant("b", pair[1]);
+                    String expected;
+                    try {
+                        expected = generic.eval(container).toString();
+                    } catch (RuntimeException e) {
+                        assertThrows(equation, e.getClass(), () -> adaptive.eval(container));
+                        continue;
+                    }
+                    assertThat(equation + " " + pair[0] + ", " + pair[1], adaptive.eval(container).toString(),
+                            is(expected));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFastModeSpecialization() {
+        NumericMode restore = Configuration.setNumericMode(NumericMode.FAST);
+        try {
+            CompiledExpression expr = CompiledExpression.compile("a * b", null, CompiledExpression.Mode.ADAPTIVE);
+            DefaultVariantContainer container = new DefaultVariantContainer();
+            container.setVariant("a", Variant.fromLong(Long.MAX_VALUE));
+            container.setVariant("b", Variant.fromInt(2));
+            assertThat(expr.eval(container).asString(), is("18446744073709551614"));
+            assertThat(specializationOf(expr), instanceOf(OperandSpecialization.Primitive.class));
+        } finally {
+            Configuration.setNumericMode(restore);
+        }
+    }
+
+    @Test
+    public void testRespecializationOnTypeChange() {
+        CompiledExpression expr = CompiledExpression.compile("a + b", null, CompiledExpression.Mode.ADAPTIVE);
+        assertThat(specializationOf(expr), sameInstance(OperandSpecialization.UNINITIALIZED));
+
+        assertThat(expr.eval(container(Variant.fromInt(1), Variant.fromInt(2))).asNumeric().intValue(), is(3));
+        assertThat(specializationOf(expr), instanceOf(OperandSpecialization.Decimal.class));
+        assertThat(expr.eval(container(Variant.fromInt(5), Variant.fromInt(2))).asNumeric().intValue(), is(7));
+        assertThat(specializationOf(expr), instanceOf(OperandSpecialization.Decimal.class));
+
+        assertThat(expr.eval(container(Variant.fromString("a"), Variant.fromString("b"))).asString(), is("ab"));
+        assertThat(specializationOf(expr), instanceOf(OperandSpecialization.Text.class));
+
+        for (int i = 0; i < OperandSpecialization.MAX_SPECIALIZATIONS; ++i) {
+            expr.eval(container(Variant.fromInt(i), Variant.fromInt(1)));
+            expr.eval(container(Variant.fromString("a"), Variant.fromString("b")));
+        }
+        assertThat(specializationOf(expr), instanceOf(OperandSpecialization.Generic.class));
+        assertThat(expr.eval(container(Variant.fromString("a"), Variant.fromInt(1))).asString(), is("a1"));
+    }
+
+    @Test
+    public void testConcurrentRespecialization() throws Exception {
+        CompiledExpression expr = CompiledExpression.compile("x = if(a > b, a + b, b + a); x", null,
+                CompiledExpression.Mode.ADAPTIVE);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int task = 0; task < 4; ++task) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; ++i) {
+                        boolean text = (i % 2 == 0);
+                        Variant a = text ? Variant.fromString("a" + i) : Variant.fromInt(i);
+                        Variant b = text ? Variant.fromString("b") : Variant.fromInt(7);
+                        String expected = text ? "b" + "a" + i : Integer.toString(i + 7);
+                        if (!expr.eval(container(a, b)).asString().equals(expected)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertThat(future.get(), is(true));
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static DefaultVariantContainer container(Variant a, Variant b) {
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("a", a);
+        container.setVariant("b", b);
+        return container;
+    }
+
+    private static OperandSpecialization specializationOf(CompiledExpression expr) {
+        return ((AdaptiveNode) ((CompositeNode) expr.getNode()).getNodes().get(0)).getSpecialization();
+    }
+
+}
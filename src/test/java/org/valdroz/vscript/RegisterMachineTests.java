@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThrows;
+
+public class RegisterMachineTests {
+
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+            "1 + 2 * 3 - 4 / 3",
+            "price * qty + 0.5",
+            "name + \" \" + price",
+            "price > 10 && qty <= 3 || !flag",
+            "flag && undefined_fn(1)",
+            "qty || undefined_fn(1)",
+            "(price >= 12.5) == true",
+            "price != qty",
+            "price < qty",
+            "missing?price * 2",
+            "missing + 1",
+            "arr[1] + arr[5]?100",
+            "arr[idx] * 2",
+            "x = price * 2; y[2] = x; y[2] + x",
+            "var z = 5; z * z",
+            "x = 1; x = x + 1; x",
+            "x = 1; x + (x = 5) * x",
+            "x = 1; (x = 2) + x",
+            "price > 1 && qty > 1 && !flag && qty > 0",
+            "flag || qty < 1 || price > 100 || name == \"widget\"",
+            "price > 1 && qty > 1 || flag && qty",
+            "(flag || price) && (qty || flag) && missing",
+            "(6 & 3) + (8 | 1) + (5 ^ 1)",
+            "!missing",
+            "!\"a\"",
+            "!flag",
+            "if(price > 1, \"big\", \"small\")",
+            "if(flag, 1, 2)",
+            "if(flag, 1)",
+            "pow(2, 10) + sqrt(16) + abs(-3) + neg(2)",
+            "sin(0) + cos(0) + tan(0) + asin(0) + acos(1) + atan(0) + exp(0) + log(1)",
+            "floor_mod(-7, 3)",
+            "floor_mod(1)",
+            "day() > 0 && month() > 0 && year() > 2000 && day_of_year() > 0 && days_in_month(1) > 27",
+            "now() > 0",
+            "iso(\"2020-01-01T00:00:00Z\")",
+            "iso(1)",
+            "day_of_week(\"2020-01-01T00:00:00Z\")",
+            "day_of_week(\"bad\")",
+            "days_before_now(\"2020-01-01T00:00:00Z\") > 0 && hours_before_now(0) > 0 && minutes_before_now(0) > 0",
+            "days_since_weekday(1) >= 0",
+            "days_since_weekday(9)",
+            "days_since_weekday()",
+            "size(arr) + size(name)",
+            "is_null(missing) && is_string(name) && is_numeric(price) && is_array(arr)",
+            "to_array(1, name, arr)",
+            "to_array()",
+            "max(arr) + min(1, 2) + avg(1, 2, 3)",
+            "max(\"3\", arr, 8) + min(missing, 4, arr)",
+            "max() + min()",
+            "avg(name, 4, 5) + median(3, 1, 4, 2) + median(7, name, 1, 2)",
+            "avg() + median()",
+            "switch(qty, 1, \"one\", 3, \"three\", \"other\")",
+            "switch(qty, 1, \"one\", \"other\")",
+            "switch(qty, 3, missing, \"other\")",
+            "switch(qty, 1, \"one\", 2, \"two\")",
+            "switch(qty, 1)",
+            "{1, 2, price} + 4",
+            "twice(price) + 1",
+            "twice(missing)?7",
+            "twice(1, 2, 3)",
+            "cached(qty) + cached(qty)",
+            "undefined_fn(1)",
+            "\"abc\" * 2",
+            "1 / 0",
+            "true + true",
+            "first(name, 2) + last(name, 2) + skip(name, 4)",
+            "first(name, -1) + last(name, 10) + skip(name, 10)",
+            "first(name)",
+            "round(price, 1)",
+            "round(price)",
+            "format_ts(0, \"yyyy-MM-dd\", \"UTC\")",
+            "format_ts(missing, \"yyyy\")",
+            "format_ts(\"bad\", \"yyyy\")",
+            "format_ts(0, \"yyyy\", \"Bad/Zone\")",
+            "format_ts(0)",
+            "a = {1, 2}; a[3] = 4; a",
+            "PI * E",
+            ""
+    );
+
+    @Test
+    public void testRegisterMachineMatchesInterpreter() {
+        DefaultRunBlock runBlock = newRunBlock();
+
+        for (String expression : EXPRESSIONS) {
+            CompiledExpression interpreted = CompiledExpression.compile(expression, runBlock);
+            CompiledExpression compiled = CompiledExpression.compile(expression, runBlock,
+                    CompiledExpression.Mode.REGISTER_MACHINE);
+
+            assertThat(expression, compiled.getNode(), instanceOf(RegisterMachine.class));
+            assertThat(expression, outcome(compiled, newContainer()), is(outcome(interpreted, newContainer())));
+        }
+    }
+
+    @Test
+    public void testRegisterMachineSlotContainer() {
+        CompiledExpression compiled = CompiledExpression.compile("t = a * b; u[1] = t; if(t > 10, t, 0)", null,
+                CompiledExpression.Mode.REGISTER_MACHINE);
+        SlotVariantContainer container = compiled.newContainer();
+        container.setVariant(compiled.getSlots().indexOf("a"), Variant.fromInt(3));
+        container.setVariant(compiled.getSlots().indexOf("b"), Variant.fromInt(5));
+
+        assertThat(compiled.eval(container).asNumeric().intValue(), is(15));
+        assertThat(container.getVariant("t").asNumeric().intValue(), is(15));
+        assertThat(container.getVariant("u", 1).asNumeric().intValue(), is(15));
+    }
+
+    @Test
+    public void testRegisterMachineEvaluatesDeepNestingWithoutRecursion() {
+        StringBuilder chain = new StringBuilder("x");
+        for (int i = 0; i < 100_000; ++i) {
+            chain.append(" + 1");
+        }
+        CompiledExpression compiled = CompiledExpression.compile(chain.toString(), null,
+                CompiledExpression.Mode.REGISTER_MACHINE);
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("x", Variant.fromInt(1));
+
+        assertThat(compiled.eval(container).asNumeric().intValue(), is(100_001));
+        assertThat(compiled.getStats().referencedVariables().contains("x"), is(true));
+        assertThat(((RegisterMachine) compiled.getNode()).getRegisterCount(), lessThan(4));
+    }
+
+    @Test
+    public void testRegisterMachineReentrantEvaluation() {
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        CompiledExpression[] self = new CompiledExpression[1];
+        runBlock.registerFunction("fact(n)", lvc -> {
+            DefaultVariantContainer container = new DefaultVariantContainer();
+            container.setVariant("n", lvc.getVariant("n"));
+            return self[0].eval(container);
+        });
+        self[0] = CompiledExpression.compile("if(n <= 1, 1, n * fact(n - 1))", runBlock,
+                CompiledExpression.Mode.REGISTER_MACHINE);
+
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("n", Variant.fromInt(10));
+        assertThat(self[0].eval(container).asNumeric().intValue(), is(3628800));
+    }
+
+    @Test
+    public void testRegisterMachineDelegatesMalformedCalls() {
+        CompiledExpression compiled = CompiledExpression.compile("if(a, 1)", null,
+                CompiledExpression.Mode.REGISTER_MACHINE);
+        assertThrows(EvaluationException.class, compiled::eval);
+    }
+
+    private static String outcome(CompiledExpression expression, VariantContainer container) {
+        try {
+            Variant result = expression.eval(container);
+            return result.getClass().getSimpleName() + ":" + result + " x=" + container.getVariant("x") +
+                    " y=" + container.getVariant("y") + " a=" + container.getVariant("a");
+        } catch (RuntimeException ex) {
+            return ex.getClass().getSimpleName() + ":" + ex.getMessage();
+        }
+    }
+
+    private static DefaultRunBlock newRunBlock() {
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        runBlock.registerFunction("twice(x)", lvc -> lvc.getVariant("x").multiply(Variant.fromInt(2)));
+        runBlock.registerPureFunction("cached(x)", 10, 1, TimeUnit.MINUTES,
+                lvc -> lvc.getVariant("x").add(Variant.fromInt(1)));
+        return runBlock;
+    }
+
+    private static VariantContainer newContainer() {
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("price", Variant.fromDouble(12.5));
+        container.setVariant("qty", Variant.fromInt(3));
+        container.setVariant("idx", Variant.fromInt(2));
+        container.setVariant("name", Variant.fromString("widget"));
+        container.setVariant("flag", Variant.fromBoolean(false));
+        container.setVariant("arr", Variant.fromArray(Arrays.asList(Variant.fromInt(4), Variant.fromInt(7),
+                Variant.fromInt(9))));
+        return container;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+import org.valdroz.vscript.json.JsonVariantContainer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.valdroz.vscript.Configuration.NumericMode;
+
+public class SharedVariantTests {
+
+    @Test
+    public void testSharedBooleansAndSmallIntegers() {
+        assertThat(Variant.fromBoolean(true), sameInstance(Variant.fromBoolean(true)));
+        assertThat(new EquationEval("1 < 2 && 3 != 4").eval(), sameInstance(Variant.fromBoolean(true)));
+        assertThat(new EquationEval("1 > 2").eval(), sameInstance(Variant.fromBoolean(false)));
+
+        assertThat(Variant.fromInt(-128), sameInstance(Variant.fromLong(-128)));
+        assertThat(new EquationEval("size(\"abc\")").eval(), sameInstance(Variant.fromInt(3)));
+        assertThat(Variant.fromInt(5000), not(sameInstance(Variant.fromInt(5000))));
+        assertThat(Variant.fromInt(1024).asNumeric().intValue(), is(1024));
+
+        NumericMode restore = Configuration.setNumericMode(NumericMode.FAST);
+        try {
+            Variant fast = Variant.fromInt(42);
+            assertThat(fast, sameInstance(Variant.fromLong(42)));
+            assertThat(fast.add(Variant.fromInt(1)).asString(), is("43"));
+            assertThat(new EquationEval("40 + 2").eval(), sameInstance(fast));
+        } finally {
+            Configuration.setNumericMode(restore);
+        }
+        assertThat(Variant.fromInt(42).asNumeric().scale(), is(0));
+    }
+
+    @Test
+    public void testStringInterning() {
+        assertThat(Variant.fromInternedString("abc"), not(sameInstance(Variant.fromInternedString("abc"))));
+
+        boolean restore = Configuration.setStringInterning(true);
+        try {
+            Variant abc = Variant.fromInternedString("abc");
+            assertThat(Variant.fromInternedString(new String("abc")), sameInstance(abc));
+            assertThat(new EquationEval("\"abc\"").eval(), sameInstance(abc));
+
+            JsonObject jo = JsonParser.parseString("{\"a\": \"abc\", \"b\": \"abc\"}").getAsJsonObject();
+            JsonVariantContainer container = JsonVariantContainer.jsonToVariantContainers(jo).get(0);
+            assertThat(container.getVariant("a"), sameInstance(abc));
+            assertThat(container.getVariant("b"), sameInstance(abc));
+        } finally {
+            Configuration.setStringInterning(restore);
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class SlotVariantContainerTests {
+
+    private static final String EXPRESSION = "var loc = 2; t = price * qty + loc; u[1] = t; twice(t) + u[1] + missing?1";
+
+    @Test
+    public void testSlotContainerMatchesDefaultContainer() {
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        runBlock.registerFunction("twice(x)", lvc -> lvc.getVariant("x").multiply(Variant.fromInt(2)));
+
+        for (CompiledExpression.Mode[] modes : Arrays.asList(
+                new CompiledExpression.Mode[0],
+                new CompiledExpression.Mode[]{CompiledExpression.Mode.BYTECODE})) {
+            CompiledExpression expr = CompiledExpression.compile(EXPRESSION, runBlock, modes);
+            assertThat(expr.getSlots().names(), contains("loc", "missing", "price", "qty", "t", "u"));
+            assertThat(expr.getNode().getClass().getName().startsWith("org.valdroz.vscript.GeneratedNode$"),
+                    is(modes.length > 0));
+
+            DefaultVariantContainer byName = new DefaultVariantContainer();
+            byName.setVariant("price", Variant.fromDouble(12.5));
+            byName.setVariant("qty", Variant.fromInt(3));
+
+            SlotVariantContainer bySlot = expr.newContainer();
+            bySlot.setVariant(expr.getSlots().indexOf("price"), Variant.fromDouble(12.5));
+            bySlot.setVariant("qty", Variant.fromInt(3));
+
+            Variant expected = expr.eval(byName);
+            assertThat(expr.eval(bySlot), is(expected));
+            assertThat(expected.asNumeric().doubleValue(), is(119.5));
+            assertThat(bySlot.getVariant("t"), is(byName.getVariant("t")));
+            assertThat(bySlot.getVariant(expr.getSlots().indexOf("u"), 1), is(byName.getVariant("u", 1)));
+            assertThat(bySlot.getVariant("loc"), is(byName.getVariant("loc")));
+            assertThat(bySlot.contains("loc"), is(true));
+            assertThat(bySlot.contains("missing"), is(false));
+        }
+    }
+
+    @Test
+    public void testContainerOfOtherLayoutResolvesByName() {
+        for (CompiledExpression.Mode[] modes : Arrays.asList(
+                new CompiledExpression.Mode[0],
+                new CompiledExpression.Mode[]{CompiledExpression.Mode.BYTECODE})) {
+            CompiledExpression expr = CompiledExpression.compile("c[1] = a; a + b + c[1]", null, modes);
+            SlotVariantContainer container = VariableSlots.of(Arrays.asList("b", "a", "c")).newContainer();
+            container.setVariant("a", Variant.fromInt(1));
+            container.setVariant("b", Variant.fromInt(10));
+
+            assertThat(expr.eval(container).asNumeric().intValue(), is(12));
+            assertThat(container.getVariant("c", 1).asNumeric().intValue(), is(1));
+        }
+    }
+
+    @Test
+    public void testSlotContainerClear() {
+        CompiledExpression expr = CompiledExpression.compile("x = a; y = 1; x + y");
+        SlotVariantContainer container = expr.newContainer();
+        container.setVariant("a", Variant.fromInt(5));
+        assertThat(expr.eval(container).asNumeric().intValue(), is(6));
+
+        container.clear();
+        assertThat(container.contains("x"), is(false));
+        assertThat(container.getVariant("a").isNull(), is(true));
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Valerijus Drozdovas
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.valdroz.vscript;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThrows;
+
+public class TraceBufferTests {
+
+    @Test
+    public void testStructuredEvents() {
+        TraceBuffer buffer = new TraceBuffer(16);
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("a", Variant.fromInt(3));
+
+        Variant result = EquationEval.traced("b = a * 2; b > 5", buffer).eval(container);
+
+        assertThat(result.asBoolean(), is(true));
+        assertThat(buffer.format(), contains(
+                "GET: a IS 3",
+                "OPR: 3 MULTIPLY 2 YIELDS 6",
+                "SET: b TO 6",
+                "GET: b IS 6",
+                "OPR: 6 MORE THAN 5 YIELDS true"));
+
+        List<TraceEvent> events = buffer.getEvents();
+        TraceEvent multiply = events.get(1);
+        assertThat(multiply.getOperation(), is((int) '*'));
+        assertThat(multiply.getOperandNodeIds().length, is(2));
+        assertThat(multiply.getOperandNodeIds()[0], is(events.get(0).getNodeId()));
+        assertThat(multiply.getResult().asNumeric().intValue(), is(6));
+        assertThat(events.get(0).getName(), is("a"));
+        assertThat(multiply.getEvaluation(), is(0L));
+    }
+
+    @Test
+    public void testRingBufferOverwritesOldest() {
+        TraceBuffer buffer = new TraceBuffer(3);
+        EquationEval eval = EquationEval.traced("a + 1", buffer);
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        for (int i = 0; i < 5; ++i) {
+            container.setVariant("a", Variant.fromInt(i));
+            eval.eval(container);
+        }
+
+        assertThat(buffer.getRecordedCount(), is(10L));
+        assertThat(buffer.size(), is(3));
+        // Operand of the oldest event was overwritten
+        assertThat(buffer.format(), contains("OPR: null PLUS 1 YIELDS 4", "GET: a IS 4", "OPR: 4 PLUS 1 YIELDS 5"));
+
+        buffer.clear();
+        assertThat(buffer.size(), is(0));
+        assertThrows(IllegalArgumentException.class, () -> new TraceBuffer(0));
+    }
+
+    @Test
+    public void testArrayResultsAreSnapshot() {
+        TraceBuffer buffer = new TraceBuffer(16);
+        EquationEval.traced("a = 1; a[1] = 2; a[2] = 3", buffer).eval();
+
+        assertThat(buffer.format(), contains("SET: a TO 1", "SET: a TO [1, 2]", "SET: a TO [1, 2, 3]"));
+    }
+
+    @Test
+    public void testOperandOlderThanBufferCapacity() {
+        StringBuilder chain = new StringBuilder("1");
+        for (int i = 0; i < 1100; ++i) {
+            chain.append(" + 1");
+        }
+        List<String> messages = new ArrayList<>();
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("a", Variant.fromInt(5));
+
+        new EquationEval("a * (" + chain + ")", messages::add).eval(container);
+
+        assertThat(messages.get(messages.size() - 1), is("OPR: 5 MULTIPLY 1101 YIELDS 5505"));
+    }
+
+    @Test
+    public void testSampledTracing() {
+        TraceBuffer buffer = new TraceBuffer(100);
+        EquationEval eval = EquationEval.traced("a * 10", buffer).withTraceSampling(4);
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        for (int i = 0; i < 10; ++i) {
+            container.setVariant("a", Variant.fromInt(i));
+            assertThat(eval.eval(container).asNumeric().intValue(), is(i * 10));
+        }
+
+        assertThat(buffer.format(), contains(
+                "GET: a IS 0", "OPR: 0 MULTIPLY 10 YIELDS 0",
+                "GET: a IS 4", "OPR: 4 MULTIPLY 10 YIELDS 40",
+                "GET: a IS 8", "OPR: 8 MULTIPLY 10 YIELDS 80"));
+        assertThat(buffer.getEvents().get(5).getEvaluation(), is(8L));
+        assertThrows(IllegalStateException.class, () -> new EquationEval("1").withTraceSampling(2));
+        assertThrows(IllegalArgumentException.class, () -> eval.withTraceSampling(0));
+    }
+
+    @Test
+    public void testErrorsAreRecordedAndRethrown() {
+        TraceBuffer buffer = new TraceBuffer(8);
+        EquationEval eval = EquationEval.traced("1 + 5 / a", buffer);
+        DefaultVariantContainer container = new DefaultVariantContainer();
+        container.setVariant("a", Variant.fromInt(0));
+
+        assertThrows(EvaluationException.class, () -> eval.eval(container));
+        List<TraceEvent> events = buffer.getEvents();
+        assertThat(events.get(1).getResult(), nullValue());
+        assertThat(events.get(1).toString(), is("ERROR: Division by zero"));
+        assertThat(events.size(), is(3));
+    }
+}
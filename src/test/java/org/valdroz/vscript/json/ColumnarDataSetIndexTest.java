@@ -0,0 +1,73 @@
+package org.valdroz.vscript.json;
+
+import com.google.common.collect.Lists;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.valdroz.vscript.Variant;
+
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Valerijus Drozdovas
+ */
+public class ColumnarDataSetIndexTest {
+
+    @Test
+    public void testColumnarIndexMatchesDefaultIndex() throws Exception {
+        for (String resource : new String[]{"/test-data-set.json", "/test-data-set-2.json",
+                "/test-data-set-3.json", "/test-data-set-4.json"}) {
+            String json = IOUtils.toString(JsonDataSetMaker.class.getResource(resource), Charset.defaultCharset());
+            JsonObject jo = JsonParser.parseString(json).getAsJsonObject();
+
+            DataSetIndex expected = DataSetIndex.index(jo);
+            DataSetIndex columnar = DataSetIndex.index(jo, DataSetIndex.Mode.COLUMNAR);
+
+            assertThat(resource, columnar.numberOfPermutations(), is(expected.numberOfPermutations()));
+            assertThat(resource, Lists.newArrayList(columnar.getNames()), is(Lists.newArrayList(expected.getNames())));
+            for (String name : expected.getNames()) {
+                assertThat(name, columnar.hasPermutations(name), is(expected.hasPermutations(name)));
+                for (int i = 0; i < expected.numberOfPermutations(); ++i) {
+                    assertValue(name + "@" + i, columnar.getValue(name, i), expected.getValue(name, i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testColumnarIndexMixedColumns() {
+        String json = "{\"items\": [" +
+                "{\"v\": 1.50, \"s\": \"a\", \"b\": true, \"m\": 1}," +
+                "{\"v\": 12345678901234567890123, \"s\": \"b\", \"b\": false, \"m\": \"x\"}," +
+                "{\"s\": \"a\", \"b\": true, \"m\": [1, 2]}," +
+                "{\"v\": -7, \"s\": null, \"m\": false}" +
+                "]}";
+        DataSetIndex dsi = DataSetIndex.index(JsonParser.parseString(json).getAsJsonObject(),
+                DataSetIndex.Mode.COLUMNAR);
+
+        assertThat(dsi.numberOfPermutations(), is(4));
+        assertThat(dsi.getValue("items.v", 0).asNumeric(), is(new BigDecimal("1.50")));
+        assertThat(dsi.getValue("items.v", 1).asNumeric(), is(new BigDecimal("12345678901234567890123")));
+        assertThat(dsi.getValue("items.v", 2).isNull(), is(true));
+        assertThat(dsi.getValue("items.v", 3), is(Variant.fromInt(-7)));
+        assertThat(dsi.getValue("items.s", 2), is(Variant.fromString("a")));
+        assertThat(dsi.getValue("items.s", 3).isNull(), is(true));
+        assertThat(dsi.getValue("items.b", 1), is(Variant.fromBoolean(false)));
+        assertThat(dsi.getValue("items.b", 2), is(Variant.fromBoolean(true)));
+        assertThat(dsi.getValue("items.m", 0), is(Variant.fromInt(1)));
+        assertThat(dsi.getValue("items.m", 1), is(Variant.fromString("x")));
+        assertThat(dsi.getValue("items.m", 2).isArray(), is(true));
+        assertThat(dsi.getValue("items.m", 3), is(Variant.fromBoolean(false)));
+        assertThat(dsi.getValue("items.m", 10).isNull(), is(true));
+    }
+
+    private static void assertValue(String reason, Variant actual, Variant expected) {
+        assertThat(reason, actual.getClass().getName(), is(expected.getClass().getName()));
+        assertThat(reason, actual.asString(), is(expected.asString()));
+    }
+}
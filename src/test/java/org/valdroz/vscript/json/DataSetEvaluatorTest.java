@@ -0,0 +1,132 @@
+package org.valdroz.vscript.json;
+
+import com.google.common.collect.Iterables;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.valdroz.vscript.CompiledExpression;
+import org.valdroz.vscript.DefaultRunBlock;
+import org.valdroz.vscript.MetricsListener;
+import org.valdroz.vscript.Variant;
+
+import java.nio.charset.Charset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Valerijus Drozdovas
+ */
+public class DataSetEvaluatorTest {
+
+    @Test
+    public void testParallelEvaluationMatchesSequential() throws Exception {
+        String json = IOUtils.toString(JsonDataSetMaker.class.getResource("/test-data-set-4.json"), Charset.defaultCharset());
+        DataSetIndex dsi = DataSetIndex.index(JsonParser.parseString(json).getAsJsonObject());
+        CompiledExpression expr = CompiledExpression.compile("size(id) + size(objects.type)");
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Variant[] results = new DataSetEvaluator(expr, pool).withSequentialThreshold(1).evaluate(dsi);
+
+            assertThat(results.length, is(dsi.numberOfPermutations()));
+            for (int i = 0; i < results.length; ++i) {
+                assertThat(results[i], is(expr.eval(dsi.getAsVariantContainer(i))));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testMatchingPermutations() throws Exception {
+        String json = IOUtils.toString(JsonDataSetMaker.class.getResource("/test-data-set-3.json"), Charset.defaultCharset());
+        DataSetIndex dsi = DataSetIndex.index(JsonParser.parseString(json).getAsJsonObject());
+
+        DataSetEvaluator evaluator = new DataSetEvaluator(
+                CompiledExpression.compile("objects.type == \"obj2\" && otherObjects.ch.n > 1"))
+                .withSequentialThreshold(2);
+
+        assertThat(evaluator.matchingPermutations(dsi), is(new int[]{5}));
+    }
+
+    @Test
+    public void testShortCircuitMatchOverIndex() throws Exception {
+        String json = IOUtils.toString(JsonDataSetMaker.class.getResource("/test-data-set-3.json"), Charset.defaultCharset());
+        DataSetIndex dsi = DataSetIndex.index(JsonParser.parseString(json).getAsJsonObject());
+
+        DataSetEvaluator evaluator = new DataSetEvaluator(
+                CompiledExpression.compile("objects.type == \"obj2\" && otherObjects.ch.n > 1"));
+        assertThat(evaluator.firstMatch(dsi), is(5));
+        assertThat(evaluator.anyMatch(dsi), is(true));
+        assertThat(evaluator.allMatch(dsi), is(false));
+
+        assertThat(new DataSetEvaluator(CompiledExpression.compile("id == \"1234567890\"")).allMatch(dsi), is(true));
+        assertThat(new DataSetEvaluator(CompiledExpression.compile("objects.data > 100")).firstMatch(dsi), is(-1));
+    }
+
+    @Test
+    public void testPruningIndependentOfKeyOrder() {
+        DataSetIndex dsi = DataSetIndex.index(JsonParser.parseString(
+                "{\"a\": [{\"x\": 1}, {\"x\": 9}], \"b\": [{\"y\": 1}, {\"y\": 2}, {\"y\": 2}]}").getAsJsonObject());
+        assertThat(dsi.numberOfPermutations(), is(6));
+
+        assertThat(evaluationsOf("a.x < 100", dsi), is(2));
+        assertThat(evaluationsOf("b.y < 100", dsi), is(2));
+        assertThat(evaluationsOf("a.x + b.y < 100", dsi), is(4));
+    }
+
+    private static int evaluationsOf(String equation, DataSetIndex dsi) {
+        AtomicInteger evaluations = new AtomicInteger();
+        CompiledExpression expr = CompiledExpression.compile(equation).withMetricsListener(new MetricsListener() {
+            @Override
+            public void onEvaluation(String source, long durationNanos) {
+                evaluations.incrementAndGet();
+            }
+        });
+        assertThat(new DataSetEvaluator(expr).allMatch(dsi), is(true));
+        return evaluations.get();
+    }
+
+    @Test
+    public void testShortCircuitMatchOverJson() throws Exception {
+        String json = IOUtils.toString(JsonDataSetMaker.class.getResource("/test-data-set-3.json"), Charset.defaultCharset());
+        JsonObject jo = JsonParser.parseString(json).getAsJsonObject();
+
+        DataSetEvaluator evaluator = new DataSetEvaluator(
+                CompiledExpression.compile("objects.type == \"obj2\" && otherObjects.ch.n > 1"));
+        JsonObject expected = null;
+        for (JsonObject dataSet : new JsonDataSetMaker(jo).getDataSets()) {
+            if (evaluator.anyMatch(dataSet)) {
+                expected = dataSet;
+                break;
+            }
+        }
+        assertThat(evaluator.firstMatch(jo), is(Optional.of(expected)));
+        assertThat(evaluator.allMatch(jo), is(false));
+        assertThat(new DataSetEvaluator(CompiledExpression.compile("objects.data >= 0")).allMatch(jo), is(true));
+        assertThat(new DataSetEvaluator(CompiledExpression.compile("objects.data > 100")).anyMatch(jo), is(false));
+    }
+
+    @Test
+    public void testUnreferencedGroupsArePruned() throws Exception {
+        String json = IOUtils.toString(JsonDataSetMaker.class.getResource("/test-data-set-3.json"), Charset.defaultCharset());
+        JsonObject jo = JsonParser.parseString(json).getAsJsonObject();
+
+        JsonDataSetMaker maker = new JsonDataSetMaker(jo, JsonDataSetMaker.Mode.KEEP_ARRAYS_FOR_PRIMITIVES);
+        assertThat(Iterables.size(maker.getLazyDataSets()), is(6));
+        assertThat(Iterables.size(maker.getLazyDataSets(path -> path.equals("objects"))), is(2));
+        assertThat(Iterables.size(maker.getLazyDataSets(path -> false)), is(1));
+
+        DefaultRunBlock runBlock = new DefaultRunBlock();
+        AtomicInteger calls = new AtomicInteger();
+        runBlock.registerFunction("count()", lvc -> Variant.fromInt(calls.incrementAndGet()));
+        new DataSetEvaluator(CompiledExpression.compile("count() < 0", runBlock)).anyMatch(jo,
+                JsonDataSetMaker.Mode.KEEP_ARRAYS_FOR_PRIMITIVES);
+        assertThat(calls.get(), is(6));
+    }
+}
@@ -0,0 +1,113 @@
+package org.valdroz.vscript.json;
+
+import com.google.common.collect.Sets;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.valdroz.vscript.CompiledExpression;
+import org.valdroz.vscript.Variant;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * @author Valerijus Drozdovas
+ */
+public class DataSetIndexSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSnapshotRoundTrip() throws Exception {
+        for (String resource : new String[]{"/test-data-set-3.json", "/test-data-set-4.json"}) {
+            String json = IOUtils.toString(JsonDataSetMaker.class.getResource(resource), Charset.defaultCharset());
+            for (DataSetIndex expected : new DataSetIndex[]{
+                    DataSetIndex.index(JsonParser.parseString(json).getAsJsonObject()),
+                    DataSetIndex.index(JsonParser.parseString(json).getAsJsonObject(), DataSetIndex.Mode.COLUMNAR)}) {
+                Path path = folder.newFile().toPath();
+                expected.save(path);
+                DataSetIndex actual = DataSetIndex.load(path);
+
+                assertThat(actual.numberOfPermutations(), is(expected.numberOfPermutations()));
+                assertThat(Sets.newHashSet(actual.getNames()), is(Sets.newHashSet(expected.getNames())));
+                assertThat(Sets.newHashSet(actual.getObjectArrayNames()), is(Sets.newHashSet(expected.getObjectArrayNames())));
+                for (int i = 0; i < expected.numberOfPermutations(); ++i) {
+                    for (String name : expected.getNames()) {
+                        assertThat(actual.getValue(name, i), is(expected.getValue(name, i)));
+                        assertThat(actual.hasPermutations(name), is(expected.hasPermutations(name)));
+                    }
+                    for (String name : expected.getObjectArrayNames()) {
+                        assertThat(actual.getJsonElement(name, i), is(expected.getJsonElement(name, i)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEvaluateLoadedSnapshot() throws Exception {
+        String json = IOUtils.toString(JsonDataSetMaker.class.getResource("/test-data-set-3.json"), Charset.defaultCharset());
+        Path path = folder.newFile().toPath();
+        DataSetIndex.index(JsonParser.parseString(json).getAsJsonObject()).save(path);
+
+        DataSetIndex dsi = DataSetIndex.load(path);
+        DataSetEvaluator evaluator = new DataSetEvaluator(
+                CompiledExpression.compile("objects.type == \"obj2\" && otherObjects.ch.n > 1"));
+        assertThat(evaluator.matchingPermutations(dsi), is(new int[]{5}));
+        assertThat(dsi.getValue("prefs", 3).asArray().get(1), is(Variant.fromString("p2")));
+    }
+
+    @Test
+    public void testSaveOverLoadedSnapshot() throws Exception {
+        String json3 = IOUtils.toString(JsonDataSetMaker.class.getResource("/test-data-set-3.json"), Charset.defaultCharset());
+        String json4 = IOUtils.toString(JsonDataSetMaker.class.getResource("/test-data-set-4.json"), Charset.defaultCharset());
+        DataSetIndex expected = DataSetIndex.index(JsonParser.parseString(json3).getAsJsonObject());
+        Path path = folder.newFile().toPath();
+        expected.save(path);
+
+        DataSetIndex loaded = DataSetIndex.load(path);
+        DataSetIndex other = DataSetIndex.index(JsonParser.parseString(json4).getAsJsonObject());
+        other.save(path);
+
+        for (int i = 0; i < expected.numberOfPermutations(); ++i) {
+            for (String name : expected.getNames()) {
+                assertThat(loaded.getValue(name, i), is(expected.getValue(name, i)));
+            }
+            for (String name : expected.getObjectArrayNames()) {
+                assertThat(loaded.getJsonElement(name, i), is(expected.getJsonElement(name, i)));
+            }
+        }
+        assertThat(DataSetIndex.load(path).numberOfPermutations(), is(other.numberOfPermutations()));
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            assertThat(files.count(), is(1L));
+        }
+    }
+
+    @Test
+    public void testLoadInvalidSnapshot() throws Exception {
+        Path path = folder.newFile().toPath();
+        Files.write(path, "{\"id\": 1}".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> DataSetIndex.load(path));
+
+        Files.write(path, new byte[]{0x56, 0x53, 0x44, 0x49, 0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0x7f, 0});
+        assertThrows(IOException.class, () -> DataSetIndex.load(path));
+    }
+
+    @Test
+    public void testOffsetRange() throws Exception {
+        assertThat(DataSetIndexSnapshot.offset(Integer.MAX_VALUE), is(Integer.MAX_VALUE));
+        assertThrows(IOException.class, () -> DataSetIndexSnapshot.offset(Integer.MAX_VALUE + 1L));
+        assertThrows(IOException.class, () -> DataSetIndexSnapshot.offset(1L << 32));
+    }
+}
@@ -1,16 +1,25 @@
 package org.valdroz.vscript.json;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.valdroz.vscript.Variant;
 
+import java.io.InputStream;
+import java.io.StringReader;
 import java.nio.charset.Charset;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThrows;
 
 /**
  * @author Valerijus Drozdovas
@@ -76,4 +85,82 @@ public class DataSetIndexTest {
         assertThat(dsi.numberOfPermutations(), is(24));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIndexReferencedPathsOnly() throws Exception {
+        String json = IOUtils.toString(JsonDataSetMaker.class.getResource("/test-data-set-3.json"), Charset.defaultCharset());
+        JsonObject jo = JsonParser.parseString(json).getAsJsonObject();
+
+        DataSetIndex dsi = DataSetIndex.index(jo, Lists.newArrayList("id", "objects.type"));
+        assertThat(dsi.numberOfPermutations(), is(2));
+        assertThat(Lists.newArrayList(dsi.getNames()), containsInAnyOrder("id", "objects.type"));
+        assertThat(dsi.getValue("objects.type", 1), is(Variant.fromString("obj2")));
+
+        dsi = DataSetIndex.index(jo, Lists.newArrayList("prefs", "otherObjects.unknown"));
+        assertThat(dsi.numberOfPermutations(), is(1));
+        assertThat(Lists.newArrayList(dsi.getNames()), containsInAnyOrder("prefs"));
+
+        dsi = DataSetIndex.index(jo, Lists.newArrayList("otherObjects"), DataSetIndex.Mode.COLUMNAR);
+        assertThat(dsi.numberOfPermutations(), is(3));
+        assertThat(dsi.getValue("otherObjects.ch.n", 2), is(Variant.fromInt(2)));
+    }
+
+    @Test
+    public void testStreamingIndexMatchesTreeIndex() throws Exception {
+        for (String resource : new String[]{"/test-data-set-3.json", "/test-data-set-4.json"}) {
+            String json = IOUtils.toString(JsonDataSetMaker.class.getResource(resource), Charset.defaultCharset());
+            DataSetIndex expected = DataSetIndex.index(JsonParser.parseString(json).getAsJsonObject());
+            DataSetIndex actual = DataSetIndex.index(new StringReader(json));
+
+            assertThat(actual.numberOfPermutations(), is(expected.numberOfPermutations()));
+            assertThat(Sets.newHashSet(actual.getNames()), is(Sets.newHashSet(expected.getNames())));
+            for (String name : expected.getNames()) {
+                for (int i = 0; i < expected.numberOfPermutations(); ++i) {
+                    assertThat(actual.getValue(name, i), is(expected.getValue(name, i)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingIndexFromInputStream() throws Exception {
+        try (InputStream in = JsonDataSetMaker.class.getResourceAsStream("/test-data-set-3.json")) {
+            DataSetIndex dsi = DataSetIndex.index(in, DataSetIndex.Mode.COLUMNAR);
+            assertThat(dsi.numberOfPermutations(), is(6));
+            assertThat(dsi.getValue("otherObjects.ch.n", 5), is(Variant.fromInt(2)));
+        }
+
+        DataSetIndex dsi = DataSetIndex.index(new StringReader("{\"a\": [{\"b\": 1}, {\"b\": 2}], \"c\": [{\"d\": 1}, {\"d\": 2}]}"),
+                Lists.newArrayList("a.b"));
+        assertThat(dsi.numberOfPermutations(), is(2));
+        assertThat(Lists.newArrayList(dsi.getNames()), containsInAnyOrder("a.b"));
+
+        assertThrows(JsonSyntaxException.class, () -> DataSetIndex.index(new StringReader("[1, 2]")));
+        assertThrows(JsonSyntaxException.class, () -> DataSetIndex.index(new StringReader("{\"a\": ")));
+    }
+
+    @Test
+    public void testStreamingRejectsTrailingContent() {
+        for (String json : new String[]{"{\"a\":1} {\"a\":2}", "{\"a\":1} garbage", "{a: 1}"}) {
+            assertThrows(json, JsonSyntaxException.class, () -> DataSetIndex.index(new StringReader(json)));
+        }
+        for (String json : new String[]{"{\"a\":1} {\"a\":2}", "{\"a\":1} garbage"}) {
+            assertThrows(json, JsonSyntaxException.class, () -> JsonParser.parseString(json));
+        }
+        assertThat(DataSetIndex.index(new StringReader(" {\"a\": 1}\n")).getValue("a", 0), is(Variant.fromInt(1)));
+    }
+
+    @Test
+    public void testNestedObjectReconstructionAndPathInterning() {
+        String json = "{\"a\": {\"b\": 1, \"c\": {\"d\": 2}}, \"ab\": 3, \"a0\": 4}";
+        DataSetIndex dsi = DataSetIndex.index(JsonParser.parseString(json).getAsJsonObject());
+
+        assertThat(dsi.getJsonElement("a", 0), is(JsonParser.parseString("{\"b\": 1, \"c\": {\"d\": 2}}")));
+        assertThat(dsi.getJsonElement("a.c", 0), is(JsonParser.parseString("{\"d\": 2}")));
+        assertThat(dsi.getJsonElement("x", 0), is(JsonParser.parseString("{}")));
+
+        DataSetIndex other = DataSetIndex.index(new StringReader(json));
+        String path = Iterables.find(dsi.getNames(), "a.c.d"::equals);
+        assertThat(Iterables.find(other.getNames(), "a.c.d"::equals), sameInstance(path));
+    }
+}
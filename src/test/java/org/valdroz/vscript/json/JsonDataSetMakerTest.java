@@ -136,4 +136,24 @@ public class JsonDataSetMakerTest {
         assertThat(dataSets, containsInAnyOrder(Lists.newArrayList(ja.iterator()).toArray()));
     }
 
+    @Test
+    public void getLazyDataSetsMatchesDataSets() throws Exception {
+        for (String resource : new String[]{"/test-data-set.json", "/test-data-set-2.json",
+                "/test-data-set-3.json", "/test-data-set-4.json"}) {
+            String json = IOUtils.toString(JsonDataSetMaker.class.getResource(resource), Charset.defaultCharset());
+            JsonObject jo = JsonParser.parseString(json).getAsJsonObject();
+
+            for (JsonDataSetMaker.Mode[] modes : Lists.newArrayList(
+                    new JsonDataSetMaker.Mode[0],
+                    new JsonDataSetMaker.Mode[]{JsonDataSetMaker.Mode.KEEP_ARRAYS_FOR_PRIMITIVES},
+                    new JsonDataSetMaker.Mode[]{JsonDataSetMaker.Mode.KEEP_COMPLEX_ARRAYS})) {
+                List<JsonObject> expected = Lists.newArrayList(new JsonDataSetMaker(jo, modes).getDataSets());
+                Iterable<JsonObject> lazy = new JsonDataSetMaker(jo, modes).getLazyDataSets();
+
+                assertThat(resource, Lists.newArrayList(lazy), is(expected));
+                assertThat(resource, Lists.newArrayList(lazy), is(expected));
+            }
+        }
+    }
+
 }
\ No newline at end of file
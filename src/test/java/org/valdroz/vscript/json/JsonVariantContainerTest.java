@@ -16,6 +16,7 @@
 package org.valdroz.vscript.json;
 
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
@@ -114,4 +115,59 @@ public class JsonVariantContainerTest {
         assertThat(new EquationEval("is_array(two) && size(two) == 2").eval(containers.get(0)), booleanOf(true));
         assertThat(new EquationEval("!is_array(single) && size(single) == 7").eval(containers.get(0)), booleanOf(true));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void iterateVariantContainers() throws Exception {
+        String json = IOUtils.toString(JsonDataSetMaker.class.getResource("/test-data-set-3.json"), Charset.defaultCharset());
+        JsonElement je = JsonParser.parseString(json);
+
+        List<JsonVariantContainer> expected = JsonVariantContainer.jsonToVariantContainers(je.getAsJsonObject());
+        Iterable<JsonVariantContainer> lazy = JsonVariantContainer.iterateVariantContainers(je.getAsJsonObject());
+
+        EquationEval eval = new EquationEval("objects.type + \"/\" + otherObjects.type + \"/\" + otherObjects.ch.n");
+        int count = 0;
+        for (JsonVariantContainer container : lazy) {
+            assertThat(container.getJsonObject(), is(expected.get(count).getJsonObject()));
+            assertThat(eval.eval(container), is(eval.eval(expected.get(count))));
+            ++count;
+        }
+        assertThat(count, is(expected.size()));
+    }
+
+    @Test
+    public void getJsonElementAssemblesNestedPaths() {
+        JsonElement je = JsonParser.parseString("{\"a\": {\"b\": 1, \"c\": {\"d\": 2}}, \"ab\": 3, \"a0\": 4}");
+        JsonVariantContainer container = JsonVariantContainer.jsonToVariantContainers(je.getAsJsonObject()).get(0);
+
+        assertThat(container.getJsonElement("a"), is(JsonParser.parseString("{\"b\": 1, \"c\": {\"d\": 2}}")));
+        assertThat(container.getJsonElement("a.c"), is(JsonParser.parseString("{\"d\": 2}")));
+        assertThat(container.getJsonElement("ab"), is(JsonParser.parseString("3")));
+        assertThat(container.getJsonElement("x"), nullValue());
+
+        container.setVariant("a.e", Variant.fromInt(5));
+        assertThat(container.getJsonElement("a"), is(JsonParser.parseString("{\"b\": 1, \"c\": {\"d\": 2}, \"e\": 5}")));
+        assertThat(container.getJsonElement("a"), is(JsonParser.parseString("{\"b\": 1, \"c\": {\"d\": 2}, \"e\": 5}")));
+
+        container.getJsonObject().remove("a.e");
+        container.getJsonObject().addProperty("a.f", 6);
+        assertThat(container.getJsonElement("a"), is(JsonParser.parseString("{\"b\": 1, \"c\": {\"d\": 2}, \"f\": 6}")));
+        container.getJsonObject().remove("a.b");
+        container.getJsonObject().addProperty("a.g", 7);
+        assertThat(container.getJsonElement("a"), is(JsonParser.parseString("{\"c\": {\"d\": 2}, \"f\": 6, \"g\": 7}")));
+    }
+
+    @Test
+    public void getJsonElementKeepsInsertionOrder() {
+        JsonVariantContainer container = new JsonVariantContainer(new JsonObject());
+        container.setVariant("a.z", Variant.fromInt(1));
+        container.setVariant("a.b.y", Variant.fromInt(2));
+        container.setVariant("a.m", Variant.fromInt(3));
+        container.setVariant("a.b.c", Variant.fromInt(4));
+
+        String expected = "{\"z\":1,\"b\":{\"y\":2,\"c\":4},\"m\":3}";
+        assertThat(container.getJsonElement("a").toString(), is(expected));
+        assertThat(container.getJsonElement("a").toString(), is(expected));
+        assertThat(container.getJsonElement("a").toString(), is(expected));
+        assertThat(container.getJsonElement("a.b").toString(), is("{\"y\":2,\"c\":4}"));
+    }
+}